@@ -0,0 +1,123 @@
+import java.io.OutputStream;
+
+import bench.Engines;
+import components.simplewriter.SimpleWriter;
+
+/**
+ * The engines of GameOfLifeV1, for the benchmarks in package {@code bench},
+ * which cannot name classes in the default package.
+ */
+public final class Engines1 implements Engines {
+
+    /**
+     * A board held by a {@link LifeEngine}.
+     */
+    private static final class EngineBoard implements Board {
+
+        /**
+         * The engine.
+         */
+        private final LifeEngine engine;
+
+        /**
+         * Creates a board held by an engine.
+         *
+         * @param engine
+         *            the engine
+         */
+        EngineBoard(LifeEngine engine) {
+            this.engine = engine;
+        }
+
+        @Override
+        public void tick() {
+            this.engine.tick();
+        }
+
+        @Override
+        public long population() {
+            return this.engine.population();
+        }
+    }
+
+    /**
+     * Creates the engines; called by {@link Engines#load()}.
+     */
+    public Engines1() {
+        // no code needed here
+    }
+
+    /**
+     * Makes a renderer.
+     *
+     * @param renderer
+     *            the FrameRenderer
+     * @return the renderer, for boards made by this class
+     */
+    private static Renderer renderer(FrameRenderer renderer) {
+        return board -> renderer.render(((EngineBoard) board).engine);
+    }
+
+    @Override
+    public void tickGame(boolean[][] grid) {
+        GameOfLifeV2.tickGame(grid);
+    }
+
+    @Override
+    public long countNeighbors(boolean[][] grid) {
+        long sum = 0;
+        for (int row = 0; row < grid.length; row++) {
+            for (int column = 0; column < grid[row].length; column++) {
+                sum += GameOfLifeV2.countNeighbors(grid, row, column);
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public void updateBoard(boolean[][] oldGrid, boolean[][] newGrid) {
+        GameOfLifeV2.updateBoard(oldGrid, newGrid);
+    }
+
+    @Override
+    public void printBoard(SimpleWriter out, boolean[][] grid) {
+        GameOfLifeV2.printBoard(out, grid);
+    }
+
+    @Override
+    public Board packed(boolean[][] grid) {
+        return new EngineBoard(PackedBoard.fromGrid(grid));
+    }
+
+    @Override
+    public Board buffered(boolean[][] grid) {
+        return new EngineBoard(new BufferedGrid(grid));
+    }
+
+    @Override
+    public Board vector(boolean[][] grid) {
+        return new EngineBoard(VectorSupport.wrap(PackedBoard.fromGrid(grid)));
+    }
+
+    @Override
+    public boolean hasVector() {
+        return VectorSupport.isAvailable();
+    }
+
+    @Override
+    public Renderer scroll(OutputStream out) {
+        return renderer(new FrameRenderer(out, FrameRenderer.Mode.SCROLL));
+    }
+
+    @Override
+    public Renderer diff(OutputStream out) {
+        return renderer(new FrameRenderer(out, FrameRenderer.Mode.DIFF));
+    }
+
+    @Override
+    public Renderer braille(OutputStream out) {
+        return renderer(new FrameRenderer(out, FrameRenderer.Mode.SCROLL,
+                FrameRenderer.Glyphs.BRAILLE));
+    }
+
+}
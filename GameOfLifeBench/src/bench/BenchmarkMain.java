@@ -0,0 +1,54 @@
+package bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks and writes the results as JSON, so runs before and
+ * after an engine change can be compared.
+ */
+public final class BenchmarkMain {
+
+    /**
+     * Where the results go when no file is given.
+     */
+    private static final String DEFAULT_RESULT = "bench-results.json";
+
+    /**
+     * Default constructor--private to prevent instantiation.
+     */
+    private BenchmarkMain() {
+        // no code needed here
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            optional: the result file, then a regular expression
+     *            selecting the benchmarks to run, then the board sizes to
+     *            run, comma separated (for example "6,256")
+     * @throws RunnerException
+     *             if a benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        String result = DEFAULT_RESULT;
+        String include = ".*Benchmark.*";
+        if (args.length > 0) {
+            result = args[0];
+        }
+        if (args.length > 1) {
+            include = args[1];
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().include(include)
+                .resultFormat(ResultFormatType.JSON).result(result);
+        if (args.length > 2) {
+            options = options.param("size", args[2].split(","));
+        }
+        new Runner(options.build()).run();
+    }
+
+}
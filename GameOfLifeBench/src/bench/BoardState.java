@@ -0,0 +1,126 @@
+package bench;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Starting boards shared by the benchmarks, for every combination of board
+ * size and pattern. The boards are rebuilt before each iteration so a random
+ * board has not died down by the time it is measured.
+ */
+@State(Scope.Thread)
+public class BoardState {
+
+    /**
+     * Seed of the random boards, so every run measures the same boards.
+     */
+    private static final long SEED = 20_170_401L;
+
+    /**
+     * The engines measured.
+     */
+    public static final Engines ENGINES = Engines.load();
+
+    /**
+     * Percentage of live cells on a sparse board.
+     */
+    private static final int SPARSE_PERCENT = 1;
+
+    /**
+     * Number of rows and columns.
+     */
+    @Param({ "6", "256", "4096" })
+    public int size;
+
+    /**
+     * The starting pattern: a single glider, 50% random or 1% random.
+     */
+    @Param({ "glider", "random50", "sparse1" })
+    public String pattern;
+
+    /**
+     * The board as a grid.
+     */
+    public boolean[][] grid;
+
+    /**
+     * A second grid of the same size, for copying into.
+     */
+    public boolean[][] scratch;
+
+    /**
+     * The board, bit-packed.
+     */
+    public Engines.Board packed;
+
+    /**
+     * The board, double-buffered.
+     */
+    public Engines.Board buffered;
+
+    /**
+     * A copy of the bit-packed board, in the vector engine when it can be
+     * loaded.
+     */
+    public Engines.Board vector;
+
+    /**
+     * Builds the boards.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        this.grid = makeGrid(this.size, this.pattern);
+        this.scratch = new boolean[this.size][this.size];
+        this.packed = ENGINES.packed(this.grid);
+        this.buffered = ENGINES.buffered(this.grid);
+        this.vector = ENGINES.vector(this.grid);
+    }
+
+    /**
+     * Makes a starting board.
+     *
+     * @param size
+     *            the number of rows and columns
+     * @param pattern
+     *            "glider", "random50" or "sparse1"
+     * @return the grid
+     */
+    public static boolean[][] makeGrid(int size, String pattern) {
+        final int percent = 100;
+        boolean[][] grid = new boolean[size][size];
+        Random random = new Random(SEED);
+        switch (pattern) {
+            case "glider":
+                grid[0][1] = true;
+                grid[1][2] = true;
+                grid[2][0] = true;
+                grid[2][1] = true;
+                grid[2][2] = true;
+                break;
+            case "random50":
+                for (int i = 0; i < size; i++) {
+                    for (int j = 0; j < size; j++) {
+                        grid[i][j] = random.nextBoolean();
+                    }
+                }
+                break;
+            case "sparse1":
+                for (int i = 0; i < size; i++) {
+                    for (int j = 0; j < size; j++) {
+                        grid[i][j] = random.nextInt(percent) < SPARSE_PERCENT;
+                    }
+                }
+                break;
+            default:
+                throw new IllegalArgumentException(
+                        "Unknown pattern: " + pattern);
+        }
+        return grid;
+    }
+
+}
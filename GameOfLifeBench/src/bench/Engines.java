@@ -0,0 +1,177 @@
+package bench;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import components.simplewriter.SimpleWriter;
+
+/**
+ * The code the benchmarks measure. JMH generates its harness in the package
+ * of each benchmark and will not use the default package, while the engines
+ * of GameOfLifeV1 are in the default package, which code in a named package
+ * cannot name. {@code Engines1}, in the default package of this project,
+ * implements this interface over them and is loaded by name; each method is
+ * a direct call into the engine, so the benchmarks measure the engines and
+ * not this layer.
+ */
+public interface Engines {
+
+    /**
+     * Name of the class that implements this interface.
+     */
+    String IMPLEMENTATION = "Engines1";
+
+    /**
+     * A board held by one of the engines.
+     */
+    interface Board {
+
+        /**
+         * Computes the next generation.
+         */
+        void tick();
+
+        /**
+         * Counts the live cells.
+         *
+         * @return the number of live cells
+         */
+        long population();
+    }
+
+    /**
+     * Draws boards to a stream.
+     */
+    interface Renderer {
+
+        /**
+         * Draws a board made by {@link Engines#packed(boolean[][])}.
+         *
+         * @param board
+         *            the board
+         * @throws IOException
+         *             if the stream fails
+         */
+        void render(Board board) throws IOException;
+    }
+
+    /**
+     * Loads the implementation.
+     *
+     * @return the engines
+     * @throws IllegalStateException
+     *             if {@code Engines1} is not on the class path
+     */
+    static Engines load() {
+        try {
+            return Class.forName(IMPLEMENTATION).asSubclass(Engines.class)
+                    .getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot load " + IMPLEMENTATION,
+                    e);
+        }
+    }
+
+    /**
+     * GameOfLifeV2.tickGame.
+     *
+     * @param grid
+     *            the board
+     * @updates grid
+     */
+    void tickGame(boolean[][] grid);
+
+    /**
+     * GameOfLifeV2.countNeighbors for every cell.
+     *
+     * @param grid
+     *            the board
+     * @return the sum of the counts
+     */
+    long countNeighbors(boolean[][] grid);
+
+    /**
+     * GameOfLifeV2.updateBoard.
+     *
+     * @param oldGrid
+     *            the grid to copy into
+     * @param newGrid
+     *            the grid to copy
+     * @replaces oldGrid
+     */
+    void updateBoard(boolean[][] oldGrid, boolean[][] newGrid);
+
+    /**
+     * GameOfLifeV2.printBoard.
+     *
+     * @param out
+     *            the stream
+     * @param grid
+     *            the board
+     */
+    void printBoard(SimpleWriter out, boolean[][] grid);
+
+    /**
+     * Copies a grid into a bit-packed board.
+     *
+     * @param grid
+     *            the starting board
+     * @return the board
+     */
+    Board packed(boolean[][] grid);
+
+    /**
+     * Copies a grid into a double-buffered grid.
+     *
+     * @param grid
+     *            the starting board
+     * @return the board
+     */
+    Board buffered(boolean[][] grid);
+
+    /**
+     * Copies a grid into a bit-packed board ticked by the vector engine, or
+     * by the scalar one if the vector engine cannot be loaded.
+     *
+     * @param grid
+     *            the starting board
+     * @return the board
+     */
+    Board vector(boolean[][] grid);
+
+    /**
+     * Reports whether {@link #vector(boolean[][])} uses the vector engine.
+     *
+     * @return true iff the vector engine was loaded
+     */
+    boolean hasVector();
+
+    /**
+     * Makes a FrameRenderer that prints whole frames.
+     *
+     * @param out
+     *            the stream
+     * @return the renderer
+     */
+    Renderer scroll(OutputStream out);
+
+    /**
+     * Makes a FrameRenderer that prints only changed cells.
+     *
+     * @param out
+     *            the stream
+     * @return the renderer
+     */
+    Renderer diff(OutputStream out);
+
+    /**
+     * Makes a FrameRenderer that prints whole frames with eight cells per
+     * character.
+     *
+     * @param out
+     *            the stream
+     * @return the renderer
+     */
+    Renderer braille(OutputStream out);
+
+}
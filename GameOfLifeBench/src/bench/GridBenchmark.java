@@ -0,0 +1,48 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time of the pieces tickGame is made of, each over a whole board.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridBenchmark {
+
+    /**
+     * GameOfLifeV2.countNeighbors for every cell.
+     *
+     * @param state
+     *            the boards
+     * @return the sum of the counts, so the work is not optimized away
+     */
+    @Benchmark
+    public long countNeighbors(BoardState state) {
+        return BoardState.ENGINES.countNeighbors(state.grid);
+    }
+
+    /**
+     * GameOfLifeV2.updateBoard copying one whole grid into another.
+     *
+     * @param state
+     *            the boards
+     * @return the copy, so the work is not optimized away
+     */
+    @Benchmark
+    public boolean[][] updateBoard(BoardState state) {
+        BoardState.ENGINES.updateBoard(state.scratch, state.grid);
+        return state.scratch;
+    }
+
+}
@@ -0,0 +1,189 @@
+package bench;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Time of drawing one frame. Output goes to the null device so only the
+ * rendering is measured, not the terminal.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RenderBenchmark {
+
+    /**
+     * Writer to the null device.
+     */
+    private SimpleWriter out;
+
+    /**
+     * Renderer that prints whole frames, to a stream that drops everything.
+     */
+    private Engines.Renderer scroll;
+
+    /**
+     * Renderer that prints only changed cells, to a stream that drops
+     * everything.
+     */
+    private Engines.Renderer diff;
+
+    /**
+     * Renderer that prints whole frames with eight cells per character, to a
+     * stream that drops everything.
+     */
+    private Engines.Renderer braille;
+
+    /**
+     * Opens the null device.
+     */
+    @Setup(Level.Trial)
+    public void open() {
+        this.out = new SimpleWriter1L(nullDevice());
+        Engines engines = BoardState.ENGINES;
+        this.scroll = engines.scroll(OutputStream.nullOutputStream());
+        this.diff = engines.diff(OutputStream.nullOutputStream());
+        this.braille = engines.braille(OutputStream.nullOutputStream());
+    }
+
+    /**
+     * Closes the null device.
+     */
+    @TearDown(Level.Trial)
+    public void close() {
+        this.out.close();
+    }
+
+    /**
+     * Returns the name of the file that discards everything written to it.
+     *
+     * @return the null device of this platform
+     */
+    static String nullDevice() {
+        if (System.getProperty("os.name").startsWith("Windows")) {
+            return "NUL";
+        }
+        return "/dev/null";
+    }
+
+    /**
+     * GameOfLifeV2.printBoard.
+     *
+     * @param state
+     *            the boards
+     */
+    @Benchmark
+    public void printBoard(BoardState state) {
+        BoardState.ENGINES.printBoard(this.out, state.grid);
+    }
+
+    /**
+     * The original GameOfLifeV2.printBoard, one print per character, kept
+     * here as the baseline the current printBoard is measured against.
+     *
+     * @param out
+     *            the stream
+     * @param grid
+     *            the array of booleans that hold the game.
+     */
+    static void printBoardPerCharacter(SimpleWriter out, boolean[][] grid) {
+        out.print('\u2554');
+        for (int i = 0; i < grid.length; i++) {
+            out.print('\u2550');
+        }
+        out.println('\u2557');
+        for (int i = 0; i < grid.length; i++) {
+            boolean[] line = grid[i];
+            out.print('\u2551');
+            for (int j = 0; j < line.length; j++) {
+                if (line[j]) {
+                    out.print('\u2588');
+                } else {
+                    out.print("\u2591");
+                }
+            }
+            out.print('\u2551');
+            out.println();
+        }
+        out.print('\u255A');
+        for (int i = 0; i < grid.length; i++) {
+            out.print('\u2550');
+        }
+        out.println('\u255D');
+    }
+
+    /**
+     * The original per-character printBoard, for comparison with
+     * {@link #printBoard(BoardState)}.
+     *
+     * @param state
+     *            the boards
+     */
+    @Benchmark
+    public void printBoardPerCharacter(BoardState state) {
+        printBoardPerCharacter(this.out, state.grid);
+    }
+
+    /**
+     * FrameRenderer drawing the whole packed board.
+     *
+     * @param state
+     *            the boards
+     * @throws IOException
+     *             never, the stream drops everything
+     */
+    @Benchmark
+    public void frameScroll(BoardState state) throws IOException {
+        this.scroll.render(state.packed);
+    }
+
+    /**
+     * FrameRenderer drawing the whole packed board in Braille.
+     *
+     * @param state
+     *            the boards
+     * @throws IOException
+     *             never, the stream drops everything
+     */
+    @Benchmark
+    public void frameBraille(BoardState state) throws IOException {
+        this.braille.render(state.packed);
+    }
+
+    /**
+     * FrameRenderer drawing only the cells that changed. The board is ticked
+     * before each frame so there is something to draw; subtract
+     * TickBenchmark.packedTick for the time of the frame alone.
+     *
+     * @param state
+     *            the boards
+     * @throws IOException
+     *             never, the stream drops everything
+     */
+    @Benchmark
+    public void frameDiff(BoardState state) throws IOException {
+        state.packed.tick();
+        this.diff.render(state.packed);
+    }
+
+}
@@ -0,0 +1,77 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time of one generation with each engine.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickBenchmark {
+
+    /**
+     * GameOfLifeV2.tickGame on a grid.
+     *
+     * @param state
+     *            the boards
+     * @return the board, so the work is not optimized away
+     */
+    @Benchmark
+    public boolean[][] tickGame(BoardState state) {
+        BoardState.ENGINES.tickGame(state.grid);
+        return state.grid;
+    }
+
+    /**
+     * The double-buffered grid.
+     *
+     * @param state
+     *            the boards
+     * @return the board, so the work is not optimized away
+     */
+    @Benchmark
+    public Engines.Board bufferedTick(BoardState state) {
+        state.buffered.tick();
+        return state.buffered;
+    }
+
+    /**
+     * The bit-packed board.
+     *
+     * @param state
+     *            the boards
+     * @return the board, so the work is not optimized away
+     */
+    @Benchmark
+    public Engines.Board packedTick(BoardState state) {
+        state.packed.tick();
+        return state.packed;
+    }
+
+    /**
+     * The bit-packed board ticked with the JDK Vector API, in a JVM that
+     * adds the incubating module (without it, the same as packedTick).
+     *
+     * @param state
+     *            the boards
+     * @return the engine, so the work is not optimized away
+     */
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+    public Engines.Board vectorTick(BoardState state) {
+        state.vector.tick();
+        return state.vector;
+    }
+
+}
@@ -1,23 +1,206 @@
-import components.map.Map;
+import java.util.function.LongConsumer;
 
+/**
+ * A read-only view of the live cells of a game. The view follows the game as
+ * it changes, so handing one out costs nothing and copies nothing.
+ *
+ * <p>
+ * A copy handed to the view by a {@link Simulation} is a frame: it is
+ * numbered, and may carry the cells that changed since an earlier frame, so
+ * the view can redraw only those.
+ * </p>
+ */
 public class Board {
-    // decide how to represent board
-    private double minX, minY, maxX, maxY;
-    private Map<Cell, Boolean> board;
 
+    /**
+     * The live cells.
+     */
+    private final SparseLife life;
+
+    /**
+     * Number of this frame, counting from 1, or 0 if this is not a frame.
+     */
+    private long frame;
+
+    /**
+     * The frame {@code changes} are counted from.
+     */
+    private long changesSince;
+
+    /**
+     * Keys of the cells that may have changed since frame
+     * {@code changesSince}.
+     */
+    private long[] changes = new long[0];
+
+    /**
+     * Number of keys in {@code changes}, or -1 if the changes are not known.
+     */
+    private int changeCount = -1;
+
+    /**
+     * Creates a view of an empty plane.
+     */
     public Board() {
+        this(new SparseLife());
+    }
+
+    /**
+     * Creates a view of a game.
+     *
+     * @param life
+     *            the game
+     */
+    Board(SparseLife life) {
+        this.life = life;
+    }
+
+    /**
+     * Makes this board a copy of another, to hand a frame to another thread.
+     *
+     * @param source
+     *            the board to copy
+     * @replaces this
+     */
+    void copyFrom(Board source) {
+        this.life.copyFrom(source.life);
+        this.frame = 0;
+        this.changeCount = -1;
+    }
+
+    /**
+     * Numbers this board as a frame and sets the cells that may have changed
+     * since an earlier frame.
+     *
+     * @param number
+     *            the number of this frame
+     * @param since
+     *            the frame the changes are counted from
+     * @param keys
+     *            the keys of the cells that may have changed, or null if
+     *            they are not known
+     * @param count
+     *            the number of keys
+     * @requires 0 <= since <= number and count <= |keys|
+     */
+    void setFrame(long number, long since, long[] keys, int count) {
+        this.frame = number;
+        this.changesSince = since;
+        this.changeCount = -1;
+        if (keys != null) {
+            if (this.changes.length < count) {
+                this.changes = new long[count];
+            }
+            System.arraycopy(keys, 0, this.changes, 0, count);
+            this.changeCount = count;
+        }
+    }
+
+    /**
+     * Returns the number of this frame.
+     *
+     * @return the frame number, counting from 1, or 0 if this is not a frame
+     */
+    public long frame() {
+        return this.frame;
+    }
 
+    /**
+     * Calls action with every cell that may have been born or died since an
+     * earlier frame, packed as by {@link SparseLife#key(int, int)}, if they
+     * are known. A cell may be passed more than once, or without having
+     * changed.
+     *
+     * @param since
+     *            the number of the earlier frame
+     * @param action
+     *            receives the keys
+     * @return true iff the changes since that frame are known, and were
+     *         passed to action
+     */
+    public boolean forEachChangeSince(long since, LongConsumer action) {
+        boolean known = this.frame > 0 && this.changeCount >= 0
+                && this.changesSince <= since && since <= this.frame;
+        if (known && since < this.frame) {
+            for (int i = 0; i < this.changeCount; i++) {
+                action.accept(this.changes[i]);
+            }
+        }
+        return known;
     }
 
+    /**
+     * Returns the number of columns the live cells span.
+     *
+     * @return the width of the live cells, or 0 if there are none
+     */
     public double getWidth() {
-        return this.maxX - this.minX;
+        if (this.life.population() == 0) {
+            return 0;
+        }
+        return (long) this.life.maxX() - this.life.minX() + 1;
     }
 
+    /**
+     * Returns the number of rows the live cells span.
+     *
+     * @return the height of the live cells, or 0 if there are none
+     */
     public double getHeight() {
-        return this.maxY - this.minY;
+        if (this.life.population() == 0) {
+            return 0;
+        }
+        return (long) this.life.maxY() - this.life.minY() + 1;
     }
 
+    /**
+     * Reports whether a cell is alive.
+     *
+     * @param c
+     *            the cell
+     * @return true iff the cell is alive
+     */
     public boolean cellState(Cell c) {
-        return this.board.hasKey(c);
+        return this.life.getCell(c.getX(), c.getY());
+    }
+
+    /**
+     * Reports whether a cell is alive.
+     *
+     * @param key
+     *            the cell, packed as by {@link SparseLife#key(int, int)}
+     * @return true iff the cell is alive
+     */
+    boolean isAlive(long key) {
+        return this.life.getCell(SparseLife.x(key), SparseLife.y(key));
+    }
+
+    /**
+     * Counts the live cells.
+     *
+     * @return the number of live cells
+     */
+    public long population() {
+        return this.life.population();
+    }
+
+    /**
+     * Returns the number of generations computed so far.
+     *
+     * @return the generation number
+     */
+    public long generation() {
+        return this.life.generation();
+    }
+
+    /**
+     * Calls action once with every live cell, packed as by
+     * {@link SparseLife#key(int, int)}. The game must not change meanwhile.
+     *
+     * @param action
+     *            receives the keys
+     */
+    public void forEachLiveCell(LongConsumer action) {
+        this.life.forEachLiveCell(action);
     }
 }
@@ -0,0 +1,323 @@
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Draws the live cells of a rectangle of the plane into an image, one pixel
+ * per cell, by writing the image's int raster directly; the image is then
+ * shown with a single drawImage call, scaled to any zoom. Each new frame
+ * only writes the pixels of cells that were born or died since the last one,
+ * and reports the rectangle they span so only that part of the screen is
+ * repainted.
+ *
+ * <p>
+ * When the frame knows which cells changed since the frame drawn last, see
+ * {@link Board#forEachChangeSince(long, LongConsumer)}, only those are
+ * looked at, so a frame costs time in proportion to the changes. Otherwise,
+ * as after a pan or an edit, every live cell of the frame is compared with
+ * the cells drawn before.
+ * </p>
+ */
+public final class BoardRaster {
+
+    /**
+     * Color of a live cell.
+     */
+    public static final int LIVE = 0x202020;
+
+    /**
+     * Color of a dead cell.
+     */
+    public static final int DEAD = 0xFFFFFF;
+
+    /**
+     * The image, one pixel per cell.
+     */
+    private BufferedImage image;
+
+    /**
+     * The raster of the image, row by row.
+     */
+    private int[] pixels;
+
+    /**
+     * Width of the image, in cells.
+     */
+    private int columns;
+
+    /**
+     * Height of the image, in cells.
+     */
+    private int rows;
+
+    /**
+     * Column of the plane at the left of the image.
+     */
+    private int originX;
+
+    /**
+     * Row of the plane at the top of the image.
+     */
+    private int originY;
+
+    /**
+     * Whether the image must be redrawn from scratch.
+     */
+    private boolean stale = true;
+
+    /**
+     * Number of the frame drawn last, or 0 if it was not a frame.
+     */
+    private long drawnFrame;
+
+    /**
+     * The cells drawn alive, as keys of {@link SparseLife#key(int, int)}.
+     */
+    private LongHashSet drawn = new LongHashSet();
+
+    /**
+     * The cells of the frame being drawn.
+     */
+    private LongHashSet next = new LongHashSet();
+
+    /**
+     * Rectangle of the pixels changed by the frame being drawn: left, top,
+     * one past the right and one past the bottom.
+     */
+    private int dirtyLeft, dirtyTop, dirtyRight, dirtyBottom;
+
+    /**
+     * The frame being drawn.
+     */
+    private Board board;
+
+    /**
+     * Redraws one cell that may have changed; reused for every frame.
+     */
+    private final LongConsumer redrawCell = this::redrawCell;
+
+    /**
+     * Draws one live cell of a frame; reused for every frame.
+     */
+    private final LongConsumer drawCell = this::drawCell;
+
+    /**
+     * Erases one cell that is no longer alive; reused for every frame.
+     */
+    private final LongConsumer eraseCell = this::eraseCell;
+
+    /**
+     * Creates a raster showing the cells from (0, 0).
+     *
+     * @param columns
+     *            width of the image, in cells
+     * @param rows
+     *            height of the image, in cells
+     */
+    public BoardRaster(int columns, int rows) {
+        this.resize(columns, rows);
+    }
+
+    /**
+     * Changes the size of the image. The next frame is drawn from scratch.
+     *
+     * @param newColumns
+     *            width of the image, in cells
+     * @param newRows
+     *            height of the image, in cells
+     */
+    public void resize(int newColumns, int newRows) {
+        int c = Math.max(1, newColumns);
+        int r = Math.max(1, newRows);
+        if (this.image != null && c == this.columns && r == this.rows) {
+            return;
+        }
+        this.columns = c;
+        this.rows = r;
+        this.image = new BufferedImage(c, r, BufferedImage.TYPE_INT_RGB);
+        this.pixels = ((DataBufferInt) this.image.getRaster()
+                .getDataBuffer()).getData();
+        this.stale = true;
+    }
+
+    /**
+     * Shows another rectangle of the plane. The next frame is drawn from
+     * scratch.
+     *
+     * @param x
+     *            the column at the left of the image
+     * @param y
+     *            the row at the top of the image
+     */
+    public void moveTo(int x, int y) {
+        if (x != this.originX || y != this.originY) {
+            this.originX = x;
+            this.originY = y;
+            this.stale = true;
+        }
+    }
+
+    /**
+     * Returns the column at the left of the image.
+     *
+     * @return the column
+     */
+    public int originX() {
+        return this.originX;
+    }
+
+    /**
+     * Returns the row at the top of the image.
+     *
+     * @return the row
+     */
+    public int originY() {
+        return this.originY;
+    }
+
+    /**
+     * Returns the width of the image.
+     *
+     * @return the number of columns shown
+     */
+    public int columns() {
+        return this.columns;
+    }
+
+    /**
+     * Returns the height of the image.
+     *
+     * @return the number of rows shown
+     */
+    public int rows() {
+        return this.rows;
+    }
+
+    /**
+     * Returns the image, one pixel per cell.
+     *
+     * @return the image
+     */
+    public BufferedImage image() {
+        return this.image;
+    }
+
+    /**
+     * Draws a frame.
+     *
+     * @param board
+     *            the frame, not changed while it is drawn
+     * @return the rectangle of pixels that changed, or null if none did
+     */
+    public Rectangle draw(Board board) {
+        this.dirtyLeft = Integer.MAX_VALUE;
+        this.dirtyTop = Integer.MAX_VALUE;
+        this.dirtyRight = Integer.MIN_VALUE;
+        this.dirtyBottom = Integer.MIN_VALUE;
+        if (this.stale) {
+            Arrays.fill(this.pixels, DEAD);
+            this.drawn.clear();
+            this.markDirty(0, 0);
+            this.markDirty(this.columns - 1, this.rows - 1);
+            this.stale = false;
+            this.drawnFrame = 0;
+        }
+        this.board = board;
+        if (this.drawnFrame == 0 || !board
+                .forEachChangeSince(this.drawnFrame, this.redrawCell)) {
+            board.forEachLiveCell(this.drawCell);
+            this.drawn.forEach(this.eraseCell);
+            LongHashSet tmp = this.drawn;
+            this.drawn = this.next;
+            this.next = tmp;
+            this.next.clear();
+        }
+        this.board = null;
+        this.drawnFrame = board.frame();
+        if (this.dirtyRight < this.dirtyLeft) {
+            return null;
+        }
+        return new Rectangle(this.dirtyLeft, this.dirtyTop,
+                this.dirtyRight - this.dirtyLeft,
+                this.dirtyBottom - this.dirtyTop);
+    }
+
+    /**
+     * Draws a cell that may have changed since the frame drawn last, if it
+     * is in the image.
+     *
+     * @param key
+     *            the cell
+     */
+    private void redrawCell(long key) {
+        long column = (long) SparseLife.x(key) - this.originX;
+        long row = (long) SparseLife.y(key) - this.originY;
+        if (column >= 0 && column < this.columns && row >= 0
+                && row < this.rows) {
+            int color = DEAD;
+            if (this.board.isAlive(key)) {
+                color = LIVE;
+                this.drawn.add(key);
+            } else {
+                this.drawn.remove(key);
+            }
+            int pixel = (int) row * this.columns + (int) column;
+            if (this.pixels[pixel] != color) {
+                this.pixels[pixel] = color;
+                this.markDirty((int) column, (int) row);
+            }
+        }
+    }
+
+    /**
+     * Draws a live cell of the frame, if it is in the image and was not
+     * alive before.
+     *
+     * @param key
+     *            the cell
+     */
+    private void drawCell(long key) {
+        long column = (long) SparseLife.x(key) - this.originX;
+        long row = (long) SparseLife.y(key) - this.originY;
+        if (column >= 0 && column < this.columns && row >= 0
+                && row < this.rows) {
+            this.next.add(key);
+            if (!this.drawn.contains(key)) {
+                this.pixels[(int) row * this.columns + (int) column] = LIVE;
+                this.markDirty((int) column, (int) row);
+            }
+        }
+    }
+
+    /**
+     * Erases a cell drawn alive before, unless it is alive in the frame.
+     *
+     * @param key
+     *            the cell
+     */
+    private void eraseCell(long key) {
+        if (!this.next.contains(key)) {
+            int column = SparseLife.x(key) - this.originX;
+            int row = SparseLife.y(key) - this.originY;
+            this.pixels[row * this.columns + column] = DEAD;
+            this.markDirty(column, row);
+        }
+    }
+
+    /**
+     * Adds a pixel to the rectangle that changed.
+     *
+     * @param column
+     *            the column of the pixel
+     * @param row
+     *            the row of the pixel
+     */
+    private void markDirty(int column, int row) {
+        this.dirtyLeft = Math.min(this.dirtyLeft, column);
+        this.dirtyTop = Math.min(this.dirtyTop, row);
+        this.dirtyRight = Math.max(this.dirtyRight, column + 1);
+        this.dirtyBottom = Math.max(this.dirtyBottom, row + 1);
+    }
+}
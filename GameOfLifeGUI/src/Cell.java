@@ -1,11 +1,93 @@
-public class Cell {
-    private double x, y;
+/**
+ * The position of a cell on the plane: a column and a row, packed into one
+ * long the way {@link SparseLife#key(int, int)} packs them. Cells are values:
+ * two cells at the same position are equal and hash alike, so they can key a
+ * map, though the board itself keeps the packed keys and no Cell objects.
+ */
+public final class Cell {
 
-    public double getX() {
-        return this.x;
+    /**
+     * The column and row, packed.
+     */
+    private final long key;
+
+    /**
+     * Creates the cell at (x, y).
+     *
+     * @param x
+     *            the column
+     * @param y
+     *            the row
+     */
+    public Cell(int x, int y) {
+        this.key = SparseLife.key(x, y);
+    }
+
+    /**
+     * Creates the cell that the point (x, y) falls in.
+     *
+     * @param x
+     *            the horizontal position, in cells
+     * @param y
+     *            the vertical position, in cells
+     * @requires the point is within int range
+     */
+    public Cell(double x, double y) {
+        this((int) Math.floor(x), (int) Math.floor(y));
+    }
+
+    /**
+     * Creates the cell at a packed position.
+     *
+     * @param key
+     *            the column and row, packed as by
+     *            {@link SparseLife#key(int, int)}
+     * @return the cell
+     */
+    public static Cell fromKey(long key) {
+        return new Cell(SparseLife.x(key), SparseLife.y(key));
+    }
+
+    /**
+     * Returns the column.
+     *
+     * @return the column
+     */
+    public int getX() {
+        return SparseLife.x(this.key);
+    }
+
+    /**
+     * Returns the row.
+     *
+     * @return the row
+     */
+    public int getY() {
+        return SparseLife.y(this.key);
+    }
+
+    /**
+     * Returns the column and row, packed as by
+     * {@link SparseLife#key(int, int)}.
+     *
+     * @return the key
+     */
+    public long key() {
+        return this.key;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Cell && ((Cell) obj).key == this.key;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.key * LongHashSet.GOLDEN);
     }
 
-    public double getY() {
-        return this.y;
+    @Override
+    public String toString() {
+        return "(" + this.getX() + ", " + this.getY() + ")";
     }
 }
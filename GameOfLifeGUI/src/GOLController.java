@@ -4,4 +4,12 @@ public interface GOLController {
     void rightPress();
 
     void leftPress();
+
+    /**
+     * Handles a click on a cell.
+     *
+     * @param cell
+     *            the cell clicked
+     */
+    void cellPress(Cell cell);
 }
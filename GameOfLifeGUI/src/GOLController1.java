@@ -1,16 +1,58 @@
+/**
+ * Controller that turns key presses into commands for the simulation; the
+ * view hears about the results through the simulation's frames.
+ */
 public final class GOLController1 implements GOLController {
+
+    /**
+     * The running game.
+     */
+    private final Simulation simulation;
+
+    /**
+     * Creates a controller.
+     *
+     * @param simulation
+     *            the running game
+     */
+    public GOLController1(Simulation simulation) {
+        this.simulation = simulation;
+    }
+
+    /**
+     * Starts or pauses the game.
+     */
     @Override
     public void spacebarPress() {
-
+        this.simulation.toggleRunning();
     }
 
+    /**
+     * Pauses the game and computes the next generation.
+     */
     @Override
     public void rightPress() {
-
+        this.simulation.setRunning(false);
+        this.simulation.step();
     }
 
+    /**
+     * Pauses the game and goes back a generation.
+     */
     @Override
     public void leftPress() {
+        this.simulation.setRunning(false);
+        this.simulation.submit(GOLModel::stepBack);
+    }
 
+    /**
+     * Flips the cell clicked.
+     *
+     * @param cell
+     *            the cell clicked
+     */
+    @Override
+    public void cellPress(Cell cell) {
+        this.simulation.submit(game -> game.toggleCell(cell));
     }
 }
@@ -1,7 +1,70 @@
+import java.util.function.LongConsumer;
+
+/**
+ * The game shown by the GUI: an unbounded plane of cells.
+ */
 public interface GOLModel {
+
+    /**
+     * Returns a read-only view of the cells. The view follows the model, so
+     * getting it costs nothing.
+     *
+     * @return the board
+     */
     Board getBoard();
 
+    /**
+     * Kills every cell.
+     */
     void clearBoard();
 
+    /**
+     * Flips a cell between alive and dead.
+     *
+     * @param cell
+     *            the cell
+     */
     void toggleCell(Cell cell);
+
+    /**
+     * Computes the next generation.
+     */
+    void step();
+
+    /**
+     * Computes the next generation, reporting every cell that is born or
+     * dies if it can.
+     *
+     * @param changed
+     *            receives the key of every cell that changes, packed as by
+     *            {@link SparseLife#key(int, int)}, or null
+     * @return true iff every cell that changed was reported; false if the
+     *         generation was replayed from the history, and any cell may
+     *         have changed
+     */
+    boolean step(LongConsumer changed);
+
+    /**
+     * Goes back to the generation before the current one, if it is still
+     * kept.
+     */
+    void stepBack();
+
+    /**
+     * Goes to a generation: back to it, if it is still kept, or else back to
+     * the earliest kept, or forward by computing the generations up to it.
+     *
+     * @param generation
+     *            the generation wanted
+     */
+    void seek(long generation);
+
+    /**
+     * Advances by 2^log2Generations generations.
+     *
+     * @param log2Generations
+     *            log2 of the number of generations
+     * @requires 0 <= log2Generations <= 61
+     */
+    void advance(int log2Generations);
 }
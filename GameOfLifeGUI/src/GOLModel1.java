@@ -1,16 +1,135 @@
+import java.util.function.LongConsumer;
+
+/**
+ * Model that keeps the live cells in a {@link SparseLife}, so toggling a cell
+ * and computing a generation cost time in proportion to the cells involved.
+ * Big jumps go through {@link HashLife}, which skips ahead by 2^k generations
+ * at once.
+ *
+ * <p>
+ * SparseLife holds cells at int coordinates; after a jump, cells that have
+ * travelled more than 2^31 cells from the origin are dropped.
+ * </p>
+ *
+ * <p>
+ * Past generations are kept in a {@link History}. Edits are recorded lazily,
+ * once the game moves on, so a stream of clicks costs nothing more than the
+ * toggles themselves.
+ * </p>
+ */
 public final class GOLModel1 implements GOLModel {
+
+    /**
+     * Largest log2 of the generations that {@link #advance(int)} computes
+     * one by one; beyond it HashLife is faster.
+     */
+    private static final int MAX_LOG2_TICKS = 4;
+
+    /**
+     * The live cells.
+     */
+    private final SparseLife life = new SparseLife();
+
+    /**
+     * The view of the live cells handed out by {@link #getBoard()}.
+     */
+    private final Board board = new Board(this.life);
+
+    /**
+     * The past generations.
+     */
+    private final History history = new History(this.life);
+
+    /**
+     * Whether the cells were edited since the last generation recorded.
+     */
+    private boolean edited;
+
     @Override
     public Board getBoard() {
-        return new Board();
+        return this.board;
     }
 
     @Override
     public void clearBoard() {
-
+        this.life.clear();
+        this.edited = true;
     }
 
     @Override
     public void toggleCell(Cell cell) {
+        this.life.toggleCell(cell.getX(), cell.getY());
+        this.edited = true;
+    }
+
+    /**
+     * Records the edits made since the last generation recorded, dropping the
+     * generations after it.
+     */
+    private void recordEdits() {
+        if (this.edited) {
+            this.history.record(this.life);
+            this.edited = false;
+        }
+    }
+
+    @Override
+    public void step() {
+        this.step(null);
+    }
+
+    @Override
+    public boolean step(LongConsumer changed) {
+        this.recordEdits();
+        boolean reported = !this.history.canStepForward();
+        if (reported) {
+            this.history.tick(this.life, changed);
+        } else {
+            this.history.stepForward(this.life);
+        }
+        return reported;
+    }
+
+    @Override
+    public void stepBack() {
+        this.recordEdits();
+        if (this.history.canStepBack()) {
+            this.history.stepBack(this.life);
+        }
+    }
+
+    @Override
+    public void seek(long generation) {
+        this.recordEdits();
+        this.history.seek(this.life, generation);
+        // the entry after the one reached, if any, is past the generation
+        // wanted, as after a jump, so the rest is computed afresh
+        while (this.life.generation() < generation) {
+            this.history.tick(this.life);
+        }
+    }
 
+    @Override
+    public void advance(int log2Generations) {
+        if (log2Generations <= MAX_LOG2_TICKS) {
+            for (int i = 0; i < 1 << log2Generations; i++) {
+                this.step();
+            }
+            return;
+        }
+        this.recordEdits();
+        HashLife universe = new HashLife();
+        this.life.forEachLiveCell(key -> universe.setCell(SparseLife.x(key),
+                SparseLife.y(key), true));
+        universe.advance(log2Generations);
+        this.life.clear();
+        universe.forEachLiveCell((x, y) -> {
+            if (x == (int) x && y == (int) y) {
+                this.life.setCell((int) x, (int) y, true);
+            }
+        });
+        this.life.setGeneration(
+                this.life.generation() + (1L << log2Generations));
+        this.history.record(this.life);
     }
 }
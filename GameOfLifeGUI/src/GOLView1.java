@@ -1,19 +1,293 @@
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.event.ActionEvent;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
 
+import javax.swing.JFrame;
+import javax.swing.JPanel;
+
+/**
+ * Window that shows the board through a {@link BoardRaster}: every frame
+ * updates the pixels of the cells that changed and repaints just the part of
+ * the window they cover, with a single drawImage call scaled to the zoom.
+ *
+ * <p>
+ * Space, the right arrow and the left arrow go to the controller, and so
+ * does a click on a cell. Dragging pans and the mouse wheel zooms about the
+ * pointer. Call everything on the event dispatch thread.
+ * </p>
+ */
 public class GOLView1 implements GOLView {
+
+    /**
+     * Starting width of the board area, in pixels.
+     */
+    private static final int WIDTH = 800;
+
+    /**
+     * Starting height of the board area, in pixels.
+     */
+    private static final int HEIGHT = 600;
+
+    /**
+     * Starting size of a cell, in pixels.
+     */
+    private static final int DEFAULT_ZOOM = 4;
+
+    /**
+     * Largest size of a cell, in pixels.
+     */
+    private static final int MAX_ZOOM = 64;
+
+    /**
+     * The cells, one pixel each.
+     */
+    private final BoardRaster raster = new BoardRaster(WIDTH / DEFAULT_ZOOM,
+            HEIGHT / DEFAULT_ZOOM);
+
+    /**
+     * The panel the board is drawn on.
+     */
+    private final JPanel canvas = new JPanel() {
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            BoardRaster r = GOLView1.this.raster;
+            int zoom = GOLView1.this.zoom;
+            g.drawImage(r.image(), 0, 0, r.columns() * zoom,
+                    r.rows() * zoom, null);
+        }
+    };
+
+    /**
+     * Where key presses and clicks go, or null before one registers.
+     */
+    private GOLController controller;
+
+    /**
+     * The latest frame, or null before the first one.
+     */
+    private Board board;
+
+    /**
+     * Size of a cell, in pixels.
+     */
+    private int zoom = DEFAULT_ZOOM;
+
+    /**
+     * Where a drag started, or null if no drag is going on.
+     */
+    private Point dragStart;
+
+    /**
+     * Column and row at the top left when the drag started.
+     */
+    private int dragOriginX, dragOriginY;
+
+    /**
+     * Creates the window and shows it.
+     */
+    public GOLView1() {
+        this.canvas.setPreferredSize(new Dimension(WIDTH, HEIGHT));
+        this.canvas.setFocusable(true);
+        this.canvas.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                GOLView1.this.keyPressed(e.getKeyCode());
+            }
+        });
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                GOLView1.this.clicked(e.getPoint());
+            }
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                GOLView1.this.startDrag(e.getPoint());
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                GOLView1.this.drag(e.getPoint());
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                GOLView1.this.dragStart = null;
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                GOLView1.this.zoomAbout(e.getPoint(),
+                        e.getWheelRotation() < 0);
+            }
+        };
+        this.canvas.addMouseListener(mouse);
+        this.canvas.addMouseMotionListener(mouse);
+        this.canvas.addMouseWheelListener(mouse);
+        this.canvas.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                GOLView1.this.redraw();
+            }
+        });
+
+        JFrame window = new JFrame("Game of Life");
+        window.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        window.add(this.canvas);
+        window.pack();
+        window.setVisible(true);
+        this.canvas.requestFocusInWindow();
+    }
+
     @Override
     public void registerObserver(GOLController cntrlr) {
-
+        this.controller = cntrlr;
     }
 
     @Override
     public void updateBoard(Board b) {
-
+        this.board = b;
+        this.redraw();
     }
 
+    /**
+     * Redraws the latest frame, for a timer.
+     *
+     * @param arg0
+     *            the event
+     */
     @Override
     public void actionPerformed(ActionEvent arg0) {
-        // TODO Auto-generated method stub
+        this.redraw();
+    }
+
+    /**
+     * Fits the raster to the panel, draws the latest frame into it and
+     * repaints the part of the panel that changed.
+     */
+    private void redraw() {
+        this.raster.resize(
+                (this.canvas.getWidth() + this.zoom - 1) / this.zoom,
+                (this.canvas.getHeight() + this.zoom - 1) / this.zoom);
+        if (this.board == null) {
+            return;
+        }
+        Rectangle dirty = this.raster.draw(this.board);
+        if (dirty != null) {
+            this.canvas.repaint(dirty.x * this.zoom, dirty.y * this.zoom,
+                    dirty.width * this.zoom, dirty.height * this.zoom);
+        }
+    }
+
+    /**
+     * Passes a key on to the controller.
+     *
+     * @param keyCode
+     *            the key pressed
+     */
+    private void keyPressed(int keyCode) {
+        if (this.controller == null) {
+            return;
+        }
+        switch (keyCode) {
+            case KeyEvent.VK_SPACE:
+                this.controller.spacebarPress();
+                break;
+            case KeyEvent.VK_RIGHT:
+                this.controller.rightPress();
+                break;
+            case KeyEvent.VK_LEFT:
+                this.controller.leftPress();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Returns the cell under a point of the panel.
+     *
+     * @param p
+     *            the point
+     * @return the cell
+     */
+    private Cell cellAt(Point p) {
+        return new Cell(this.raster.originX() + p.x / this.zoom,
+                this.raster.originY() + p.y / this.zoom);
+    }
+
+    /**
+     * Passes a click on a cell to the controller.
+     *
+     * @param p
+     *            where the click was
+     */
+    private void clicked(Point p) {
+        this.canvas.requestFocusInWindow();
+        if (this.controller != null) {
+            this.controller.cellPress(this.cellAt(p));
+        }
+    }
+
+    /**
+     * Starts panning.
+     *
+     * @param p
+     *            where the mouse was pressed
+     */
+    private void startDrag(Point p) {
+        this.dragStart = p;
+        this.dragOriginX = this.raster.originX();
+        this.dragOriginY = this.raster.originY();
+    }
+
+    /**
+     * Pans so the cell under the start of the drag follows the mouse.
+     *
+     * @param p
+     *            where the mouse is
+     */
+    private void drag(Point p) {
+        if (this.dragStart == null) {
+            return;
+        }
+        this.raster.moveTo(
+                this.dragOriginX - (p.x - this.dragStart.x) / this.zoom,
+                this.dragOriginY - (p.y - this.dragStart.y) / this.zoom);
+        this.redraw();
+    }
 
+    /**
+     * Doubles or halves the zoom, keeping the cell under a point in place.
+     *
+     * @param p
+     *            the point
+     * @param in
+     *            whether to zoom in
+     */
+    private void zoomAbout(Point p, boolean in) {
+        int newZoom = in ? Math.min(MAX_ZOOM, this.zoom * 2)
+                : Math.max(1, this.zoom / 2);
+        if (newZoom == this.zoom) {
+            return;
+        }
+        Cell under = this.cellAt(p);
+        this.zoom = newZoom;
+        this.raster.moveTo(under.getX() - p.x / newZoom,
+                under.getY() - p.y / newZoom);
+        this.redraw();
+        // the scale changed, so every pixel moved
+        this.canvas.repaint();
     }
 }
@@ -0,0 +1,610 @@
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * HashLife universe: the unbounded plane is a quadtree whose nodes are
+ * hash-consed, so identical regions anywhere in space or time are the same
+ * node, and every node remembers its future. That lets a pattern with a lot
+ * of repetition be advanced by 2^k generations in one step.
+ *
+ * <p>
+ * The table of canonical nodes is bounded: once it holds more than
+ * {@code maxNodes} nodes it is garbage-collected between steps, which forgets
+ * every remembered result and keeps only the nodes the current pattern is
+ * made of. A single step may grow the table past the bound while it runs.
+ * </p>
+ */
+public final class HashLife {
+
+    /**
+     * Default bound on the number of canonical nodes.
+     */
+    public static final int DEFAULT_MAX_NODES = 1 << 20;
+
+    /**
+     * Level of a node holding a single cell.
+     */
+    private static final int LEAF = 0;
+
+    /**
+     * Level of the smallest node whose result is computed directly.
+     */
+    private static final int BASE = 2;
+
+    /**
+     * Side of the smallest node whose result is computed directly.
+     */
+    private static final int BASE_SIDE = 4;
+
+    /**
+     * The single dead cell.
+     */
+    private static final Node DEAD = new Node(0);
+
+    /**
+     * The single live cell.
+     */
+    private static final Node ALIVE = new Node(1);
+
+    /**
+     * A quadtree node of side 2^level. Nodes are immutable apart from their
+     * remembered result, and two nodes with the same children are the same
+     * object as long as both are in the canonical table.
+     */
+    private static final class Node {
+
+        /**
+         * Quadrants; null for a leaf.
+         */
+        private final Node nw, ne, sw, se;
+
+        /**
+         * log2 of the side of the node.
+         */
+        private final int level;
+
+        /**
+         * Number of live cells.
+         */
+        private final long population;
+
+        /**
+         * Hash of the identities of the quadrants.
+         */
+        private final int hash;
+
+        /**
+         * The center of this node {@code 2^resultLog} generations later, or
+         * null if not computed yet.
+         */
+        private Node result;
+
+        /**
+         * log2 of the number of generations {@code result} is ahead.
+         */
+        private int resultLog;
+
+        /**
+         * Creates a leaf.
+         *
+         * @param population
+         *            1 for a live cell, 0 for a dead one
+         */
+        private Node(long population) {
+            this.nw = null;
+            this.ne = null;
+            this.sw = null;
+            this.se = null;
+            this.level = LEAF;
+            this.population = population;
+            this.hash = (int) population;
+        }
+
+        /**
+         * Creates an inner node.
+         *
+         * @param nw
+         *            north-west quadrant
+         * @param ne
+         *            north-east quadrant
+         * @param sw
+         *            south-west quadrant
+         * @param se
+         *            south-east quadrant
+         */
+        private Node(Node nw, Node ne, Node sw, Node se) {
+            final int prime = 31;
+            this.nw = nw;
+            this.ne = ne;
+            this.sw = sw;
+            this.se = se;
+            this.level = nw.level + 1;
+            this.population = nw.population + ne.population + sw.population
+                    + se.population;
+            int h = System.identityHashCode(nw);
+            h = h * prime + System.identityHashCode(ne);
+            h = h * prime + System.identityHashCode(sw);
+            h = h * prime + System.identityHashCode(se);
+            this.hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Node)) {
+                return false;
+            }
+            Node other = (Node) obj;
+            return this.level != LEAF && this.nw == other.nw
+                    && this.ne == other.ne && this.sw == other.sw
+                    && this.se == other.se;
+        }
+    }
+
+    /**
+     * Receives the live cells of the universe.
+     */
+    public interface CellVisitor {
+
+        /**
+         * Called once for each live cell.
+         *
+         * @param x
+         *            the column of the cell
+         * @param y
+         *            the row of the cell
+         */
+        void visit(long x, long y);
+    }
+
+    /**
+     * The canonical nodes.
+     */
+    private final Map<Node, Node> canonical = new HashMap<>();
+
+    /**
+     * Bound on the size of {@code canonical}.
+     */
+    private final int maxNodes;
+
+    /**
+     * The universe; it covers [-2^(level-1), 2^(level-1)) on both axes.
+     */
+    private Node root;
+
+    /**
+     * Number of generations computed so far.
+     */
+    private long generation;
+
+    /**
+     * Creates an empty universe with the default node bound.
+     */
+    public HashLife() {
+        this(DEFAULT_MAX_NODES);
+    }
+
+    /**
+     * Creates an empty universe.
+     *
+     * @param maxNodes
+     *            bound on the number of canonical nodes kept between steps
+     * @requires maxNodes > 0
+     */
+    public HashLife(int maxNodes) {
+        this.maxNodes = maxNodes;
+        this.root = this.empty(BASE + 1);
+    }
+
+    /**
+     * Returns the canonical node with the given quadrants.
+     *
+     * @param nw
+     *            north-west quadrant
+     * @param ne
+     *            north-east quadrant
+     * @param sw
+     *            south-west quadrant
+     * @param se
+     *            south-east quadrant
+     * @return the node
+     */
+    private Node join(Node nw, Node ne, Node sw, Node se) {
+        Node candidate = new Node(nw, ne, sw, se);
+        Node node = this.canonical.get(candidate);
+        if (node == null) {
+            this.canonical.put(candidate, candidate);
+            node = candidate;
+        }
+        return node;
+    }
+
+    /**
+     * Returns the canonical empty node of a level.
+     *
+     * @param level
+     *            the level
+     * @return the empty node
+     */
+    private Node empty(int level) {
+        Node node = DEAD;
+        for (int i = 0; i < level; i++) {
+            node = this.join(node, node, node, node);
+        }
+        return node;
+    }
+
+    /**
+     * Returns a node one level up with node in its center and dead cells
+     * around it.
+     *
+     * @param node
+     *            the node
+     * @return the padded node
+     * @requires node.level > 0
+     */
+    private Node centre(Node node) {
+        Node e = this.empty(node.level - 1);
+        return this.join(this.join(e, e, e, node.nw),
+                this.join(e, e, node.ne, e), this.join(e, node.sw, e, e),
+                this.join(node.se, e, e, e));
+    }
+
+    /**
+     * Reports whether all live cells of node lie in its central quarter, so
+     * that it can be stepped without anything escaping.
+     *
+     * @param node
+     *            the node
+     * @return true iff the border is empty
+     */
+    private static boolean isPadded(Node node) {
+        return node.level >= BASE + 1
+                && node.nw.population == node.nw.se.population
+                && node.ne.population == node.ne.sw.population
+                && node.sw.population == node.sw.ne.population
+                && node.se.population == node.se.nw.population;
+    }
+
+    /**
+     * Computes one generation of the 2x2 center of a 4x4 node directly.
+     *
+     * @param node
+     *            the node
+     * @return the center one generation later
+     * @requires node.level = 2
+     */
+    private Node baseResult(Node node) {
+        int bits = 0;
+        for (int y = 0; y < BASE_SIDE; y++) {
+            for (int x = 0; x < BASE_SIDE; x++) {
+                if (cell(node, x, y)) {
+                    bits |= 1 << (y * BASE_SIDE + x);
+                }
+            }
+        }
+        return this.join(nextCell(bits, 1, 1), nextCell(bits, 2, 1),
+                nextCell(bits, 1, 2), nextCell(bits, 2, 2));
+    }
+
+    /**
+     * Applies the rules of Conway's Game of Life to one cell of a 4x4 block.
+     *
+     * @param bits
+     *            the block, bit y * 4 + x for cell (x, y)
+     * @param x
+     *            the column of the cell, 1 or 2
+     * @param y
+     *            the row of the cell, 1 or 2
+     * @return the cell one generation later
+     */
+    private static Node nextCell(int bits, int x, int y) {
+        final int survive = 2;
+        final int birth = 3;
+        int neighbors = 0;
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                if (dx != 0 || dy != 0) {
+                    neighbors += (bits >>> ((y + dy) * BASE_SIDE + x + dx))
+                            & 1;
+                }
+            }
+        }
+        boolean alive = ((bits >>> (y * BASE_SIDE + x)) & 1) != 0;
+        if (neighbors == birth || (alive && neighbors == survive)) {
+            return ALIVE;
+        }
+        return DEAD;
+    }
+
+    /**
+     * Reads a cell of a node by its position inside the node.
+     *
+     * @param node
+     *            the node
+     * @param x
+     *            the column, from 0 at the west edge
+     * @param y
+     *            the row, from 0 at the north edge
+     * @return true iff the cell is alive
+     */
+    private static boolean cell(Node node, long x, long y) {
+        Node n = node;
+        long col = x;
+        long row = y;
+        while (n.level > LEAF && n.population > 0) {
+            long half = 1L << (n.level - 1);
+            boolean east = col >= half;
+            boolean south = row >= half;
+            if (south) {
+                n = east ? n.se : n.sw;
+            } else {
+                n = east ? n.ne : n.nw;
+            }
+            if (east) {
+                col -= half;
+            }
+            if (south) {
+                row -= half;
+            }
+        }
+        return n == ALIVE;
+    }
+
+    /**
+     * Returns the center of node 2^j generations later.
+     *
+     * @param node
+     *            the node
+     * @param log2Generations
+     *            log2 of the number of generations
+     * @return the center of node (one level down), advanced
+     * @requires node.level >= 2 and log2Generations >= 0
+     * @ensures the number of generations is 2^min(log2Generations,
+     *          node.level - 2)
+     */
+    private Node successor(Node node, int log2Generations) {
+        int j = Math.min(log2Generations, node.level - 2);
+        if (node.result != null && node.resultLog == j) {
+            return node.result;
+        }
+        Node result;
+        if (node.population == 0) {
+            result = node.nw;
+        } else if (node.level == BASE) {
+            result = this.baseResult(node);
+        } else {
+            Node a = node.nw, b = node.ne, c = node.sw, d = node.se;
+            Node c1 = this.successor(this.join(a.nw, a.ne, a.sw, a.se), j);
+            Node c2 = this.successor(this.join(a.ne, b.nw, a.se, b.sw), j);
+            Node c3 = this.successor(this.join(b.nw, b.ne, b.sw, b.se), j);
+            Node c4 = this.successor(this.join(a.sw, a.se, c.nw, c.ne), j);
+            Node c5 = this.successor(this.join(a.se, b.sw, c.ne, d.nw), j);
+            Node c6 = this.successor(this.join(b.sw, b.se, d.nw, d.ne), j);
+            Node c7 = this.successor(this.join(c.nw, c.ne, c.sw, c.se), j);
+            Node c8 = this.successor(this.join(c.ne, d.nw, c.se, d.sw), j);
+            Node c9 = this.successor(this.join(d.nw, d.ne, d.sw, d.se), j);
+            if (j < node.level - 2) {
+                // the nine pieces are already far enough ahead; just take
+                // the middle of each group of four
+                result = this.join(
+                        this.join(c1.se, c2.sw, c4.ne, c5.nw),
+                        this.join(c2.se, c3.sw, c5.ne, c6.nw),
+                        this.join(c4.se, c5.sw, c7.ne, c8.nw),
+                        this.join(c5.se, c6.sw, c8.ne, c9.nw));
+            } else {
+                result = this.join(
+                        this.successor(this.join(c1, c2, c4, c5), j),
+                        this.successor(this.join(c2, c3, c5, c6), j),
+                        this.successor(this.join(c4, c5, c7, c8), j),
+                        this.successor(this.join(c5, c6, c8, c9), j));
+            }
+        }
+        node.result = result;
+        node.resultLog = j;
+        return result;
+    }
+
+    /**
+     * Advances the universe by 2^log2Generations generations.
+     *
+     * @param log2Generations
+     *            log2 of the number of generations
+     * @requires 0 <= log2Generations <= 61
+     */
+    public void advance(int log2Generations) {
+        while (this.root.level < log2Generations + BASE
+                || !isPadded(this.root)) {
+            this.root = this.centre(this.root);
+        }
+        this.root = this.successor(this.centre(this.root), log2Generations);
+        this.generation += 1L << log2Generations;
+        if (this.canonical.size() > this.maxNodes) {
+            this.collect();
+        }
+    }
+
+    /**
+     * Forgets every remembered result and drops every canonical node that
+     * the current universe is not made of.
+     */
+    public void collect() {
+        for (Node node : this.canonical.values()) {
+            node.result = null;
+        }
+        this.canonical.clear();
+        this.intern(this.root);
+    }
+
+    /**
+     * Puts node and everything below it back in the canonical table.
+     *
+     * @param node
+     *            the node
+     */
+    private void intern(Node node) {
+        if (node.level == LEAF || this.canonical.containsKey(node)) {
+            return;
+        }
+        this.intern(node.nw);
+        this.intern(node.ne);
+        this.intern(node.sw);
+        this.intern(node.se);
+        this.canonical.put(node, node);
+    }
+
+    /**
+     * Returns the number of canonical nodes currently kept.
+     *
+     * @return the size of the node table
+     */
+    public int nodeCount() {
+        return this.canonical.size();
+    }
+
+    /**
+     * Returns the number of generations computed so far.
+     *
+     * @return the generation number
+     */
+    public long generation() {
+        return this.generation;
+    }
+
+    /**
+     * Counts the live cells.
+     *
+     * @return the number of live cells
+     */
+    public long population() {
+        return this.root.population;
+    }
+
+    /**
+     * Reports whether the cell at (x, y) is alive.
+     *
+     * @param x
+     *            the column
+     * @param y
+     *            the row
+     * @return true iff the cell is alive
+     */
+    public boolean getCell(long x, long y) {
+        long half = 1L << (this.root.level - 1);
+        if (x < -half || x >= half || y < -half || y >= half) {
+            return false;
+        }
+        return cell(this.root, x + half, y + half);
+    }
+
+    /**
+     * Sets the cell at (x, y) alive or dead, growing the universe if needed.
+     *
+     * @param x
+     *            the column
+     * @param y
+     *            the row
+     * @param alive
+     *            the new state
+     */
+    public void setCell(long x, long y, boolean alive) {
+        long half = 1L << (this.root.level - 1);
+        while (x < -half || x >= half || y < -half || y >= half) {
+            this.root = this.centre(this.root);
+            half = 1L << (this.root.level - 1);
+        }
+        this.root = this.set(this.root, x + half, y + half, alive);
+    }
+
+    /**
+     * Returns node with one cell changed.
+     *
+     * @param node
+     *            the node
+     * @param x
+     *            the column inside the node
+     * @param y
+     *            the row inside the node
+     * @param alive
+     *            the new state
+     * @return the changed node
+     */
+    private Node set(Node node, long x, long y, boolean alive) {
+        if (node.level == LEAF) {
+            return alive ? ALIVE : DEAD;
+        }
+        long half = 1L << (node.level - 1);
+        Node nw = node.nw, ne = node.ne, sw = node.sw, se = node.se;
+        if (y < half) {
+            if (x < half) {
+                nw = this.set(nw, x, y, alive);
+            } else {
+                ne = this.set(ne, x - half, y, alive);
+            }
+        } else {
+            if (x < half) {
+                sw = this.set(sw, x, y - half, alive);
+            } else {
+                se = this.set(se, x - half, y - half, alive);
+            }
+        }
+        return this.join(nw, ne, sw, se);
+    }
+
+    /**
+     * Empties the universe. The generation count is kept.
+     */
+    public void clear() {
+        this.root = this.empty(BASE + 1);
+        if (this.canonical.size() > this.maxNodes) {
+            this.collect();
+        }
+    }
+
+    /**
+     * Calls visitor once for every live cell.
+     *
+     * @param visitor
+     *            receives the cells
+     */
+    public void forEachLiveCell(CellVisitor visitor) {
+        long half = 1L << (this.root.level - 1);
+        visit(this.root, -half, -half, visitor);
+    }
+
+    /**
+     * Calls visitor once for every live cell of node.
+     *
+     * @param node
+     *            the node
+     * @param x
+     *            the column of the north-west corner of node
+     * @param y
+     *            the row of the north-west corner of node
+     * @param visitor
+     *            receives the cells
+     */
+    private static void visit(Node node, long x, long y,
+            CellVisitor visitor) {
+        if (node.population == 0) {
+            return;
+        }
+        if (node.level == LEAF) {
+            visitor.visit(x, y);
+            return;
+        }
+        long half = 1L << (node.level - 1);
+        visit(node.nw, x, y, visitor);
+        visit(node.ne, x + half, y, visitor);
+        visit(node.sw, x, y + half, visitor);
+        visit(node.se, x + half, y + half, visitor);
+    }
+
+}
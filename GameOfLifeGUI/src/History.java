@@ -0,0 +1,435 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * The past generations of a {@link SparseLife} game, for stepping back and
+ * seeking. Every generation is stored as the cells that changed since the
+ * one before, and every few generations there is also a keyframe, a copy of
+ * every live cell. Since a change flips a cell, the same delta takes the game
+ * one generation forward or back, so stepping either way costs time in
+ * proportion to the cells that changed, and a seek starts from whichever is
+ * nearer: the current generation or a keyframe.
+ *
+ * <p>
+ * Generations reached other than by a recorded tick, after an edit or a
+ * jump of many generations, get a keyframe and no delta. Memory is bounded:
+ * once the history takes more than its budget, the oldest generations are
+ * dropped, a keyframe and the deltas after it at a time.
+ * </p>
+ */
+public final class History {
+
+    /**
+     * Default number of ticks between keyframes.
+     */
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 64;
+
+    /**
+     * Default bound on the memory taken by the history.
+     */
+    public static final long DEFAULT_BUDGET_BYTES = 64L << 20;
+
+    /**
+     * Rough memory taken by a generation besides its cells.
+     */
+    private static final long ENTRY_BYTES = 64;
+
+    /**
+     * One generation.
+     */
+    private static final class Entry {
+
+        /**
+         * The generation number.
+         */
+        private final long generation;
+
+        /**
+         * Keys of the cells that changed since the previous entry, or null
+         * if this generation was not reached by a recorded tick.
+         */
+        private final long[] delta;
+
+        /**
+         * Keys of every live cell, or null if this is not a keyframe.
+         */
+        private final long[] keyframe;
+
+        /**
+         * Creates an entry.
+         *
+         * @param generation
+         *            the generation number
+         * @param delta
+         *            the cells that changed since the previous entry, or null
+         * @param keyframe
+         *            every live cell, or null
+         * @requires delta != null or keyframe != null
+         */
+        Entry(long generation, long[] delta, long[] keyframe) {
+            this.generation = generation;
+            this.delta = delta;
+            this.keyframe = keyframe;
+        }
+
+        /**
+         * Returns the memory this entry takes, roughly.
+         *
+         * @return the number of bytes
+         */
+        long bytes() {
+            long cells = 0;
+            if (this.delta != null) {
+                cells += this.delta.length;
+            }
+            if (this.keyframe != null) {
+                cells += this.keyframe.length;
+            }
+            return ENTRY_BYTES + cells * Long.BYTES;
+        }
+    }
+
+    /**
+     * The generations kept, oldest first.
+     */
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Index of the entry the game is at.
+     */
+    private int current;
+
+    /**
+     * Recorded ticks between keyframes.
+     */
+    private final int keyframeInterval;
+
+    /**
+     * Bound on the memory taken.
+     */
+    private final long budgetBytes;
+
+    /**
+     * Memory taken by the entries.
+     */
+    private long bytes;
+
+    /**
+     * Recorded ticks since the last keyframe.
+     */
+    private int sinceKeyframe;
+
+    /**
+     * Keys of the cells changed by the tick being recorded.
+     */
+    private long[] changes = new long[Long.SIZE];
+
+    /**
+     * Number of keys in {@code changes}.
+     */
+    private int changeCount;
+
+    /**
+     * Adds a key to {@code changes}; reused for every tick.
+     */
+    private final LongConsumer collect = this::collect;
+
+    /**
+     * Creates a history with the default keyframe interval and budget.
+     *
+     * @param life
+     *            the game, whose current state is the first generation kept
+     */
+    public History(SparseLife life) {
+        this(life, DEFAULT_KEYFRAME_INTERVAL, DEFAULT_BUDGET_BYTES);
+    }
+
+    /**
+     * Creates a history.
+     *
+     * @param life
+     *            the game, whose current state is the first generation kept
+     * @param keyframeInterval
+     *            recorded ticks between keyframes
+     * @param budgetBytes
+     *            bound on the memory taken; the keyframe the game is at and
+     *            the deltas after it are kept even past it
+     * @requires keyframeInterval > 0
+     */
+    public History(SparseLife life, int keyframeInterval, long budgetBytes) {
+        this.keyframeInterval = keyframeInterval;
+        this.budgetBytes = budgetBytes;
+        this.add(new Entry(life.generation(), null, keyframe(life)));
+    }
+
+    /**
+     * Copies every live cell of a game.
+     *
+     * @param life
+     *            the game
+     * @return the keys of the live cells
+     */
+    private static long[] keyframe(SparseLife life) {
+        long[] cells = new long[life.population()];
+        int[] count = { 0 };
+        life.forEachLiveCell(key -> cells[count[0]++] = key);
+        return cells;
+    }
+
+    /**
+     * Adds a key to the changes of the tick being recorded.
+     *
+     * @param key
+     *            the cell that changed
+     */
+    private void collect(long key) {
+        if (this.changeCount == this.changes.length) {
+            this.changes = Arrays.copyOf(this.changes, this.changeCount * 2);
+        }
+        this.changes[this.changeCount++] = key;
+    }
+
+    /**
+     * Computes the next generation of a game and records it, dropping the
+     * generations after the current one, if the game had stepped back.
+     *
+     * @param life
+     *            the game, at the current generation
+     */
+    public void tick(SparseLife life) {
+        this.tick(life, null);
+    }
+
+    /**
+     * Computes the next generation of a game and records it, dropping the
+     * generations after the current one, if the game had stepped back, and
+     * reports every cell that is born or dies.
+     *
+     * @param life
+     *            the game, at the current generation
+     * @param changed
+     *            receives the key of every cell that changes, or null
+     */
+    public void tick(SparseLife life, LongConsumer changed) {
+        this.changeCount = 0;
+        life.tick(this.collect);
+        this.truncate();
+        long[] delta = Arrays.copyOf(this.changes, this.changeCount);
+        if (changed != null) {
+            for (long key : delta) {
+                changed.accept(key);
+            }
+        }
+        long[] key = null;
+        this.sinceKeyframe++;
+        if (this.sinceKeyframe >= this.keyframeInterval) {
+            key = keyframe(life);
+        }
+        this.add(new Entry(life.generation(), delta, key));
+    }
+
+    /**
+     * Records the state of a game reached other than by {@link #tick}, after
+     * an edit or a jump, dropping the generations after the current one. An
+     * edit replaces the current generation.
+     *
+     * @param life
+     *            the game
+     */
+    public void record(SparseLife life) {
+        this.truncate();
+        Entry last = this.entries.get(this.current);
+        if (last.generation == life.generation()) {
+            this.bytes -= last.bytes();
+            this.entries.remove(this.current);
+            this.current--;
+        }
+        this.add(new Entry(life.generation(), null, keyframe(life)));
+    }
+
+    /**
+     * Drops the generations after the current one.
+     */
+    private void truncate() {
+        List<Entry> future = this.entries.subList(this.current + 1,
+                this.entries.size());
+        for (Entry entry : future) {
+            this.bytes -= entry.bytes();
+        }
+        future.clear();
+    }
+
+    /**
+     * Adds an entry after the current one and makes it current, then drops
+     * the oldest entries while over budget.
+     *
+     * @param entry
+     *            the new entry
+     */
+    private void add(Entry entry) {
+        if (entry.keyframe != null) {
+            this.sinceKeyframe = 0;
+        }
+        this.entries.add(entry);
+        this.bytes += entry.bytes();
+        this.current = this.entries.size() - 1;
+        while (this.bytes > this.budgetBytes) {
+            int next = this.keyframeAfter(0);
+            if (next < 0 || next > this.current) {
+                break;
+            }
+            List<Entry> dropped = this.entries.subList(0, next);
+            for (Entry old : dropped) {
+                this.bytes -= old.bytes();
+            }
+            dropped.clear();
+            this.current -= next;
+        }
+    }
+
+    /**
+     * Finds the first keyframe after an entry.
+     *
+     * @param index
+     *            the entry
+     * @return the index of the keyframe, or -1 if there is none
+     */
+    private int keyframeAfter(int index) {
+        for (int i = index + 1; i < this.entries.size(); i++) {
+            if (this.entries.get(i).keyframe != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the oldest generation kept.
+     *
+     * @return the generation number
+     */
+    public long earliest() {
+        return this.entries.get(0).generation;
+    }
+
+    /**
+     * Returns the newest generation kept.
+     *
+     * @return the generation number
+     */
+    public long latest() {
+        return this.entries.get(this.entries.size() - 1).generation;
+    }
+
+    /**
+     * Returns the memory the history takes, roughly.
+     *
+     * @return the number of bytes
+     */
+    public long bytes() {
+        return this.bytes;
+    }
+
+    /**
+     * Reports whether there is a generation kept before the current one.
+     *
+     * @return true iff the game can step back
+     */
+    public boolean canStepBack() {
+        return this.current > 0;
+    }
+
+    /**
+     * Reports whether there is a generation kept after the current one.
+     *
+     * @return true iff the game can step forward without computing
+     */
+    public boolean canStepForward() {
+        return this.current < this.entries.size() - 1;
+    }
+
+    /**
+     * Takes a game back to the generation before the current one.
+     *
+     * @param life
+     *            the game, at the current generation
+     * @requires canStepBack()
+     */
+    public void stepBack(SparseLife life) {
+        this.moveTo(life, this.current - 1);
+    }
+
+    /**
+     * Takes a game to the generation after the current one.
+     *
+     * @param life
+     *            the game, at the current generation
+     * @requires canStepForward()
+     */
+    public void stepForward(SparseLife life) {
+        this.moveTo(life, this.current + 1);
+    }
+
+    /**
+     * Takes a game to the last generation kept at or before the given one,
+     * or to the earliest kept if the given one was dropped.
+     *
+     * @param life
+     *            the game, at the current generation
+     * @param generation
+     *            the generation wanted
+     * @return the generation reached
+     */
+    public long seek(SparseLife life, long generation) {
+        int low = 0;
+        int high = this.entries.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (this.entries.get(middle).generation <= generation) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        this.moveTo(life, low);
+        return life.generation();
+    }
+
+    /**
+     * Takes a game to an entry, by the shortest way: applying the deltas
+     * from the current entry, or from the nearest keyframe before the
+     * target.
+     *
+     * @param life
+     *            the game, at the current entry
+     * @param target
+     *            index of the entry to go to
+     */
+    private void moveTo(SparseLife life, int target) {
+        int keyframe = target;
+        while (this.entries.get(keyframe).keyframe == null) {
+            keyframe--;
+        }
+        int from = Math.min(this.current, target);
+        int to = Math.max(this.current, target);
+        boolean deltas = true;
+        for (int i = from + 1; i <= to && deltas; i++) {
+            deltas = this.entries.get(i).delta != null;
+        }
+        if (deltas && to - from <= target - keyframe) {
+            for (int i = from + 1; i <= to; i++) {
+                life.toggleCells(this.entries.get(i).delta);
+            }
+        } else {
+            life.clear();
+            life.toggleCells(this.entries.get(keyframe).keyframe);
+            for (int i = keyframe + 1; i <= target; i++) {
+                life.toggleCells(this.entries.get(i).delta);
+            }
+        }
+        life.setGeneration(this.entries.get(target).generation);
+        this.current = target;
+    }
+}
@@ -0,0 +1,284 @@
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Set of {@code long} values stored in a single open-addressing table with
+ * linear probing, so that no value is ever boxed. Adding, removing and
+ * looking up a value allocate nothing unless the table has to grow.
+ */
+public final class LongHashSet {
+
+    /**
+     * Value that marks a free slot. The value itself can still be a member;
+     * it is then recorded in {@code hasEmptyValue} instead of the table.
+     */
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    /**
+     * Smallest table size.
+     */
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * The table grows once it is more than this fraction full, out of 4.
+     */
+    private static final int MAX_FILL_QUARTERS = 3;
+
+    /**
+     * Multiplier of the hash function (the 64-bit golden ratio).
+     */
+    static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    /**
+     * The slots; {@code EMPTY} where free.
+     */
+    private long[] table;
+
+    /**
+     * table.length - 1.
+     */
+    private int mask;
+
+    /**
+     * Number of members stored in the table.
+     */
+    private int tableSize;
+
+    /**
+     * Whether {@code EMPTY} is a member.
+     */
+    private boolean hasEmptyValue;
+
+    /**
+     * Creates an empty set.
+     */
+    public LongHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Creates an empty set with room for about expected values.
+     *
+     * @param expected
+     *            the number of values expected
+     */
+    public LongHashSet(int expected) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * MAX_FILL_QUARTERS / 4 < expected) {
+            capacity <<= 1;
+        }
+        this.allocate(capacity);
+    }
+
+    /**
+     * Replaces the table with an empty one.
+     *
+     * @param capacity
+     *            the new table size, a power of two
+     */
+    private void allocate(int capacity) {
+        this.table = new long[capacity];
+        Arrays.fill(this.table, EMPTY);
+        this.mask = capacity - 1;
+        this.tableSize = 0;
+    }
+
+    /**
+     * Returns the home slot of a value.
+     *
+     * @param value
+     *            the value
+     * @return the slot to start probing at
+     */
+    private int slot(long value) {
+        long h = value * GOLDEN;
+        return (int) (h ^ (h >>> Integer.SIZE)) & this.mask;
+    }
+
+    /**
+     * Returns the number of values in the set.
+     *
+     * @return the size
+     */
+    public int size() {
+        return this.tableSize + (this.hasEmptyValue ? 1 : 0);
+    }
+
+    /**
+     * Reports whether value is in the set.
+     *
+     * @param value
+     *            the value
+     * @return true iff value is a member
+     */
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            return this.hasEmptyValue;
+        }
+        int i = this.slot(value);
+        long found = this.table[i];
+        while (found != EMPTY) {
+            if (found == value) {
+                return true;
+            }
+            i = (i + 1) & this.mask;
+            found = this.table[i];
+        }
+        return false;
+    }
+
+    /**
+     * Adds value to the set.
+     *
+     * @param value
+     *            the value
+     * @return true iff value was not already a member
+     */
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            boolean added = !this.hasEmptyValue;
+            this.hasEmptyValue = true;
+            return added;
+        }
+        int i = this.slot(value);
+        long found = this.table[i];
+        while (found != EMPTY) {
+            if (found == value) {
+                return false;
+            }
+            i = (i + 1) & this.mask;
+            found = this.table[i];
+        }
+        this.table[i] = value;
+        this.tableSize++;
+        if (this.tableSize * 4 > this.table.length * MAX_FILL_QUARTERS) {
+            this.grow();
+        }
+        return true;
+    }
+
+    /**
+     * Removes value from the set.
+     *
+     * @param value
+     *            the value
+     * @return true iff value was a member
+     */
+    public boolean remove(long value) {
+        if (value == EMPTY) {
+            boolean removed = this.hasEmptyValue;
+            this.hasEmptyValue = false;
+            return removed;
+        }
+        int i = this.slot(value);
+        long found = this.table[i];
+        while (found != value) {
+            if (found == EMPTY) {
+                return false;
+            }
+            i = (i + 1) & this.mask;
+            found = this.table[i];
+        }
+        // shift later members of the probe run back so lookups still find
+        // them without tombstones
+        int hole = i;
+        int j = (i + 1) & this.mask;
+        long moving = this.table[j];
+        while (moving != EMPTY) {
+            int home = this.slot(moving);
+            if (((j - home) & this.mask) >= ((j - hole) & this.mask)) {
+                this.table[hole] = moving;
+                hole = j;
+            }
+            j = (j + 1) & this.mask;
+            moving = this.table[j];
+        }
+        this.table[hole] = EMPTY;
+        this.tableSize--;
+        return true;
+    }
+
+    /**
+     * Adds value if it is not a member, removes it if it is.
+     *
+     * @param value
+     *            the value
+     * @return true iff value is a member afterwards
+     */
+    public boolean toggle(long value) {
+        if (this.remove(value)) {
+            return false;
+        }
+        this.add(value);
+        return true;
+    }
+
+    /**
+     * Removes every value. Takes time proportional to the table, which is
+     * never more than a few times the largest size the set has had.
+     */
+    public void clear() {
+        if (this.tableSize > 0) {
+            Arrays.fill(this.table, EMPTY);
+            this.tableSize = 0;
+        }
+        this.hasEmptyValue = false;
+    }
+
+    /**
+     * Makes this set hold the same values as source, reusing the table if it
+     * is the same size. Takes time proportional to the table of source.
+     *
+     * @param source
+     *            the set to copy
+     * @replaces this
+     */
+    public void copyFrom(LongHashSet source) {
+        if (this.table.length == source.table.length) {
+            System.arraycopy(source.table, 0, this.table, 0,
+                    this.table.length);
+        } else {
+            this.table = source.table.clone();
+        }
+        this.mask = source.mask;
+        this.tableSize = source.tableSize;
+        this.hasEmptyValue = source.hasEmptyValue;
+    }
+
+    /**
+     * Calls action once for every value, in no particular order. The set must
+     * not be changed meanwhile.
+     *
+     * @param action
+     *            receives the values
+     */
+    public void forEach(LongConsumer action) {
+        for (long value : this.table) {
+            if (value != EMPTY) {
+                action.accept(value);
+            }
+        }
+        if (this.hasEmptyValue) {
+            action.accept(EMPTY);
+        }
+    }
+
+    /**
+     * Doubles the table and re-inserts every member.
+     */
+    private void grow() {
+        long[] old = this.table;
+        this.allocate(old.length << 1);
+        for (long value : old) {
+            if (value != EMPTY) {
+                int i = this.slot(value);
+                while (this.table[i] != EMPTY) {
+                    i = (i + 1) & this.mask;
+                }
+                this.table[i] = value;
+                this.tableSize++;
+            }
+        }
+    }
+
+}
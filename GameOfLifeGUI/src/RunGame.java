@@ -1,13 +1,39 @@
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
 public final class RunGame {
+
+    /**
+     * Milliseconds between checks for a new frame: about 60 a second.
+     */
+    private static final int REFRESH_MILLIS = 16;
+
     private RunGame() {
 
     }
 
     public static void main(String[] args) {
+        // Swing components are made and used on the event dispatch thread
+        SwingUtilities.invokeLater(RunGame::start);
+    }
+
+    /**
+     * Builds the game and its window and starts them.
+     */
+    private static void start() {
         GOLModel model = new GOLModel1();
-        GOLController ctrlr = new GOLController1();
         GOLView view = new GOLView1();
+        Simulation simulation = new Simulation(model);
+        GOLController ctrlr = new GOLController1(simulation);
 
         view.registerObserver(ctrlr);
+        simulation.start();
+        // the view draws on the event dispatch thread, which is where the
+        // timer fires, and only when the simulation has a new frame
+        new Timer(REFRESH_MILLIS, e -> {
+            if (simulation.hasNewFrame()) {
+                view.updateBoard(simulation.latestFrame());
+            }
+        }).start();
     }
 }
@@ -0,0 +1,338 @@
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Runs a game on a thread of its own, at full speed or at a target rate, and
+ * hands copies of the board to whoever draws it through a
+ * {@link TripleBuffer}. Neither side ever waits for the other: a slow view
+ * only misses frames, and a slow game only sends fewer of them.
+ *
+ * <p>
+ * Only the simulation thread touches the model. Other threads change it by
+ * submitting commands, which run between generations. A command that throws
+ * is reported to the thread's uncaught exception handler and skipped; the
+ * simulation goes on.
+ * </p>
+ *
+ * <p>
+ * Frames are numbered, and each carries the cells that were born or died
+ * since the last frame the view took, so the view redraws only those. The
+ * cells changed by a command, or by a generation replayed from the history,
+ * are not known; the frame after says so, and the view redraws it in full.
+ * </p>
+ */
+public final class Simulation implements AutoCloseable {
+
+    /**
+     * Shortest time between frames published while the game runs. A frame
+     * is a copy of the board, and no display shows more than a few hundred
+     * frames a second.
+     */
+    private static final long FRAME_NANOS = TimeUnit.SECONDS.toNanos(1)
+            / 250;
+
+    /**
+     * The game; touched by the simulation thread only.
+     */
+    private final GOLModel model;
+
+    /**
+     * Copies of the board on their way to the view.
+     */
+    private final TripleBuffer<Board> frames = new TripleBuffer<>(Board::new);
+
+    /**
+     * Commands waiting to run on the simulation thread.
+     */
+    private final Queue<Consumer<GOLModel>> commands =
+            new ConcurrentLinkedQueue<>();
+
+    /**
+     * The simulation thread.
+     */
+    private final Thread thread;
+
+    /**
+     * Whether the game ticks on its own; written by the simulation thread
+     * only.
+     */
+    private volatile boolean running;
+
+    /**
+     * Nanoseconds between generations, or 0 for full speed.
+     */
+    private volatile long periodNanos;
+
+    /**
+     * Set once the simulation is closed.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Number of the last frame published; simulation thread only.
+     */
+    private long published;
+
+    /**
+     * Number of the last frame the view took.
+     */
+    private volatile long taken;
+
+    /**
+     * Keys of the cells that changed since frame {@code logSince}, in the
+     * order they changed; simulation thread only.
+     */
+    private long[] log = new long[Long.SIZE];
+
+    /**
+     * Number of keys in {@code log}.
+     */
+    private int logSize;
+
+    /**
+     * Size of the log when the last frame was published.
+     */
+    private int logMark;
+
+    /**
+     * The frame the log starts at, or -1 if cells changed in a way the log
+     * does not know since the last frame.
+     */
+    private long logSince;
+
+    /**
+     * Adds the key of a changed cell to the log; reused every generation.
+     */
+    private final LongConsumer logChange = this::logChange;
+
+    /**
+     * Creates a paused simulation of a game, not yet started.
+     *
+     * @param model
+     *            the game, touched by the simulation thread only from now on
+     */
+    public Simulation(GOLModel model) {
+        this.model = model;
+        this.thread = new Thread(this::loop, "simulation");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts the simulation thread.
+     */
+    public void start() {
+        this.thread.start();
+    }
+
+    /**
+     * Runs a command on the simulation thread, between generations, and
+     * publishes a frame afterwards.
+     *
+     * @param command
+     *            the change to make to the game
+     */
+    public void submit(Consumer<GOLModel> command) {
+        this.commands.add(command);
+        LockSupport.unpark(this.thread);
+    }
+
+    /**
+     * Starts or stops the game ticking on its own.
+     *
+     * @param run
+     *            whether to run
+     */
+    public void setRunning(boolean run) {
+        this.submit(game -> this.running = run);
+    }
+
+    /**
+     * Starts the game ticking on its own if it is stopped, or stops it if it
+     * runs. The flip itself is queued, so toggles made in a row all count,
+     * even before the simulation thread gets to them.
+     */
+    public void toggleRunning() {
+        this.submit(game -> this.running = !this.running);
+    }
+
+    /**
+     * Reports whether the game ticks on its own.
+     *
+     * @return true iff running, once pending commands have run
+     */
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    /**
+     * Computes one generation and shows it.
+     */
+    public void step() {
+        this.submit(GOLModel::step);
+    }
+
+    /**
+     * Sets how fast the game runs.
+     *
+     * @param generationsPerSecond
+     *            the target rate, or 0 or less for full speed
+     */
+    public void setRate(double generationsPerSecond) {
+        long period = 0;
+        if (generationsPerSecond > 0) {
+            period = (long) (TimeUnit.SECONDS.toNanos(1)
+                    / generationsPerSecond);
+        }
+        this.periodNanos = period;
+        LockSupport.unpark(this.thread);
+    }
+
+    /**
+     * Reports whether a frame was published that {@link #latestFrame()} has
+     * not returned yet.
+     *
+     * @return true iff there is a new frame
+     */
+    public boolean hasNewFrame() {
+        return this.frames.hasNew();
+    }
+
+    /**
+     * Returns the latest frame. It stays valid until the next call; call it
+     * from one thread only, such as the event dispatch thread.
+     *
+     * @return a copy of the board
+     */
+    public Board latestFrame() {
+        Board frame = this.frames.latest();
+        this.taken = frame.frame();
+        return frame;
+    }
+
+    /**
+     * Adds a key to the log.
+     *
+     * @param key
+     *            the cell that changed
+     */
+    private void logChange(long key) {
+        if (this.logSize == this.log.length) {
+            this.log = Arrays.copyOf(this.log, this.logSize * 2);
+        }
+        this.log[this.logSize++] = key;
+    }
+
+    /**
+     * Copies the board into a frame, with the cells that changed since the
+     * last frame the view took, and publishes it.
+     */
+    private void publish() {
+        long number = this.published + 1;
+        if (this.logSince >= 0 && this.logSince < number - 1
+                && this.taken >= number - 1) {
+            // the view has the frame before; forget what it has drawn
+            this.logSize -= this.logMark;
+            System.arraycopy(this.log, this.logMark, this.log, 0,
+                    this.logSize);
+            this.logSince = number - 1;
+        }
+        Board frame = this.frames.back();
+        frame.copyFrom(this.model.getBoard());
+        if (this.logSince >= 0 && this.logSize <= frame.population()) {
+            frame.setFrame(number, this.logSince, this.log, this.logSize);
+        } else {
+            // unknown, or more than the live cells: the view redraws all of
+            // them, and the log starts afresh from this frame
+            frame.setFrame(number, number, null, 0);
+            this.logSince = number;
+            this.logSize = 0;
+        }
+        this.logMark = this.logSize;
+        this.published = number;
+        this.frames.publish();
+    }
+
+    /**
+     * Runs the pending commands.
+     *
+     * @return true iff there were any
+     */
+    private boolean runCommands() {
+        boolean any = false;
+        Consumer<GOLModel> command = this.commands.poll();
+        while (command != null) {
+            try {
+                command.accept(this.model);
+            } catch (RuntimeException | AssertionError e) {
+                // report it and keep the simulation alive for the next one
+                this.thread.getUncaughtExceptionHandler()
+                        .uncaughtException(this.thread, e);
+            }
+            any = true;
+            command = this.commands.poll();
+        }
+        if (any) {
+            // a command may have changed any cell
+            this.logSince = -1;
+        }
+        return any;
+    }
+
+    /**
+     * The simulation thread: runs commands, ticks while running, and
+     * publishes frames.
+     */
+    private void loop() {
+        this.publish();
+        long lastFrame = System.nanoTime();
+        long nextTick = lastFrame;
+        boolean unpublished = false;
+        while (!this.closed) {
+            boolean changed = this.runCommands();
+            long now = System.nanoTime();
+            long period = this.periodNanos;
+            if (this.running && now - nextTick >= 0) {
+                if (!this.model.step(this.logChange)) {
+                    this.logSince = -1;
+                }
+                unpublished = true;
+                // after a pause, or if ticking falls behind, start afresh
+                // rather than rush to catch up
+                nextTick = Math.max(nextTick + period, now - period);
+            }
+            if (changed || (unpublished && now - lastFrame >= FRAME_NANOS)
+                    || (unpublished && !this.running)) {
+                this.publish();
+                lastFrame = now;
+                unpublished = false;
+            }
+            if (!this.running) {
+                LockSupport.park(this);
+            } else if (period > 0) {
+                long wait = nextTick - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(this, wait);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the simulation thread and waits for it to finish.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        LockSupport.unpark(this.thread);
+        try {
+            this.thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
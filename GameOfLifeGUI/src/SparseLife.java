@@ -0,0 +1,429 @@
+import java.util.function.LongConsumer;
+
+/**
+ * Game of Life on the unbounded plane that keeps only its live cells, each
+ * packed into one {@code long}. A tick looks at the live cells and their
+ * neighbors and nothing else, so it costs time in proportion to the
+ * population, not to the area the pattern spans.
+ *
+ * <p>
+ * The bounding box of the live cells is kept current as cells are born, so
+ * asking for it costs nothing. A tick works it out as it builds the next
+ * generation; an edit that kills a cell on its edge finds it again.
+ * </p>
+ */
+public final class SparseLife {
+
+    /**
+     * Neighbors below which a live cell dies.
+     */
+    private static final int SURVIVE_LOW = 2;
+
+    /**
+     * Neighbors at which a dead cell comes alive, and above which a live cell
+     * dies.
+     */
+    private static final int BIRTH = 3;
+
+    /**
+     * Mask of the low 32 bits of a key, which hold the row.
+     */
+    private static final long ROW_MASK = 0xFFFFFFFFL;
+
+    /**
+     * The live cells.
+     */
+    private LongHashSet live = new LongHashSet();
+
+    /**
+     * The next generation, built during a tick.
+     */
+    private LongHashSet next = new LongHashSet();
+
+    /**
+     * The cells already decided during the current tick.
+     */
+    private final LongHashSet decided = new LongHashSet();
+
+    /**
+     * Decides every cell around one live cell; reused for every tick.
+     */
+    private final LongConsumer decideAround = this::decideAround;
+
+    /**
+     * Receives the cells that change during the current tick, or null.
+     */
+    private LongConsumer changes;
+
+    /**
+     * Grows the bounds to take in a live cell; reused when finding them.
+     */
+    private final LongConsumer includeKey = key -> this.include(x(key),
+            y(key));
+
+    /**
+     * Number of generations computed so far.
+     */
+    private long generation;
+
+    /**
+     * The column of the leftmost live cell, or Integer.MAX_VALUE if there
+     * are none.
+     */
+    private int minX = Integer.MAX_VALUE;
+
+    /**
+     * The row of the top live cell, or Integer.MAX_VALUE if there are none.
+     */
+    private int minY = Integer.MAX_VALUE;
+
+    /**
+     * The column of the rightmost live cell, or Integer.MIN_VALUE if there
+     * are none.
+     */
+    private int maxX = Integer.MIN_VALUE;
+
+    /**
+     * The row of the bottom live cell, or Integer.MIN_VALUE if there are
+     * none.
+     */
+    private int maxY = Integer.MIN_VALUE;
+
+    /**
+     * Packs a cell position into a key.
+     *
+     * @param x
+     *            the column
+     * @param y
+     *            the row
+     * @return the key
+     */
+    public static long key(int x, int y) {
+        return ((long) x << Integer.SIZE) | (y & ROW_MASK);
+    }
+
+    /**
+     * Returns the column of a key.
+     *
+     * @param key
+     *            the key
+     * @return the column
+     */
+    public static int x(long key) {
+        return (int) (key >> Integer.SIZE);
+    }
+
+    /**
+     * Returns the row of a key.
+     *
+     * @param key
+     *            the key
+     * @return the row
+     */
+    public static int y(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Reports whether the cell at (x, y) is alive.
+     *
+     * @param x
+     *            the column
+     * @param y
+     *            the row
+     * @return true iff the cell is alive
+     */
+    public boolean getCell(int x, int y) {
+        return this.live.contains(key(x, y));
+    }
+
+    /**
+     * Sets the cell at (x, y) alive or dead.
+     *
+     * @param x
+     *            the column
+     * @param y
+     *            the row
+     * @param alive
+     *            the new state
+     */
+    public void setCell(int x, int y, boolean alive) {
+        if (alive) {
+            this.live.add(key(x, y));
+            this.include(x, y);
+        } else if (this.live.remove(key(x, y)) && this.onEdge(x, y)) {
+            this.findBounds();
+        }
+    }
+
+    /**
+     * Flips the cell at (x, y).
+     *
+     * @param x
+     *            the column
+     * @param y
+     *            the row
+     */
+    public void toggleCell(int x, int y) {
+        if (this.live.toggle(key(x, y))) {
+            this.include(x, y);
+        } else if (this.onEdge(x, y)) {
+            this.findBounds();
+        }
+    }
+
+    /**
+     * Flips many cells, finding the bounds again at most once.
+     *
+     * @param cells
+     *            the keys of the cells to flip
+     */
+    public void toggleCells(long[] cells) {
+        boolean edgeDied = false;
+        for (long key : cells) {
+            int x = x(key);
+            int y = y(key);
+            if (this.live.toggle(key)) {
+                this.include(x, y);
+            } else {
+                edgeDied |= this.onEdge(x, y);
+            }
+        }
+        if (edgeDied) {
+            this.findBounds();
+        }
+    }
+
+    /**
+     * Grows the bounds to take in a live cell.
+     *
+     * @param x
+     *            the column
+     * @param y
+     *            the row
+     */
+    private void include(int x, int y) {
+        this.minX = Math.min(this.minX, x);
+        this.minY = Math.min(this.minY, y);
+        this.maxX = Math.max(this.maxX, x);
+        this.maxY = Math.max(this.maxY, y);
+    }
+
+    /**
+     * Reports whether a cell is on the edge of the bounds.
+     *
+     * @param x
+     *            the column
+     * @param y
+     *            the row
+     * @return true iff the cell is in the first or last row or column
+     */
+    private boolean onEdge(int x, int y) {
+        return x == this.minX || x == this.maxX || y == this.minY
+                || y == this.maxY;
+    }
+
+    /**
+     * Empties the bounds.
+     */
+    private void resetBounds() {
+        this.minX = Integer.MAX_VALUE;
+        this.minY = Integer.MAX_VALUE;
+        this.maxX = Integer.MIN_VALUE;
+        this.maxY = Integer.MIN_VALUE;
+    }
+
+    /**
+     * Works out the bounds from scratch, looking at every live cell.
+     */
+    private void findBounds() {
+        this.resetBounds();
+        this.live.forEach(this.includeKey);
+    }
+
+    /**
+     * Returns the column of the leftmost live cell.
+     *
+     * @return the left of the live cells
+     * @requires population() > 0
+     */
+    public int minX() {
+        return this.minX;
+    }
+
+    /**
+     * Returns the row of the top live cell.
+     *
+     * @return the top of the live cells
+     * @requires population() > 0
+     */
+    public int minY() {
+        return this.minY;
+    }
+
+    /**
+     * Returns the column of the rightmost live cell.
+     *
+     * @return the right of the live cells
+     * @requires population() > 0
+     */
+    public int maxX() {
+        return this.maxX;
+    }
+
+    /**
+     * Returns the row of the bottom live cell.
+     *
+     * @return the bottom of the live cells
+     * @requires population() > 0
+     */
+    public int maxY() {
+        return this.maxY;
+    }
+
+    /**
+     * Kills every cell, in constant time. The generation count is kept.
+     */
+    public void clear() {
+        // a fresh set, rather than emptying a table that may be far bigger
+        // than the population
+        this.live = new LongHashSet();
+        this.resetBounds();
+    }
+
+    /**
+     * Counts the live cells.
+     *
+     * @return the number of live cells
+     */
+    public int population() {
+        return this.live.size();
+    }
+
+    /**
+     * Returns the number of generations computed so far.
+     *
+     * @return the generation number
+     */
+    public long generation() {
+        return this.generation;
+    }
+
+    /**
+     * Makes this game a copy of another: the same live cells and generation.
+     *
+     * @param source
+     *            the game to copy
+     * @replaces this
+     */
+    public void copyFrom(SparseLife source) {
+        this.live.copyFrom(source.live);
+        this.generation = source.generation;
+        this.minX = source.minX;
+        this.minY = source.minY;
+        this.maxX = source.maxX;
+        this.maxY = source.maxY;
+    }
+
+    /**
+     * Sets the generation number, for a game advanced by other means.
+     *
+     * @param generation
+     *            the number of generations computed so far
+     * @replaces this.generation
+     */
+    public void setGeneration(long generation) {
+        this.generation = generation;
+    }
+
+    /**
+     * Calls action once with the key of every live cell.
+     *
+     * @param action
+     *            receives the keys
+     */
+    public void forEachLiveCell(LongConsumer action) {
+        this.live.forEach(action);
+    }
+
+    /**
+     * Computes the next generation.
+     */
+    public void tick() {
+        this.tick(null);
+    }
+
+    /**
+     * Computes the next generation, reporting every cell that is born or
+     * dies.
+     *
+     * @param changed
+     *            receives the key of every cell that changes, or null
+     */
+    public void tick(LongConsumer changed) {
+        this.changes = changed;
+        this.resetBounds();
+        this.live.forEach(this.decideAround);
+        this.changes = null;
+        this.decided.clear();
+        LongHashSet tmp = this.live;
+        this.live = this.next;
+        this.next = tmp;
+        this.next.clear();
+        this.generation++;
+    }
+
+    /**
+     * Decides the next state of a live cell and its eight neighbors, skipping
+     * cells decided earlier in this tick. Only cells next to a live cell can
+     * be alive in the next generation.
+     *
+     * @param cell
+     *            the key of a live cell
+     */
+    private void decideAround(long cell) {
+        int x = x(cell);
+        int y = y(cell);
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                long candidate = key(x + dx, y + dy);
+                if (this.decided.add(candidate)) {
+                    this.decide(candidate, x + dx, y + dy);
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies the rules of Conway's Game of Life to one cell.
+     *
+     * @param cell
+     *            the key of the cell
+     * @param x
+     *            the column of the cell
+     * @param y
+     *            the row of the cell
+     */
+    private void decide(long cell, int x, int y) {
+        int neighbors = 0;
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                if ((dx != 0 || dy != 0)
+                        && this.live.contains(key(x + dx, y + dy))) {
+                    neighbors++;
+                }
+            }
+        }
+        boolean alive = this.live.contains(cell);
+        boolean lives = neighbors == BIRTH
+                || (alive && neighbors == SURVIVE_LOW);
+        if (lives) {
+            this.next.add(cell);
+            this.include(x, y);
+        }
+        if (lives != alive && this.changes != null) {
+            this.changes.accept(cell);
+        }
+    }
+
+}
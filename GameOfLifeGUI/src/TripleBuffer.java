@@ -0,0 +1,100 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hands the latest of a stream of values from one producer thread to one
+ * consumer thread without locks and without either ever waiting for the
+ * other. There are three slots: the producer fills the back one, the
+ * consumer reads the front one, and publishing and taking swap them with the
+ * middle one in a single atomic step. A value published before the consumer
+ * took the one before it is simply dropped.
+ *
+ * @param <T>
+ *            type of the values, which are reused, never copied
+ */
+public final class TripleBuffer<T> {
+
+    /**
+     * Bits of {@code middle} holding the index of the middle slot.
+     */
+    private static final int INDEX_MASK = 3;
+
+    /**
+     * Bit of {@code middle} set when the middle slot holds a value the
+     * consumer has not taken.
+     */
+    private static final int FRESH = 4;
+
+    /**
+     * The three slots.
+     */
+    private final Object[] slots;
+
+    /**
+     * Index of the middle slot, with FRESH if it was published since the
+     * consumer last took it.
+     */
+    private final AtomicInteger middle = new AtomicInteger(2);
+
+    /**
+     * Index of the slot the producer fills; used by the producer only.
+     */
+    private int back = 0;
+
+    /**
+     * Index of the slot the consumer reads; used by the consumer only.
+     */
+    private int front = 1;
+
+    /**
+     * Creates a buffer.
+     *
+     * @param factory
+     *            makes each of the three slots
+     */
+    public TripleBuffer(Supplier<T> factory) {
+        this.slots = new Object[] { factory.get(), factory.get(),
+                factory.get() };
+    }
+
+    /**
+     * Returns the slot to fill next. Producer only.
+     *
+     * @return the back slot
+     */
+    @SuppressWarnings("unchecked")
+    public T back() {
+        return (T) this.slots[this.back];
+    }
+
+    /**
+     * Publishes the back slot and takes a new one to fill. Producer only.
+     */
+    public void publish() {
+        this.back = this.middle.getAndSet(this.back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Reports whether a value was published that the consumer has not taken.
+     *
+     * @return true iff {@link #latest()} would return a new value
+     */
+    public boolean hasNew() {
+        return (this.middle.get() & FRESH) != 0;
+    }
+
+    /**
+     * Returns the latest value published, taking it if it is new. The
+     * consumer may read it until the next call. Consumer only.
+     *
+     * @return the latest value, or the value returned last time if nothing
+     *         was published since (at first, a slot as the factory made it)
+     */
+    @SuppressWarnings("unchecked")
+    public T latest() {
+        if (this.hasNew()) {
+            this.front = this.middle.getAndSet(this.front) & INDEX_MASK;
+        }
+        return (T) this.slots[this.front];
+    }
+}
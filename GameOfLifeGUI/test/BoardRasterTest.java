@@ -0,0 +1,122 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Testing the raster the board is drawn into.
+ *
+ */
+public class BoardRasterTest {
+
+    /**
+     * Returns the color of a pixel, without alpha.
+     *
+     * @param raster
+     *            the raster
+     * @param column
+     *            the column of the pixel
+     * @param row
+     *            the row of the pixel
+     * @return the color
+     */
+    private static int pixel(BoardRaster raster, int column, int row) {
+        final int rgb = 0xFFFFFF;
+        BufferedImage image = raster.image();
+        return image.getRGB(column, row) & rgb;
+    }
+
+    /**
+     * Tests that a blinker is drawn, and that its next frame only dirties
+     * the cells that changed.
+     */
+    @Test
+    public final void testDraw_onlyChangesDirty() {
+        final int size = 10;
+        SparseLife life = new SparseLife();
+        Board board = new Board(life);
+        life.setCell(4, 5, true);
+        life.setCell(5, 5, true);
+        life.setCell(6, 5, true);
+        BoardRaster raster = new BoardRaster(size, size);
+        assertEquals(new Rectangle(0, 0, size, size), raster.draw(board));
+        assertEquals(BoardRaster.LIVE, pixel(raster, 4, 5));
+        assertEquals(BoardRaster.DEAD, pixel(raster, 4, 4));
+        assertNull(raster.draw(board));
+
+        life.tick();
+        // births at (5, 4) and (5, 6), deaths at (4, 5) and (6, 5)
+        assertEquals(new Rectangle(4, 4, 3, 3), raster.draw(board));
+        assertEquals(BoardRaster.DEAD, pixel(raster, 4, 5));
+        assertEquals(BoardRaster.LIVE, pixel(raster, 5, 4));
+        assertEquals(BoardRaster.LIVE, pixel(raster, 5, 5));
+    }
+
+    /**
+     * Tests that a frame that knows its changes has only those cells
+     * redrawn, and that a frame that does not is compared in full.
+     */
+    @Test
+    public final void testDraw_changesOfFrame() {
+        final int size = 10;
+        SparseLife life = new SparseLife();
+        Board board = new Board(life);
+        life.setCell(4, 5, true);
+        life.setCell(5, 5, true);
+        life.setCell(6, 5, true);
+        life.setCell(0, 0, true);
+        life.setCell(1, 0, true);
+        life.setCell(0, 1, true);
+        life.setCell(1, 1, true);
+        BoardRaster raster = new BoardRaster(size, size);
+        board.setFrame(1, 1, new long[0], 0);
+        assertEquals(new Rectangle(0, 0, size, size), raster.draw(board));
+
+        List<Long> changed = new ArrayList<>();
+        life.tick(changed::add);
+        // a change the frame does not list is not looked at
+        life.setCell(0, 0, false);
+        long[] keys = changed.stream().mapToLong(Long::longValue).toArray();
+        board.setFrame(2, 1, keys, keys.length);
+        assertEquals(new Rectangle(4, 4, 3, 3), raster.draw(board));
+        assertEquals(BoardRaster.DEAD, pixel(raster, 4, 5));
+        assertEquals(BoardRaster.LIVE, pixel(raster, 5, 4));
+        assertEquals(BoardRaster.LIVE, pixel(raster, 0, 0));
+
+        // changes not known since frame 2: every live cell is compared
+        board.setFrame(3, 3, null, 0);
+        assertEquals(new Rectangle(0, 0, 1, 1), raster.draw(board));
+        assertEquals(BoardRaster.DEAD, pixel(raster, 0, 0));
+        assertEquals(BoardRaster.LIVE, pixel(raster, 5, 6));
+    }
+
+    /**
+     * Tests panning, with cells falling off the image.
+     */
+    @Test
+    public final void testMoveTo_redrawsShiftedCells() {
+        final int size = 4;
+        SparseLife life = new SparseLife();
+        life.setCell(-1, -1, true);
+        life.setCell(2, 3, true);
+        Board board = new Board(life);
+        BoardRaster raster = new BoardRaster(size, size);
+        raster.draw(board);
+        assertEquals(BoardRaster.LIVE, pixel(raster, 2, 3));
+        raster.moveTo(-1, -1);
+        assertEquals(new Rectangle(0, 0, size, size), raster.draw(board));
+        assertEquals(BoardRaster.LIVE, pixel(raster, 0, 0));
+        // (2, 3) is now just past the bottom right corner
+        assertEquals(BoardRaster.DEAD, pixel(raster, 3, 2));
+        raster.moveTo(1, 1);
+        raster.draw(board);
+        assertEquals(BoardRaster.LIVE, pixel(raster, 1, 2));
+        assertEquals(BoardRaster.DEAD, pixel(raster, 0, 0));
+    }
+
+}
@@ -0,0 +1,47 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Testing cell positions.
+ *
+ */
+public class CellTest {
+
+    /**
+     * Tests that cells at the same position are equal and find each other in
+     * a map, and that fractional positions fall in the cell below them.
+     */
+    @Test
+    public final void testEquals_samePosition() {
+        final int x = -3;
+        final int y = 12;
+        final double inside = 0.75;
+        Map<Cell, Boolean> cells = new HashMap<>();
+        cells.put(new Cell(x, y), true);
+        Cell point = new Cell(x + inside, y + inside);
+        assertEquals(new Cell(x, y), point);
+        assertEquals(new Cell(x, y).hashCode(), point.hashCode());
+        assertTrue(cells.containsKey(point));
+        assertFalse(cells.containsKey(new Cell(y, x)));
+        assertEquals(new Cell(x - 1, y), new Cell(x - inside, y));
+    }
+
+    /**
+     * Tests that a cell survives packing at the ends of the int range.
+     */
+    @Test
+    public final void testFromKey_roundTrip() {
+        Cell corner = new Cell(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        Cell copy = Cell.fromKey(corner.key());
+        assertEquals(corner, copy);
+        assertEquals(Integer.MIN_VALUE, copy.getX());
+        assertEquals(Integer.MAX_VALUE, copy.getY());
+    }
+
+}
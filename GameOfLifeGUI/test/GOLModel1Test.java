@@ -0,0 +1,143 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Testing the GUI's model.
+ *
+ */
+public class GOLModel1Test {
+
+    /**
+     * Puts a glider heading south-east with its corner at (x, y).
+     *
+     * @param model
+     *            the model
+     * @param x
+     *            the column of the corner
+     * @param y
+     *            the row of the corner
+     */
+    private static void addGlider(GOLModel model, int x, int y) {
+        model.toggleCell(new Cell(x + 1, y));
+        model.toggleCell(new Cell(x + 2, y + 1));
+        model.toggleCell(new Cell(x, y + 2));
+        model.toggleCell(new Cell(x + 1, y + 2));
+        model.toggleCell(new Cell(x + 2, y + 2));
+    }
+
+    /**
+     * Tests toggling and clearing through the board view.
+     */
+    @Test
+    public final void testToggleCell_viewFollows() {
+        GOLModel model = new GOLModel1();
+        Board board = model.getBoard();
+        Cell cell = new Cell(-5, 7);
+        model.toggleCell(cell);
+        assertTrue(board.cellState(cell));
+        assertSame(board, model.getBoard());
+        model.toggleCell(new Cell(-4, 7));
+        assertEquals(2, board.getWidth(), 0);
+        assertEquals(1, board.getHeight(), 0);
+        model.toggleCell(cell);
+        assertFalse(board.cellState(cell));
+        model.clearBoard();
+        assertEquals(0, board.population());
+        assertEquals(0, board.getWidth(), 0);
+    }
+
+    /**
+     * Tests stepping a blinker.
+     */
+    @Test
+    public final void testStep_blinker() {
+        GOLModel model = new GOLModel1();
+        model.toggleCell(new Cell(0, 1));
+        model.toggleCell(new Cell(1, 1));
+        model.toggleCell(new Cell(2, 1));
+        model.step();
+        Board board = model.getBoard();
+        assertTrue(board.cellState(new Cell(1, 0)));
+        assertTrue(board.cellState(new Cell(1, 2)));
+        assertFalse(board.cellState(new Cell(0, 1)));
+        assertEquals(1, board.generation());
+    }
+
+    /**
+     * Tests that a jump through HashLife lands where stepping does.
+     */
+    @Test
+    public final void testAdvance_jumpMatchesSteps() {
+        final int log2 = 8;
+        GOLModel jumped = new GOLModel1();
+        GOLModel stepped = new GOLModel1();
+        addGlider(jumped, -3, 2);
+        addGlider(stepped, -3, 2);
+        jumped.advance(log2);
+        for (int i = 0; i < 1 << log2; i++) {
+            stepped.step();
+        }
+        Board board = jumped.getBoard();
+        assertEquals(stepped.getBoard().generation(), board.generation());
+        assertEquals(5, board.population());
+        stepped.getBoard().forEachLiveCell(key -> assertTrue(board.cellState(
+                Cell.fromKey(key))));
+    }
+
+    /**
+     * Tests stepping back over an edit and seeking forward again.
+     */
+    @Test
+    public final void testStepBack_overEdit() {
+        final long far = 40;
+        GOLModel model = new GOLModel1();
+        Board board = model.getBoard();
+        addGlider(model, 0, 0);
+        model.step();
+        model.step();
+        model.toggleCell(new Cell(-10, -10));
+        assertEquals(6, board.population());
+        model.stepBack();
+        assertEquals(1, board.generation());
+        assertEquals(5, board.population());
+        model.seek(2);
+        assertEquals(6, board.population());
+        model.seek(far);
+        assertEquals(far, board.generation());
+        assertEquals(5, board.population());
+        model.seek(0);
+        assertEquals(0, board.generation());
+        assertTrue(board.cellState(new Cell(1, 0)));
+    }
+
+    /**
+     * Tests seeking to a generation inside a jump, which the history only
+     * kept the ends of.
+     */
+    @Test
+    public final void testSeek_insideJump() {
+        final int log2 = 5;
+        final long target = 10;
+        GOLModel model = new GOLModel1();
+        GOLModel stepped = new GOLModel1();
+        addGlider(model, 0, 0);
+        addGlider(stepped, 0, 0);
+        model.advance(log2);
+        model.seek(target);
+        for (long g = 0; g < target; g++) {
+            stepped.step();
+        }
+        Board board = model.getBoard();
+        assertEquals(target, board.generation());
+        assertEquals(5, board.population());
+        stepped.getBoard().forEachLiveCell(key -> assertTrue(board.cellState(
+                Cell.fromKey(key))));
+        model.step();
+        assertEquals(target + 1, board.generation());
+    }
+
+}
@@ -0,0 +1,129 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Testing the HashLife universe.
+ *
+ */
+public class HashLifeTest {
+
+    /**
+     * Puts a glider heading south-east with its corner at (x, y).
+     *
+     * @param life
+     *            the universe
+     * @param x
+     *            the column of the corner
+     * @param y
+     *            the row of the corner
+     */
+    private static void addGlider(HashLife life, long x, long y) {
+        life.setCell(x + 1, y, true);
+        life.setCell(x + 2, y + 1, true);
+        life.setCell(x, y + 2, true);
+        life.setCell(x + 1, y + 2, true);
+        life.setCell(x + 2, y + 2, true);
+    }
+
+    /**
+     * Collects the live cells of a universe as "x,y" strings.
+     *
+     * @param life
+     *            the universe
+     * @return the live cells
+     */
+    private static Set<String> liveCells(HashLife life) {
+        Set<String> cells = new HashSet<>();
+        life.forEachLiveCell((x, y) -> cells.add(x + "," + y));
+        return cells;
+    }
+
+    /**
+     * Tests a blinker over one and two generations.
+     */
+    @Test
+    public final void testAdvance_blinker() {
+        HashLife life = new HashLife();
+        life.setCell(0, -1, true);
+        life.setCell(0, 0, true);
+        life.setCell(0, 1, true);
+        life.advance(0);
+        assertTrue(life.getCell(-1, 0));
+        assertTrue(life.getCell(1, 0));
+        assertFalse(life.getCell(0, 1));
+        life.advance(1);
+        assertTrue(life.getCell(-1, 0));
+        assertEquals(3, life.population());
+        assertEquals(3, life.generation());
+    }
+
+    /**
+     * Tests a glider jumping 2^30 generations in one step.
+     */
+    @Test
+    public final void testAdvance_gliderFarFuture() {
+        final int log2 = 30;
+        final long shift = 1L << (log2 - 2);
+        HashLife life = new HashLife();
+        addGlider(life, 0, 0);
+        life.advance(log2);
+        assertEquals(5, life.population());
+        assertTrue(life.getCell(shift + 1, shift));
+        assertTrue(life.getCell(shift + 2, shift + 2));
+        assertEquals(1L << log2, life.generation());
+    }
+
+    /**
+     * Tests that one big step of a random soup equals many single steps.
+     */
+    @Test
+    public final void testAdvance_bigStepMatchesSingleSteps() {
+        final long seed = 11;
+        final int size = 24;
+        final int log2 = 5;
+        Random random = new Random(seed);
+        HashLife big = new HashLife();
+        HashLife single = new HashLife();
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                if (random.nextBoolean()) {
+                    big.setCell(x, y, true);
+                    single.setCell(x, y, true);
+                }
+            }
+        }
+        big.advance(log2);
+        for (int i = 0; i < (1 << log2); i++) {
+            single.advance(0);
+        }
+        assertEquals(liveCells(single), liveCells(big));
+    }
+
+    /**
+     * Tests that collecting a small node table keeps the pattern intact.
+     */
+    @Test
+    public final void testCollect_keepsPattern() {
+        final int maxNodes = 64;
+        final int steps = 20;
+        HashLife bounded = new HashLife(maxNodes);
+        HashLife unbounded = new HashLife();
+        addGlider(bounded, 0, 0);
+        addGlider(unbounded, 0, 0);
+        for (int i = 0; i < steps; i++) {
+            bounded.advance(2);
+            unbounded.advance(2);
+        }
+        assertEquals(liveCells(unbounded), liveCells(bounded));
+        bounded.collect();
+        assertTrue(bounded.nodeCount() < unbounded.nodeCount());
+        assertEquals(liveCells(unbounded), liveCells(bounded));
+    }
+}
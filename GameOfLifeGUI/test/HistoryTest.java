@@ -0,0 +1,115 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Testing the history of past generations.
+ *
+ */
+public class HistoryTest {
+
+    /**
+     * Fills a square with random cells.
+     *
+     * @param seed
+     *            the seed of the random cells
+     * @return the game
+     */
+    private static SparseLife soup(long seed) {
+        final int size = 24;
+        Random random = new Random(seed);
+        SparseLife life = new SparseLife();
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                life.setCell(x, y, random.nextBoolean());
+            }
+        }
+        return life;
+    }
+
+    /**
+     * Tests that stepping back and seeking give the generations first
+     * computed, whether they are reached from a keyframe or by deltas.
+     */
+    @Test
+    public final void testSeek_matchesRun() {
+        final int interval = 8;
+        final int generations = 50;
+        final long[] targets = { 3, 49, 17, 16, 0, 40, 41 };
+        SparseLife life = soup(1);
+        History history = new History(life, interval, Long.MAX_VALUE);
+        List<SparseLife> run = new ArrayList<>();
+        for (int g = 0; g < generations; g++) {
+            SparseLife copy = new SparseLife();
+            copy.copyFrom(life);
+            run.add(copy);
+            history.tick(life);
+        }
+        for (int g = generations - 1; g >= generations - interval; g--) {
+            history.stepBack(life);
+            assertEquals(g, life.generation());
+            assertEquals(run.get(g).population(), life.population());
+        }
+        for (long target : targets) {
+            assertEquals(target, history.seek(life, target));
+            SparseLife expected = run.get((int) target);
+            assertEquals(expected.population(), life.population());
+            expected.forEachLiveCell(key -> assertTrue(
+                    life.getCell(SparseLife.x(key), SparseLife.y(key))));
+        }
+    }
+
+    /**
+     * Tests that ticking after stepping back drops the generations after the
+     * current one.
+     */
+    @Test
+    public final void testTick_truncatesFuture() {
+        final int generations = 10;
+        final int back = 4;
+        SparseLife life = soup(2);
+        History history = new History(life);
+        for (int g = 0; g < generations; g++) {
+            history.tick(life);
+        }
+        for (int g = 0; g < back; g++) {
+            history.stepBack(life);
+        }
+        assertTrue(history.canStepForward());
+        life.toggleCell(0, 0);
+        history.record(life);
+        assertFalse(history.canStepForward());
+        assertEquals(generations - back, history.latest());
+        history.tick(life);
+        assertEquals(generations - back + 1, history.latest());
+    }
+
+    /**
+     * Tests that the oldest generations are dropped once over budget, a
+     * keyframe at a time.
+     */
+    @Test
+    public final void testTick_budget() {
+        final int interval = 4;
+        final long budget = 16 * 1024;
+        final int generations = 200;
+        SparseLife life = soup(3);
+        History history = new History(life, interval, budget);
+        for (int g = 0; g < generations; g++) {
+            history.tick(life);
+            assertTrue(history.bytes() <= budget);
+        }
+        assertTrue(history.earliest() > 0);
+        assertEquals(0, history.earliest() % interval);
+        assertEquals(generations, history.latest());
+        assertEquals(history.earliest(),
+                history.seek(life, history.earliest() - 1));
+    }
+
+}
@@ -0,0 +1,211 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Testing the frame handoff and the simulation thread.
+ *
+ */
+public class SimulationTest {
+
+    /**
+     * Longest wait for the simulation thread, in milliseconds.
+     */
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    /**
+     * Waits for the next frame.
+     *
+     * @param simulation
+     *            the simulation
+     * @return the frame
+     * @throws InterruptedException
+     *             if interrupted
+     */
+    private static Board nextFrame(Simulation simulation)
+            throws InterruptedException {
+        long end = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!simulation.hasNewFrame()) {
+            assertTrue("no frame", System.currentTimeMillis() < end);
+            Thread.sleep(1);
+        }
+        return simulation.latestFrame();
+    }
+
+    /**
+     * Tests that the consumer gets the latest value and stale ones are
+     * dropped.
+     */
+    @Test
+    public final void testTripleBuffer_latestWins() {
+        AtomicInteger made = new AtomicInteger();
+        TripleBuffer<int[]> buffer = new TripleBuffer<>(
+                () -> new int[] { made.getAndIncrement() });
+        assertFalse(buffer.hasNew());
+        final int published = 5;
+        for (int i = 1; i <= published; i++) {
+            buffer.back()[0] = i * 10;
+            buffer.publish();
+        }
+        assertTrue(buffer.hasNew());
+        assertEquals(published * 10, buffer.latest()[0]);
+        assertFalse(buffer.hasNew());
+        assertEquals(published * 10, buffer.latest()[0]);
+    }
+
+    /**
+     * Tests a producer and a consumer on two threads: the consumer never
+     * sees a value torn between two writes, nor an older value after a
+     * newer one.
+     *
+     * @throws InterruptedException
+     *             if interrupted
+     */
+    @Test
+    public final void testTripleBuffer_concurrent()
+            throws InterruptedException {
+        final int values = 200_000;
+        TripleBuffer<long[]> buffer = new TripleBuffer<>(() -> new long[2]);
+        Thread producer = new Thread(() -> {
+            for (long i = 1; i <= values; i++) {
+                long[] slot = buffer.back();
+                slot[0] = i;
+                slot[1] = -i;
+                buffer.publish();
+            }
+        });
+        producer.start();
+        long last = 0;
+        while (last < values) {
+            long[] slot = buffer.latest();
+            assertEquals(slot[0], -slot[1]);
+            assertTrue(slot[0] >= last);
+            last = slot[0];
+        }
+        producer.join();
+    }
+
+    /**
+     * Tests commands, stepping and running through the frames.
+     *
+     * @throws InterruptedException
+     *             if interrupted
+     */
+    @Test
+    public final void testSimulation_framesFollow()
+            throws InterruptedException {
+        final int generations = 100;
+        try (Simulation simulation = new Simulation(new GOLModel1())) {
+            simulation.start();
+            assertEquals(0, nextFrame(simulation).population());
+            simulation.submit(game -> {
+                game.toggleCell(new Cell(0, 1));
+                game.toggleCell(new Cell(1, 1));
+                game.toggleCell(new Cell(2, 1));
+            });
+            assertEquals(3, nextFrame(simulation).population());
+            simulation.step();
+            Board frame = nextFrame(simulation);
+            assertEquals(1, frame.generation());
+            assertTrue(frame.cellState(new Cell(1, 0)));
+
+            simulation.setRunning(true);
+            while (nextFrame(simulation).generation() < generations) {
+                assertEquals(3, simulation.latestFrame().population());
+            }
+            simulation.setRunning(false);
+            Thread.sleep(TIMEOUT_MILLIS / 100);
+            long paused = simulation.latestFrame().generation();
+            Thread.sleep(TIMEOUT_MILLIS / 100);
+            assertFalse(simulation.hasNewFrame());
+            assertEquals(paused, simulation.latestFrame().generation());
+        }
+    }
+
+    /**
+     * Tests that the frames of a running game carry the cells that changed
+     * since the frame taken before.
+     *
+     * @throws InterruptedException
+     *             if interrupted
+     */
+    @Test
+    public final void testSimulation_framesCarryChanges()
+            throws InterruptedException {
+        final int blocks = 50;
+        final int spacing = 4;
+        final int blockRow = 10;
+        final int frames = 20;
+        final double rate = 100;
+        GOLModel model = new GOLModel1();
+        for (int i = 0; i < blocks; i++) {
+            int x = i * spacing;
+            model.toggleCell(new Cell(x, blockRow));
+            model.toggleCell(new Cell(x + 1, blockRow));
+            model.toggleCell(new Cell(x, blockRow + 1));
+            model.toggleCell(new Cell(x + 1, blockRow + 1));
+        }
+        // a blinker around (1, 0), the only cells that ever change
+        model.toggleCell(new Cell(0, 0));
+        model.toggleCell(new Cell(1, 0));
+        model.toggleCell(new Cell(2, 0));
+        try (Simulation simulation = new Simulation(model)) {
+            simulation.setRate(rate);
+            simulation.start();
+            simulation.setRunning(true);
+            long previous = nextFrame(simulation).frame();
+            int known = 0;
+            for (int i = 0; i < frames; i++) {
+                Board frame = nextFrame(simulation);
+                assertTrue(frame.frame() > previous);
+                List<Long> changed = new ArrayList<>();
+                if (frame.forEachChangeSince(previous, changed::add)) {
+                    known++;
+                    for (long key : changed) {
+                        assertTrue(Math.abs(SparseLife.x(key) - 1) <= 1
+                                && Math.abs(SparseLife.y(key)) <= 1);
+                    }
+                }
+                previous = frame.frame();
+            }
+            // only the frame after the command that started the run may
+            // not know its changes
+            assertTrue(known >= frames - 1);
+        }
+    }
+
+    /**
+     * Tests that toggles queued before the simulation thread runs them all
+     * count, and that a command that throws does not stop the thread.
+     *
+     * @throws InterruptedException
+     *             if interrupted
+     */
+    @Test
+    public final void testSimulation_togglesAndFailures()
+            throws InterruptedException {
+        try (Simulation simulation = new Simulation(new GOLModel1())) {
+            simulation.toggleRunning();
+            simulation.toggleRunning();
+            simulation.start();
+            nextFrame(simulation);
+            assertFalse(simulation.isRunning());
+            simulation.submit(game -> {
+                throw new IllegalStateException("expected by the test");
+            });
+            simulation.submit(game -> game.toggleCell(new Cell(0, 0)));
+            long end = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            while (nextFrame(simulation).population() == 0) {
+                assertTrue("no frame", System.currentTimeMillis() < end);
+            }
+            assertEquals(1, simulation.latestFrame().population());
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Testing the sparse engine and the primitive set under it.
+ *
+ */
+public class SparseLifeTest {
+
+    /**
+     * Tests adding, finding and removing values, including the one that marks
+     * free slots.
+     */
+    @Test
+    public final void testLongHashSet_addRemove() {
+        final int count = 1000;
+        LongHashSet set = new LongHashSet();
+        assertTrue(set.add(Long.MIN_VALUE));
+        for (long i = 0; i < count; i++) {
+            assertTrue(set.add(i * i));
+        }
+        assertFalse(set.add(4));
+        assertEquals(count + 1, set.size());
+        for (long i = 0; i < count; i += 2) {
+            assertTrue(set.remove(i * i));
+        }
+        for (long i = 0; i < count; i++) {
+            assertEquals(i % 2 == 1, set.contains(i * i));
+        }
+        assertTrue(set.contains(Long.MIN_VALUE));
+        set.clear();
+        assertEquals(0, set.size());
+        assertFalse(set.contains(1));
+    }
+
+    /**
+     * Tests that keys round-trip negative coordinates.
+     */
+    @Test
+    public final void testKey_negative() {
+        long key = SparseLife.key(-3, -70000);
+        assertEquals(-3, SparseLife.x(key));
+        assertEquals(-70000, SparseLife.y(key));
+    }
+
+    /**
+     * Tests a random soup generation by generation against HashLife.
+     */
+    @Test
+    public final void testTick_matchesHashLife() {
+        final long seed = 19;
+        final int size = 32;
+        final int generations = 60;
+        Random random = new Random(seed);
+        SparseLife sparse = new SparseLife();
+        HashLife hash = new HashLife();
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                if (random.nextBoolean()) {
+                    sparse.setCell(x, y, true);
+                    hash.setCell(x, y, true);
+                }
+            }
+        }
+        for (int i = 0; i < generations; i++) {
+            sparse.tick();
+            hash.advance(0);
+            Set<Long> expected = new HashSet<>();
+            hash.forEachLiveCell(
+                    (x, y) -> expected.add(SparseLife.key((int) x, (int) y)));
+            Set<Long> actual = new HashSet<>();
+            sparse.forEachLiveCell(actual::add);
+            assertEquals(expected, actual);
+        }
+        assertEquals(generations, sparse.generation());
+    }
+    /**
+     * Checks the bounds of a game against a scan of its live cells.
+     *
+     * @param life
+     *            the game, with at least one live cell
+     */
+    private static void assertBounds(SparseLife life) {
+        int[] scan = { Integer.MAX_VALUE, Integer.MAX_VALUE,
+                Integer.MIN_VALUE, Integer.MIN_VALUE };
+        life.forEachLiveCell(key -> {
+            scan[0] = Math.min(scan[0], SparseLife.x(key));
+            scan[1] = Math.min(scan[1], SparseLife.y(key));
+            scan[2] = Math.max(scan[2], SparseLife.x(key));
+            scan[3] = Math.max(scan[3], SparseLife.y(key));
+        });
+        assertEquals(scan[0], life.minX());
+        assertEquals(scan[1], life.minY());
+        assertEquals(scan[2], life.maxX());
+        assertEquals(scan[3], life.maxY());
+    }
+
+    /**
+     * Tests that the bounds follow the live cells through ticks and edits
+     * that kill edge cells.
+     */
+    @Test
+    public final void testBounds_followCells() {
+        final int size = 30;
+        final int generations = 40;
+        Random random = new Random(5);
+        SparseLife life = new SparseLife();
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                life.setCell(x, y, random.nextBoolean());
+            }
+        }
+        assertBounds(life);
+        for (int g = 0; g < generations; g++) {
+            life.tick();
+            assertBounds(life);
+        }
+        life.setCell(life.minX(), life.minY(), true);
+        life.toggleCell(life.minX(), life.minY());
+        assertBounds(life);
+        life.toggleCells(new long[] { SparseLife.key(life.maxX(), 0),
+                SparseLife.key(life.maxX() + 2, life.maxY()) });
+        assertBounds(life);
+        life.clear();
+        life.toggleCell(-1, 2);
+        assertEquals(-1, life.minX());
+        assertEquals(2, life.maxY());
+    }
+
+}
@@ -0,0 +1,65 @@
+import java.lang.management.ManagementFactory;
+
+import com.sun.management.ThreadMXBean;
+
+/**
+ * Reports how many bytes of heap the current thread has allocated, so a test
+ * or benchmark can check that a code path allocates nothing.
+ */
+public final class AllocationCounter {
+
+    /**
+     * The HotSpot thread bean, or null if this JVM does not provide one.
+     */
+    private static final ThreadMXBean THREADS = threadBean();
+
+    /**
+     * Default constructor--private to prevent instantiation.
+     */
+    private AllocationCounter() {
+        // no code needed here
+    }
+
+    /**
+     * Finds the thread bean that can measure allocation, and switches the
+     * measurement on.
+     *
+     * @return the bean, or null if allocation cannot be measured
+     */
+    private static ThreadMXBean threadBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory
+                .getThreadMXBean();
+        if (!(bean instanceof ThreadMXBean)) {
+            return null;
+        }
+        ThreadMXBean hotspot = (ThreadMXBean) bean;
+        if (!hotspot.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        hotspot.setThreadAllocatedMemoryEnabled(true);
+        return hotspot;
+    }
+
+    /**
+     * Reports whether this JVM can measure allocation.
+     *
+     * @return true iff {@link #allocatedBytes()} is meaningful
+     */
+    public static boolean isSupported() {
+        return THREADS != null;
+    }
+
+    /**
+     * Returns the total number of bytes the current thread has allocated so
+     * far. Only differences between two calls are meaningful.
+     *
+     * @return the allocated bytes, or -1 if allocation cannot be measured
+     */
+    public static long allocatedBytes() {
+        if (THREADS == null) {
+            return -1;
+        }
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+}
@@ -0,0 +1,614 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Saves boards to files and loads them back, in a compact binary format:
+ *
+ * <pre>
+ * offset  bytes
+ *      0      4  magic number, "GOLB"
+ *      4      2  format version, 1
+ *      6      2  flags; bit 0 is set if the body is run-length encoded,
+ *                bits 1 and 2 hold the boundary: 0 torus, 1 dead, 2 reflect
+ *      8      4  width
+ *     12      4  height
+ *     16      2  births: bit n is set if a dead cell with n neighbors is born
+ *     18      2  survivals: bit n is set if a live cell with n neighbors lives
+ *     20      8  generation
+ *     28      8  length of the body
+ *     36      4  CRC-32 of the body
+ *     40         body
+ * </pre>
+ *
+ * <p>
+ * The body holds the words of the board row after row, as returned by
+ * {@link LifeEngine#word(int, int)}. A run-length encoded body holds instead
+ * a count (4 bytes) and a word (8 bytes) for each run of equal words, so
+ * empty space costs almost nothing. Numbers are big-endian.
+ * </p>
+ *
+ * <p>
+ * Files are read and written through memory-mapped buffers, one chunk at a
+ * time, so the body goes straight between the file and the board without a
+ * copy on the heap, however big the board is.
+ * </p>
+ */
+public final class BoardSnapshot {
+
+    /**
+     * The first four bytes of every snapshot, "GOLB".
+     */
+    private static final int MAGIC = 0x474F4C42;
+
+    /**
+     * The version of the format written.
+     */
+    private static final short VERSION = 1;
+
+    /**
+     * Flag of a run-length encoded body.
+     */
+    private static final short FLAG_RUNS = 1;
+
+    /**
+     * Position of the boundary in the flags.
+     */
+    private static final int BOUNDARY_SHIFT = 1;
+
+    /**
+     * Mask of the boundary in the flags, once shifted down.
+     */
+    private static final int BOUNDARY_MASK = 3;
+
+    /**
+     * Size of the header.
+     */
+    private static final int HEADER_BYTES = 40;
+
+    /**
+     * Size of one run of a run-length encoded body.
+     */
+    private static final int RUN_BYTES = Integer.BYTES + Long.BYTES;
+
+    /**
+     * Most bytes mapped at once.
+     */
+    private static final int MAP_CHUNK = 1 << 30;
+
+    /**
+     * Default constructor--private to prevent instantiation.
+     */
+    private BoardSnapshot() {
+        // no code needed here
+    }
+
+    /**
+     * Writes a file through memory-mapped chunks, keeping the CRC of what
+     * was written.
+     */
+    private static final class MappedWriter {
+
+        /**
+         * The file.
+         */
+        private final FileChannel channel;
+
+        /**
+         * Where the region written ends in the file.
+         */
+        private final long end;
+
+        /**
+         * Where the current chunk starts in the file.
+         */
+        private long position;
+
+        /**
+         * The current chunk, or null before the first one.
+         */
+        private MappedByteBuffer buffer;
+
+        /**
+         * CRC of the chunks finished so far.
+         */
+        private final CRC32 crc = new CRC32();
+
+        /**
+         * Creates a writer of a region of a file.
+         *
+         * @param channel
+         *            the file, open for reading and writing
+         * @param start
+         *            where the region starts
+         * @param length
+         *            the length of the region
+         */
+        MappedWriter(FileChannel channel, long start, long length) {
+            this.channel = channel;
+            this.position = start;
+            this.end = start + length;
+        }
+
+        /**
+         * Makes sure the current chunk has room for some bytes, mapping the
+         * next chunk if it does not.
+         *
+         * @param bytes
+         *            the number of bytes about to be written
+         * @throws IOException
+         *             if mapping fails
+         */
+        private void ensure(int bytes) throws IOException {
+            if (this.buffer == null || this.buffer.remaining() < bytes) {
+                this.finishChunk();
+                long size = Math.min(MAP_CHUNK, this.end - this.position);
+                this.buffer = this.channel.map(MapMode.READ_WRITE,
+                        this.position, size);
+            }
+        }
+
+        /**
+         * Adds what was written to the current chunk to the CRC and flushes
+         * it to the file.
+         */
+        private void finishChunk() {
+            if (this.buffer != null) {
+                ByteBuffer written = this.buffer.duplicate();
+                written.flip();
+                this.crc.update(written);
+                this.position += written.limit();
+                this.buffer.force();
+                this.buffer = null;
+            }
+        }
+
+        /**
+         * Writes an int.
+         *
+         * @param value
+         *            the int
+         * @throws IOException
+         *             if mapping fails
+         */
+        void putInt(int value) throws IOException {
+            this.ensure(Integer.BYTES);
+            this.buffer.putInt(value);
+        }
+
+        /**
+         * Writes a long.
+         *
+         * @param value
+         *            the long
+         * @throws IOException
+         *             if mapping fails
+         */
+        void putLong(long value) throws IOException {
+            this.ensure(Long.BYTES);
+            this.buffer.putLong(value);
+        }
+
+        /**
+         * Finishes writing.
+         *
+         * @return the CRC-32 of everything written
+         */
+        int finish() {
+            this.finishChunk();
+            return (int) this.crc.getValue();
+        }
+    }
+
+    /**
+     * Reads a file through memory-mapped chunks, keeping the CRC of what was
+     * read.
+     */
+    private static final class MappedReader {
+
+        /**
+         * The file.
+         */
+        private final FileChannel channel;
+
+        /**
+         * Where the region read ends in the file.
+         */
+        private final long end;
+
+        /**
+         * Where the current chunk starts in the file.
+         */
+        private long position;
+
+        /**
+         * The current chunk, or null before the first one.
+         */
+        private MappedByteBuffer buffer;
+
+        /**
+         * CRC of the chunks finished so far.
+         */
+        private final CRC32 crc = new CRC32();
+
+        /**
+         * Creates a reader of a region of a file.
+         *
+         * @param channel
+         *            the file, open for reading
+         * @param start
+         *            where the region starts
+         * @param length
+         *            the length of the region
+         */
+        MappedReader(FileChannel channel, long start, long length) {
+            this.channel = channel;
+            this.position = start;
+            this.end = start + length;
+        }
+
+        /**
+         * Makes sure the current chunk holds some more bytes, mapping the
+         * next chunk if it does not.
+         *
+         * @param bytes
+         *            the number of bytes about to be read
+         * @throws IOException
+         *             if mapping fails or the region ends first
+         */
+        private void ensure(int bytes) throws IOException {
+            if (this.buffer == null || this.buffer.remaining() < bytes) {
+                this.finishChunk();
+                long size = Math.min(MAP_CHUNK, this.end - this.position);
+                if (size < bytes) {
+                    throw new IOException("Snapshot body ends too early");
+                }
+                this.buffer = this.channel.map(MapMode.READ_ONLY,
+                        this.position, size);
+            }
+        }
+
+        /**
+         * Adds what was read from the current chunk to the CRC.
+         */
+        private void finishChunk() {
+            if (this.buffer != null) {
+                ByteBuffer read = this.buffer.duplicate();
+                read.flip();
+                this.crc.update(read);
+                this.position += read.limit();
+                this.buffer = null;
+            }
+        }
+
+        /**
+         * Reads an int.
+         *
+         * @return the int
+         * @throws IOException
+         *             if mapping fails or the region ends first
+         */
+        int getInt() throws IOException {
+            this.ensure(Integer.BYTES);
+            return this.buffer.getInt();
+        }
+
+        /**
+         * Reads a long.
+         *
+         * @return the long
+         * @throws IOException
+         *             if mapping fails or the region ends first
+         */
+        long getLong() throws IOException {
+            this.ensure(Long.BYTES);
+            return this.buffer.getLong();
+        }
+
+        /**
+         * Finishes reading.
+         *
+         * @return the CRC-32 of everything read
+         * @throws IOException
+         *             if the region was not read to its end
+         */
+        int finish() throws IOException {
+            this.finishChunk();
+            if (this.position != this.end) {
+                throw new IOException("Snapshot body is longer than its board");
+            }
+            return (int) this.crc.getValue();
+        }
+    }
+
+    /**
+     * Counts the runs of equal words of a board.
+     *
+     * @param board
+     *            the board
+     * @return the number of runs
+     */
+    private static long countRuns(LifeEngine board) {
+        int wordsPerRow = (board.width() + Long.SIZE - 1) / Long.SIZE;
+        long runs = 1;
+        long current = board.word(0, 0);
+        int run = 0;
+        for (int row = 0; row < board.height(); row++) {
+            for (int w = 0; w < wordsPerRow; w++) {
+                long word = board.word(row, w);
+                if (word == current && run < Integer.MAX_VALUE) {
+                    run++;
+                } else {
+                    runs++;
+                    current = word;
+                    run = 1;
+                }
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Writes the words of a board run-length encoded.
+     *
+     * @param board
+     *            the board
+     * @param body
+     *            where to write
+     * @throws IOException
+     *             if writing fails
+     */
+    private static void writeRuns(LifeEngine board, MappedWriter body)
+            throws IOException {
+        int wordsPerRow = (board.width() + Long.SIZE - 1) / Long.SIZE;
+        long current = board.word(0, 0);
+        int run = 0;
+        for (int row = 0; row < board.height(); row++) {
+            for (int w = 0; w < wordsPerRow; w++) {
+                long word = board.word(row, w);
+                if (word == current && run < Integer.MAX_VALUE) {
+                    run++;
+                } else {
+                    body.putInt(run);
+                    body.putLong(current);
+                    current = word;
+                    run = 1;
+                }
+            }
+        }
+        body.putInt(run);
+        body.putLong(current);
+    }
+
+    /**
+     * Writes the words of a board one after the other.
+     *
+     * @param board
+     *            the board
+     * @param body
+     *            where to write
+     * @throws IOException
+     *             if writing fails
+     */
+    private static void writeWords(LifeEngine board, MappedWriter body)
+            throws IOException {
+        int wordsPerRow = (board.width() + Long.SIZE - 1) / Long.SIZE;
+        for (int row = 0; row < board.height(); row++) {
+            for (int w = 0; w < wordsPerRow; w++) {
+                body.putLong(board.word(row, w));
+            }
+        }
+    }
+
+    /**
+     * Saves the current generation of a board.
+     *
+     * @param board
+     *            the board
+     * @param path
+     *            the file, replaced if it exists
+     * @param compress
+     *            whether to run-length encode the body; it is stored plain
+     *            anyway if encoding would not make it smaller
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    public static void save(LifeEngine board, Path path, boolean compress)
+            throws IOException {
+        int wordsPerRow = (board.width() + Long.SIZE - 1) / Long.SIZE;
+        long plainBytes = (long) board.height() * wordsPerRow * Long.BYTES;
+        long runBytes = Long.MAX_VALUE;
+        if (compress) {
+            runBytes = countRuns(board) * RUN_BYTES;
+        }
+        boolean runs = runBytes < plainBytes;
+        long bodyBytes = Math.min(runBytes, plainBytes);
+
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedWriter body = new MappedWriter(channel, HEADER_BYTES,
+                    bodyBytes);
+            if (runs) {
+                writeRuns(board, body);
+            } else {
+                writeWords(board, body);
+            }
+            int crc = body.finish();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC);
+            header.putShort(VERSION);
+            int flags = board.boundary().ordinal() << BOUNDARY_SHIFT;
+            if (runs) {
+                flags |= FLAG_RUNS;
+            }
+            header.putShort((short) flags);
+            header.putInt(board.width());
+            header.putInt(board.height());
+            header.putShort((short) board.rule().births());
+            header.putShort((short) board.rule().survivals());
+            header.putLong(board.generation());
+            header.putLong(bodyBytes);
+            header.putInt(crc);
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Loads a board saved by {@link #save(LifeEngine, Path, boolean)}. The
+     * board starts at the generation it was saved at and plays the rule and
+     * boundary it was saved with.
+     *
+     * @param path
+     *            the file
+     * @return the board
+     * @throws IOException
+     *             if the file cannot be read, is not a snapshot or is
+     *             corrupt
+     */
+    public static PackedBoard load(Path path) throws IOException {
+        return load(path, PackedBoard.Storage.HEAP);
+    }
+
+    /**
+     * Loads a board saved by {@link #save(LifeEngine, Path, boolean)} into
+     * a board kept in the given storage, so a board too big for the heap can
+     * be loaded straight off it.
+     *
+     * @param path
+     *            the file
+     * @param storage
+     *            where to keep the words of the board
+     * @return the board
+     * @throws IOException
+     *             if the file cannot be read, is not a snapshot or is
+     *             corrupt, or the storage cannot be set up
+     */
+    public static PackedBoard load(Path path, PackedBoard.Storage storage)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("Not a snapshot: " + path);
+                }
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a snapshot: " + path);
+            }
+            short version = header.getShort();
+            if (version != VERSION) {
+                throw new IOException(
+                        "Unsupported snapshot version " + version);
+            }
+            short flags = header.getShort();
+            boolean runs = (flags & FLAG_RUNS) != 0;
+            int edge = (flags >>> BOUNDARY_SHIFT) & BOUNDARY_MASK;
+            if (edge >= Boundary.values().length) {
+                throw new IOException("Bad snapshot boundary " + edge);
+            }
+            int width = header.getInt();
+            int height = header.getInt();
+            short births = header.getShort();
+            short survivals = header.getShort();
+            long generation = header.getLong();
+            long bodyBytes = header.getLong();
+            int crc = header.getInt();
+            if (width <= 0 || height <= 0) {
+                throw new IOException(
+                        "Bad snapshot size " + width + " x " + height);
+            }
+            Rule rule;
+            try {
+                rule = Rule.of(births, survivals);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Bad snapshot rule", e);
+            }
+            if (bodyBytes != channel.size() - HEADER_BYTES) {
+                throw new IOException("Snapshot is truncated: " + path);
+            }
+
+            PackedBoard board = storage.create(width, height);
+            board.setRule(rule);
+            board.setBoundary(Boundary.values()[edge]);
+            MappedReader body = new MappedReader(channel, HEADER_BYTES,
+                    bodyBytes);
+            if (runs) {
+                readRuns(board, body);
+            } else {
+                readWords(board, body);
+            }
+            if (body.finish() != crc) {
+                throw new IOException("Snapshot is corrupt: " + path);
+            }
+            board.setGeneration(generation);
+            return board;
+        }
+    }
+
+    /**
+     * Reads the words of a board one after the other.
+     *
+     * @param board
+     *            the empty board to fill
+     * @param body
+     *            where to read
+     * @throws IOException
+     *             if reading fails
+     */
+    private static void readWords(PackedBoard board, MappedReader body)
+            throws IOException {
+        for (int row = 0; row < board.height(); row++) {
+            for (int w = 0; w < board.wordsPerRow(); w++) {
+                board.setWord(row, w, body.getLong());
+            }
+        }
+    }
+
+    /**
+     * Reads run-length encoded words of a board.
+     *
+     * @param board
+     *            the empty board to fill
+     * @param body
+     *            where to read
+     * @throws IOException
+     *             if reading fails or the runs do not fit the board
+     */
+    private static void readRuns(PackedBoard board, MappedReader body)
+            throws IOException {
+        int wordsPerRow = board.wordsPerRow();
+        long total = (long) board.height() * wordsPerRow;
+        long index = 0;
+        while (index < total) {
+            int run = body.getInt();
+            long word = body.getLong();
+            if (run <= 0 || run > total - index) {
+                throw new IOException("Snapshot runs do not fit its board");
+            }
+            if (word == 0) {
+                // the board starts empty
+                index += run;
+            } else {
+                for (int i = 0; i < run; i++) {
+                    board.setWord((int) (index / wordsPerRow),
+                            (int) (index % wordsPerRow), word);
+                    index++;
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,95 @@
+import java.util.Arrays;
+
+/**
+ * What lies past the edges of a board. Engines keep a halo, one row above
+ * and below the board and one column left and right of it, and fill it from
+ * the edge cells before every generation, so the neighbors of every cell of
+ * the board can be read without checking for an edge.
+ */
+public enum Boundary {
+
+    /**
+     * The edges wrap around: the row above the top row is the bottom row,
+     * and the column left of the left column is the right column.
+     */
+    TORUS,
+
+    /**
+     * Every cell past the edges is dead.
+     */
+    DEAD,
+
+    /**
+     * The edges are mirrors: the cell past an edge is the same as the edge
+     * cell next to it.
+     */
+    REFLECT;
+
+    /**
+     * Reads a boundary by name, in any case.
+     *
+     * @param name
+     *            torus, dead or reflect
+     * @return the boundary
+     * @throws IllegalArgumentException
+     *             if there is no boundary with that name
+     */
+    public static Boundary parse(String name) {
+        for (Boundary boundary : values()) {
+            if (boundary.name().equalsIgnoreCase(name)) {
+                return boundary;
+            }
+        }
+        throw new IllegalArgumentException("Unknown boundary: " + name);
+    }
+
+    /**
+     * Fills the halo of a padded grid: row 0 and the last row, and column 0
+     * and the last column of every row, from the cells inside them.
+     *
+     * @param padded
+     *            a grid with one extra row and column on every side
+     * @updates padded
+     * @requires padded is rectangular, with at least 3 rows and 3 columns
+     */
+    public void fillHalo(boolean[][] padded) {
+        int last = padded.length - 1;
+        int lastColumn = padded[0].length - 1;
+        for (int row = 1; row < last; row++) {
+            boolean[] line = padded[row];
+            switch (this) {
+                case TORUS:
+                    line[0] = line[lastColumn - 1];
+                    line[lastColumn] = line[1];
+                    break;
+                case REFLECT:
+                    line[0] = line[1];
+                    line[lastColumn] = line[lastColumn - 1];
+                    break;
+                default:
+                    line[0] = false;
+                    line[lastColumn] = false;
+                    break;
+            }
+        }
+        // whole rows, so the corners come from the columns filled above
+        switch (this) {
+            case TORUS:
+                System.arraycopy(padded[last - 1], 0, padded[0], 0,
+                        lastColumn + 1);
+                System.arraycopy(padded[1], 0, padded[last], 0,
+                        lastColumn + 1);
+                break;
+            case REFLECT:
+                System.arraycopy(padded[1], 0, padded[0], 0, lastColumn + 1);
+                System.arraycopy(padded[last - 1], 0, padded[last], 0,
+                        lastColumn + 1);
+                break;
+            default:
+                Arrays.fill(padded[0], false);
+                Arrays.fill(padded[last], false);
+                break;
+        }
+    }
+
+}
@@ -0,0 +1,265 @@
+/**
+ * Game of Life board that keeps two grids and swaps them every generation, so
+ * that once it is created ticking allocates nothing. Both grids have a halo,
+ * an extra row and column on every side, filled from the edges as the
+ * {@link Boundary} calls for, so counting the neighbors of a cell never
+ * checks for an edge. Gives the same generations as
+ * {@link GameOfLifeV2#tickGame(boolean[][], Rule, Boundary)}.
+ */
+public final class BufferedGrid implements LifeEngine {
+
+    /**
+     * The current generation, with its halo: cell (row, column) is at
+     * [row + 1][column + 1].
+     */
+    private boolean[][] cells;
+
+    /**
+     * Grid the next generation is computed into, with room for its halo.
+     */
+    private boolean[][] next;
+
+    /**
+     * Number of columns.
+     */
+    private final int width;
+
+    /**
+     * Number of rows.
+     */
+    private final int height;
+
+    /**
+     * Number of generations computed so far.
+     */
+    private long generation;
+
+    /**
+     * Hash of the current generation, worked out as it is computed.
+     */
+    private long hash;
+
+    /**
+     * The rule the board plays.
+     */
+    private final Rule rule;
+
+    /**
+     * What lies past the edges.
+     */
+    private final Boundary boundary;
+
+    /**
+     * Creates a board holding a copy of grid that plays Conway's Game of
+     * Life.
+     *
+     * @param start
+     *            the starting board
+     * @requires start is rectangular and not empty
+     */
+    public BufferedGrid(boolean[][] start) {
+        this(start, Rule.CONWAY);
+    }
+
+    /**
+     * Creates a board holding a copy of grid whose edges wrap around.
+     *
+     * @param start
+     *            the starting board
+     * @param rule
+     *            the rule the board plays
+     * @requires start is rectangular and not empty
+     */
+    public BufferedGrid(boolean[][] start, Rule rule) {
+        this(start, rule, Boundary.TORUS);
+    }
+
+    /**
+     * Creates a board holding a copy of grid.
+     *
+     * @param start
+     *            the starting board
+     * @param rule
+     *            the rule the board plays
+     * @param boundary
+     *            what lies past the edges
+     * @requires start is rectangular and not empty
+     */
+    public BufferedGrid(boolean[][] start, Rule rule, Boundary boundary) {
+        this.rule = rule;
+        this.boundary = boundary;
+        this.height = start.length;
+        this.width = start[0].length;
+        this.cells = new boolean[this.height + 2][this.width + 2];
+        this.next = new boolean[this.height + 2][this.width + 2];
+        for (int row = 0; row < this.height; row++) {
+            System.arraycopy(start[row], 0, this.cells[row + 1], 1,
+                    this.width);
+        }
+        boundary.fillHalo(this.cells);
+
+        int wordsPerRow = (this.width + Long.SIZE - 1) / Long.SIZE;
+        for (int row = 0; row < this.height; row++) {
+            for (int w = 0; w < wordsPerRow; w++) {
+                this.hash ^= PackedBoard.mix(row * wordsPerRow + w,
+                        this.word(row, w));
+            }
+        }
+    }
+
+    /**
+     * Returns a copy of the current generation, without the halo.
+     *
+     * @return a new grid holding the current generation
+     */
+    public boolean[][] grid() {
+        boolean[][] grid = new boolean[this.height][this.width];
+        for (int row = 0; row < this.height; row++) {
+            System.arraycopy(this.cells[row + 1], 1, grid[row], 0,
+                    this.width);
+        }
+        return grid;
+    }
+
+    @Override
+    public int width() {
+        return this.width;
+    }
+
+    @Override
+    public int height() {
+        return this.height;
+    }
+
+    @Override
+    public boolean isAlive(int row, int column) {
+        return this.cells[row + 1][column + 1];
+    }
+
+    @Override
+    public long word(int row, int wordIndex) {
+        boolean[] line = this.cells[row + 1];
+        int first = wordIndex * Long.SIZE;
+        int last = Math.min(first + Long.SIZE, this.width);
+        long word = 0;
+        for (int column = last - 1; column >= first; column--) {
+            word = (word << 1) | (line[column + 1] ? 1L : 0L);
+        }
+        return word;
+    }
+
+    @Override
+    public long population() {
+        long count = 0;
+        for (int row = 1; row <= this.height; row++) {
+            boolean[] line = this.cells[row];
+            for (int column = 1; column <= this.width; column++) {
+                if (line[column]) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of generations computed so far.
+     *
+     * @return the generation number
+     */
+    @Override
+    public long generation() {
+        return this.generation;
+    }
+
+    /**
+     * Sets the generation number, for a board that resumes an earlier run.
+     *
+     * @param generation
+     *            the number of generations already computed
+     * @replaces this.generation
+     */
+    public void setGeneration(long generation) {
+        this.generation = generation;
+    }
+
+    @Override
+    public long hash() {
+        return this.hash;
+    }
+
+    @Override
+    public Rule rule() {
+        return this.rule;
+    }
+
+    @Override
+    public Boundary boundary() {
+        return this.boundary;
+    }
+
+    /**
+     * Counts the number of neighbors a cell has (up to 8) in the current
+     * generation.
+     *
+     * @param row
+     *            The row of the cell in question
+     * @param column
+     *            The column of the cell in question
+     * @return The number of neighbors
+     */
+    public int countNeighbors(int row, int column) {
+        boolean[] above = this.cells[row];
+        boolean[] line = this.cells[row + 1];
+        boolean[] below = this.cells[row + 2];
+
+        int neighbors = 0;
+        neighbors += above[column] ? 1 : 0;
+        neighbors += above[column + 1] ? 1 : 0;
+        neighbors += above[column + 2] ? 1 : 0;
+        neighbors += line[column] ? 1 : 0;
+        neighbors += line[column + 2] ? 1 : 0;
+        neighbors += below[column] ? 1 : 0;
+        neighbors += below[column + 1] ? 1 : 0;
+        neighbors += below[column + 2] ? 1 : 0;
+        return neighbors;
+    }
+
+    /**
+     * Applies the rule to every cell, then swaps the grids.
+     */
+    @Override
+    public void tick() {
+        final int lastBit = Long.SIZE - 1;
+        long newHash = 0;
+        int index = 0;
+        for (int row = 0; row < this.height; row++) {
+            boolean[] line = this.cells[row + 1];
+            boolean[] newLine = this.next[row + 1];
+            // the new cells packed into words as they are computed, for the
+            // hash
+            long word = 0;
+            for (int column = 0; column < this.width; column++) {
+                boolean alive = this.rule.next(line[column + 1],
+                        this.countNeighbors(row, column));
+                newLine[column + 1] = alive;
+                if (alive) {
+                    word |= 1L << column;
+                }
+                if ((column & lastBit) == lastBit
+                        || column == this.width - 1) {
+                    newHash ^= PackedBoard.mix(index, word);
+                    index++;
+                    word = 0;
+                }
+            }
+        }
+        boolean[][] tmp = this.cells;
+        this.cells = this.next;
+        this.next = tmp;
+        this.boundary.fillHalo(this.cells);
+        this.generation++;
+        this.hash = newHash;
+    }
+
+}
@@ -0,0 +1,351 @@
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves checkpoints of a long run every so many generations or seconds, so a
+ * run can pick up where it was if the JVM dies. The tick loop only pays for
+ * copying the board's words into a spare board; the copy is written to disk
+ * as a {@link BoardSnapshot} on a background thread while the run goes on.
+ *
+ * <p>
+ * Checkpoints are named {@code checkpoint-<generation>.golb}, with the
+ * generation zero-padded so the names sort in generation order. Each one is
+ * written under a temporary name and renamed when complete, and only the
+ * newest few are kept.
+ * </p>
+ */
+public final class Checkpointer implements AutoCloseable {
+
+    /**
+     * Start of the name of every checkpoint.
+     */
+    private static final String PREFIX = "checkpoint-";
+
+    /**
+     * End of the name of every checkpoint.
+     */
+    private static final String SUFFIX = ".golb";
+
+    /**
+     * Name of a checkpoint while it is being written.
+     */
+    private static final String TEMPORARY = "checkpoint.tmp";
+
+    /**
+     * How long close waits for the writer at a time, in milliseconds.
+     */
+    private static final long WAIT_MILLIS = 1000;
+
+    /**
+     * The directory checkpoints go to.
+     */
+    private final Path directory;
+
+    /**
+     * Generations between checkpoints, or 0 to go by time only.
+     */
+    private final long everyGenerations;
+
+    /**
+     * Nanoseconds between checkpoints, or 0 to go by generations only.
+     */
+    private final long everyNanos;
+
+    /**
+     * How many checkpoints to keep.
+     */
+    private final int keep;
+
+    /**
+     * The thread that writes checkpoints.
+     */
+    private final ExecutorService writer;
+
+    /**
+     * The copy being written, reused for every checkpoint.
+     */
+    private PackedBoard copy;
+
+    /**
+     * The checkpoint being written, or null if none was started.
+     */
+    private Future<?> pending;
+
+    /**
+     * When the last checkpoint was taken, from System.nanoTime.
+     */
+    private long lastTaken = System.nanoTime();
+
+    /**
+     * Number of checkpoints skipped because the last one was still being
+     * written.
+     */
+    private long skipped;
+
+    /**
+     * The first failure to write a checkpoint, or null if none failed.
+     */
+    private volatile IOException failure;
+
+    /**
+     * Creates a checkpointer.
+     *
+     * @param directory
+     *            the directory checkpoints go to; it is created if needed
+     * @param everyGenerations
+     *            generations between checkpoints, or 0 to go by time only
+     * @param everySeconds
+     *            seconds between checkpoints, or 0 to go by generations only
+     * @param keep
+     *            how many checkpoints to keep
+     * @throws IOException
+     *             if the directory cannot be created
+     * @requires everyGenerations >= 0 and everySeconds >= 0 and keep > 0
+     */
+    public Checkpointer(Path directory, long everyGenerations,
+            long everySeconds, int keep) throws IOException {
+        assert keep > 0 : "Violation of: keep > 0";
+        this.directory = directory;
+        this.everyGenerations = everyGenerations;
+        this.everyNanos = TimeUnit.SECONDS.toNanos(everySeconds);
+        this.keep = keep;
+        Files.createDirectories(directory);
+        this.writer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "checkpoint writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the name of the checkpoint of a generation.
+     *
+     * @param generation
+     *            the generation
+     * @return the file name
+     */
+    private static String name(long generation) {
+        return String.format("%s%019d%s", PREFIX, generation, SUFFIX);
+    }
+
+    /**
+     * Lists the checkpoints in a directory, oldest first.
+     *
+     * @param directory
+     *            the directory
+     * @return the checkpoints
+     * @throws IOException
+     *             if the directory cannot be read
+     */
+    private static List<Path> list(Path directory) throws IOException {
+        List<Path> checkpoints = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                checkpoints.add(file);
+            }
+        }
+        Collections.sort(checkpoints);
+        return checkpoints;
+    }
+
+    /**
+     * Loads the newest checkpoint in a directory that is complete and not
+     * corrupt, onto the heap.
+     *
+     * @param directory
+     *            the directory
+     * @return the board of the checkpoint, or null if there is none
+     * @throws IOException
+     *             if the directory cannot be read
+     */
+    public static PackedBoard latest(Path directory) throws IOException {
+        return latest(directory, PackedBoard.Storage.HEAP);
+    }
+
+    /**
+     * Loads the newest checkpoint in a directory that is complete and not
+     * corrupt into a board kept in the given storage, so a run too big for
+     * the heap can be resumed.
+     *
+     * @param directory
+     *            the directory
+     * @param storage
+     *            where to keep the words of the board
+     * @return the board of the checkpoint, or null if there is none
+     * @throws IOException
+     *             if the directory cannot be read
+     */
+    public static PackedBoard latest(Path directory,
+            PackedBoard.Storage storage) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return null;
+        }
+        List<Path> checkpoints = list(directory);
+        for (int i = checkpoints.size() - 1; i >= 0; i--) {
+            try {
+                return BoardSnapshot.load(checkpoints.get(i), storage);
+            } catch (IOException e) {
+                // damaged; fall back to the one before
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Takes a checkpoint if one is due. Call it after every tick. If the
+     * last checkpoint is still being written, this one is skipped rather
+     * than holding the run up.
+     *
+     * @param engine
+     *            the board of the run
+     * @return true iff a checkpoint was taken
+     */
+    public boolean afterTick(LifeEngine engine) {
+        boolean due = this.everyGenerations > 0
+                && engine.generation() % this.everyGenerations == 0;
+        long now = 0;
+        if (this.everyNanos > 0) {
+            now = System.nanoTime();
+            due |= now - this.lastTaken >= this.everyNanos;
+        }
+        if (!due) {
+            return false;
+        }
+        if (this.pending != null && !this.pending.isDone()) {
+            this.skipped++;
+            return false;
+        }
+        // a growing board changes size as it goes
+        if (this.copy == null || this.copy.width() != engine.width()
+                || this.copy.height() != engine.height()) {
+            if (isOffHeap(engine)) {
+                this.copy = PackedBoard.offHeap(engine.width(),
+                        engine.height());
+            } else {
+                this.copy = new PackedBoard(engine.width(), engine.height());
+            }
+        }
+        this.copy.copyFrom(engine);
+        this.lastTaken = now;
+        this.pending = this.writer.submit(this::write);
+        return true;
+    }
+
+    /**
+     * Reports whether an engine keeps its board off the heap, in which case
+     * the copy of it is kept off the heap too.
+     *
+     * @param engine
+     *            the engine
+     * @return true iff the engine's board is an off-heap PackedBoard
+     */
+    private static boolean isOffHeap(LifeEngine engine) {
+        LifeEngine board = engine;
+        if (engine instanceof StripedTicker) {
+            board = ((StripedTicker) engine).board();
+        } else if (engine instanceof TiledTicker) {
+            board = ((TiledTicker) engine).board();
+        }
+        return board instanceof PackedBoard
+                && ((PackedBoard) board).isOffHeap();
+    }
+
+    /**
+     * Writes the copy and drops the oldest checkpoints. Runs on the writer
+     * thread.
+     */
+    private void write() {
+        try {
+            Path temporary = this.directory.resolve(TEMPORARY);
+            BoardSnapshot.save(this.copy, temporary, true);
+            Files.move(temporary,
+                    this.directory.resolve(name(this.copy.generation())),
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            List<Path> checkpoints = list(this.directory);
+            for (int i = 0; i < checkpoints.size() - this.keep; i++) {
+                Files.deleteIfExists(checkpoints.get(i));
+            }
+        } catch (IOException e) {
+            if (this.failure == null) {
+                this.failure = e;
+            }
+        }
+    }
+
+    /**
+     * Waits until the checkpoint being written, if any, is on disk.
+     */
+    public void await() {
+        if (this.pending != null) {
+            boolean interrupted = false;
+            boolean done = false;
+            while (!done) {
+                try {
+                    this.pending.get();
+                    done = true;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    // write() catches its own failures
+                    done = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of checkpoints skipped because the one before was
+     * still being written.
+     *
+     * @return the number of skipped checkpoints
+     */
+    public long skipped() {
+        return this.skipped;
+    }
+
+    /**
+     * Returns the first failure to write a checkpoint.
+     *
+     * @return the failure, or null if every checkpoint was written
+     */
+    public IOException failure() {
+        return this.failure;
+    }
+
+    /**
+     * Waits for the checkpoint being written, then stops the writer thread.
+     */
+    @Override
+    public void close() {
+        this.writer.shutdown();
+        boolean interrupted = false;
+        while (!this.writer.isTerminated()) {
+            try {
+                this.writer.awaitTermination(WAIT_MILLIS,
+                        TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
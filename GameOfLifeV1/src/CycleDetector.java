@@ -0,0 +1,201 @@
+/**
+ * Notices when a run has settled: the board died out, stopped changing, or
+ * keeps repeating the same few generations. It remembers the hashes of the
+ * last few generations in a ring and compares each new generation's hash
+ * with them, so a cycle is caught the first time it comes round, as long as
+ * its period is no longer than the history.
+ *
+ * <p>
+ * Boards are compared by their 64-bit {@link LifeEngine#hash()}, so two
+ * different boards could in principle be taken for the same one; the chance
+ * is about one in 2^64 per comparison.
+ * </p>
+ */
+public final class CycleDetector {
+
+    /**
+     * What the run has settled into, if anything.
+     */
+    public enum Outcome {
+        /**
+         * Nothing repeated yet.
+         */
+        RUNNING,
+        /**
+         * Every cell is dead.
+         */
+        EXTINCT,
+        /**
+         * The board stopped changing.
+         */
+        STILL,
+        /**
+         * The board repeats with a period of more than one generation.
+         */
+        OSCILLATING
+    }
+
+    /**
+     * Hashes of recent generations, oldest overwritten first.
+     */
+    private final long[] hashes;
+
+    /**
+     * Generation of each hash.
+     */
+    private final long[] generations;
+
+    /**
+     * Number of slots of the ring filled so far.
+     */
+    private int filled;
+
+    /**
+     * Slot the next hash goes to.
+     */
+    private int nextSlot;
+
+    /**
+     * What the run has settled into.
+     */
+    private Outcome outcome = Outcome.RUNNING;
+
+    /**
+     * Period of the cycle, or 0 while running.
+     */
+    private long period;
+
+    /**
+     * First generation of the cycle, or -1 while running.
+     */
+    private long cycleStart = -1;
+
+    /**
+     * Creates a detector.
+     *
+     * @param history
+     *            how many generations to remember: the longest period found
+     * @requires history > 0
+     */
+    public CycleDetector(int history) {
+        assert history > 0 : "Violation of: history > 0";
+        this.hashes = new long[history];
+        this.generations = new long[history];
+    }
+
+    /**
+     * Looks at the current generation of a board; call it once for the
+     * starting board and then after every tick. Once the run has settled,
+     * further calls change nothing.
+     *
+     * @param board
+     *            the board
+     * @return what the run has settled into so far
+     */
+    public Outcome observe(LifeEngine board) {
+        if (this.outcome != Outcome.RUNNING) {
+            return this.outcome;
+        }
+        long hash = board.hash();
+        long generation = board.generation();
+        // an empty board hashes to 0; the count rules out any other board
+        // that happens to
+        if (hash == 0 && board.population() == 0) {
+            this.settle(Outcome.EXTINCT, 1, generation);
+            return this.outcome;
+        }
+        // newest first, so the shortest period is found
+        int slot = this.nextSlot;
+        for (int i = 0; i < this.filled; i++) {
+            slot = slot == 0 ? this.hashes.length - 1 : slot - 1;
+            if (this.hashes[slot] == hash) {
+                long start = this.generations[slot];
+                long cycle = generation - start;
+                if (cycle == 1) {
+                    this.settle(Outcome.STILL, 1, start);
+                } else {
+                    this.settle(Outcome.OSCILLATING, cycle, start);
+                }
+                return this.outcome;
+            }
+        }
+        this.hashes[this.nextSlot] = hash;
+        this.generations[this.nextSlot] = generation;
+        this.nextSlot = (this.nextSlot + 1) % this.hashes.length;
+        this.filled = Math.min(this.filled + 1, this.hashes.length);
+        return this.outcome;
+    }
+
+    /**
+     * Records what the run settled into.
+     *
+     * @param settled
+     *            the outcome
+     * @param cycle
+     *            the period
+     * @param start
+     *            the first generation of the cycle
+     */
+    private void settle(Outcome settled, long cycle, long start) {
+        this.outcome = settled;
+        this.period = cycle;
+        this.cycleStart = start;
+    }
+
+    /**
+     * Returns what the run has settled into.
+     *
+     * @return the outcome
+     */
+    public Outcome outcome() {
+        return this.outcome;
+    }
+
+    /**
+     * Returns the period of the cycle: 1 for an extinct or still board.
+     *
+     * @return the period, or 0 while running
+     */
+    public long period() {
+        return this.period;
+    }
+
+    /**
+     * Returns the first generation of the cycle.
+     *
+     * @return the generation the board died out, stopped changing or first
+     *         reached the repeating state, or -1 while running
+     */
+    public long cycleStart() {
+        return this.cycleStart;
+    }
+
+    /**
+     * Describes what the run has settled into.
+     *
+     * @return a sentence for the user
+     */
+    public String report() {
+        String report;
+        switch (this.outcome) {
+            case EXTINCT:
+                report = "Every cell was dead at generation "
+                        + this.cycleStart + ".";
+                break;
+            case STILL:
+                report = "The board stopped changing at generation "
+                        + this.cycleStart + ".";
+                break;
+            case OSCILLATING:
+                report = "The board repeats every " + this.period
+                        + " generations from generation " + this.cycleStart
+                        + ".";
+                break;
+            default:
+                report = "The board has not settled yet.";
+                break;
+        }
+        return report;
+    }
+
+}
@@ -0,0 +1,615 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Draws boards on a terminal a whole frame at a time. Each frame is built in
+ * one reusable character buffer and written with a single call, instead of
+ * one call per cell like {@link GameOfLifeV2#printBoard}. Once the buffers
+ * are big enough for the board, drawing a frame allocates nothing.
+ *
+ * <p>
+ * Cells can be drawn one per character, or several per character to fit big
+ * boards on the screen and send fewer bytes; the glyphs are worked out from
+ * whole words of the board, 64 cells at a time.
+ * </p>
+ *
+ * <p>
+ * The frame is encoded to UTF-8 here rather than by a {@code Writer},
+ * because the JDK writers wrap every write in a new buffer object.
+ * </p>
+ */
+public final class FrameRenderer {
+
+    /**
+     * How frames follow each other on the terminal.
+     */
+    public enum Mode {
+        /**
+         * Every frame is printed below the last one, like printBoard.
+         */
+        SCROLL,
+        /**
+         * Every frame is drawn over the last one by moving the cursor to the
+         * top-left corner first (ANSI terminals only).
+         */
+        HOME,
+        /**
+         * The first frame is drawn like HOME; after that only the cells that
+         * changed are rewritten (ANSI terminals only).
+         */
+        DIFF
+    }
+
+    /**
+     * How cells become characters.
+     */
+    public enum Glyphs {
+        /**
+         * One cell per character, full block or shade, like printBoard.
+         */
+        FULL,
+        /**
+         * Two cells per character, one above the other, with the half block
+         * glyphs.
+         */
+        HALF_BLOCK,
+        /**
+         * Eight cells per character, two wide and four high, with the Braille
+         * patterns.
+         */
+        BRAILLE
+    }
+
+    /**
+     * The escape character that starts ANSI control sequences.
+     */
+    private static final char ESC = '\u001B';
+
+    /**
+     * Glyph of a live cell.
+     */
+    private static final char ALIVE = '\u2588';
+
+    /**
+     * Glyph of a dead cell.
+     */
+    private static final char DEAD = '\u2591';
+
+    /**
+     * Half block glyphs, indexed by top cell + 2 * bottom cell.
+     */
+    private static final char[] HALF_BLOCKS = { ' ', '\u2580', '\u2584',
+        '\u2588' };
+
+    /**
+     * The Braille pattern with no dots; the dots are added to it.
+     */
+    private static final char BRAILLE_BLANK = '\u2800';
+
+    /**
+     * Braille dots of one row of a character, indexed by the row (0 to 3)
+     * and then by left cell + 2 * right cell.
+     */
+    private static final int[][] BRAILLE_DOTS = { { 0, 0x01, 0x08, 0x09 },
+        { 0, 0x02, 0x10, 0x12 }, { 0, 0x04, 0x20, 0x24 },
+        { 0, 0x40, 0x80, 0xC0 } };
+
+    /**
+     * Most rows of cells behind one character.
+     */
+    private static final int MAX_CELL_ROWS = 4;
+
+    /**
+     * Size of the buffers before the first frame.
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Largest character that UTF-8 encodes in one byte.
+     */
+    private static final char MAX_ONE_BYTE = 0x7F;
+
+    /**
+     * Largest character that UTF-8 encodes in two bytes.
+     */
+    private static final char MAX_TWO_BYTES = 0x7FF;
+
+    /**
+     * Where the frames go.
+     */
+    private final OutputStream out;
+
+    /**
+     * How frames follow each other.
+     */
+    private final Mode mode;
+
+    /**
+     * How cells become characters.
+     */
+    private final Glyphs glyphs;
+
+    /**
+     * Rows of cells behind one character.
+     */
+    private final int cellRows;
+
+    /**
+     * Columns of cells behind one character.
+     */
+    private final int cellColumns;
+
+    /**
+     * The words of the rows behind the character row being worked out.
+     */
+    private final long[] stack = new long[MAX_CELL_ROWS];
+
+    /**
+     * The line separator, as characters.
+     */
+    private final char[] newline = System.lineSeparator().toCharArray();
+
+    /**
+     * The frame being built.
+     */
+    private char[] chars = new char[INITIAL_CAPACITY];
+
+    /**
+     * Number of characters of the frame built so far.
+     */
+    private int length;
+
+    /**
+     * The frame encoded as UTF-8.
+     */
+    private byte[] bytes = new byte[INITIAL_CAPACITY];
+
+    /**
+     * One row of characters being worked out.
+     */
+    private char[] line = new char[0];
+
+    /**
+     * The characters of the board currently on the screen, row after row;
+     * only kept in DIFF mode.
+     */
+    private char[] shown = new char[0];
+
+    /**
+     * Width of the board on the screen, or -1 if nothing is on the screen.
+     */
+    private int shownWidth = -1;
+
+    /**
+     * Height of the board on the screen.
+     */
+    private int shownHeight;
+
+    /**
+     * Whether the screen has been cleared for the first frame.
+     */
+    private boolean cleared;
+
+    /**
+     * Number of bytes in the last frame written.
+     */
+    private int lastFrameBytes;
+
+    /**
+     * Creates a renderer drawing one cell per character.
+     *
+     * @param out
+     *            where the frames go
+     * @param mode
+     *            how frames follow each other
+     */
+    public FrameRenderer(OutputStream out, Mode mode) {
+        this(out, mode, Glyphs.FULL);
+    }
+
+    /**
+     * Creates a renderer.
+     *
+     * @param out
+     *            where the frames go
+     * @param mode
+     *            how frames follow each other
+     * @param glyphs
+     *            how cells become characters
+     */
+    public FrameRenderer(OutputStream out, Mode mode, Glyphs glyphs) {
+        this.out = out;
+        this.mode = mode;
+        this.glyphs = glyphs;
+        switch (glyphs) {
+            case HALF_BLOCK:
+                this.cellRows = 2;
+                this.cellColumns = 1;
+                break;
+            case BRAILLE:
+                this.cellRows = MAX_CELL_ROWS;
+                this.cellColumns = 2;
+                break;
+            default:
+                this.cellRows = 1;
+                this.cellColumns = 1;
+                break;
+        }
+    }
+
+    /**
+     * Returns the number of bytes in the last frame written.
+     *
+     * @return the size of the last frame
+     */
+    public int lastFrameBytes() {
+        return this.lastFrameBytes;
+    }
+
+    /**
+     * Forgets what is on the screen, so the next frame is drawn in full.
+     */
+    public void reset() {
+        this.shownWidth = -1;
+    }
+
+    /**
+     * Draws the current generation of a board.
+     *
+     * @param board
+     *            the board
+     * @throws IOException
+     *             if writing fails
+     */
+    public void render(LifeEngine board) throws IOException {
+        this.length = 0;
+        if (this.mode == Mode.DIFF && board.width() == this.shownWidth
+                && board.height() == this.shownHeight) {
+            this.buildDiff(board);
+        } else {
+            this.buildFull(board);
+        }
+        this.write();
+    }
+
+    /**
+     * Builds a frame holding the whole board with its border.
+     *
+     * @param board
+     *            the board
+     */
+    private void buildFull(LifeEngine board) {
+        int rows = this.characterRows(board);
+        int columns = this.characterColumns(board);
+        if (this.mode != Mode.SCROLL) {
+            if (!this.cleared) {
+                this.appendEscape("[2J");
+                this.cleared = true;
+            }
+            this.appendEscape("[H");
+        }
+        this.ensureCapacity((columns + 2 + this.newline.length) * (rows + 2));
+        boolean remember = this.mode == Mode.DIFF;
+        if (remember && this.shown.length < rows * columns) {
+            this.shown = new char[rows * columns];
+        }
+
+        this.append('\u2554');
+        this.appendRepeated('\u2550', columns);
+        this.append('\u2557');
+        this.appendNewline();
+        for (int row = 0; row < rows; row++) {
+            this.fillLine(board, row);
+            this.append('\u2551');
+            System.arraycopy(this.line, 0, this.chars, this.length, columns);
+            this.length += columns;
+            this.append('\u2551');
+            this.appendNewline();
+            if (remember) {
+                System.arraycopy(this.line, 0, this.shown, row * columns,
+                        columns);
+            }
+        }
+        this.append('\u255A');
+        this.appendRepeated('\u2550', columns);
+        this.append('\u255D');
+        this.appendNewline();
+
+        if (remember) {
+            this.shownWidth = board.width();
+            this.shownHeight = board.height();
+        }
+    }
+
+    /**
+     * Builds a frame that rewrites only the characters that differ from what
+     * is on the screen, then leaves the cursor below the board.
+     *
+     * @param board
+     *            the board
+     */
+    private void buildDiff(LifeEngine board) {
+        int rows = this.characterRows(board);
+        int columns = this.characterColumns(board);
+        for (int row = 0; row < rows; row++) {
+            this.fillLine(board, row);
+            int base = row * columns;
+            // the cursor is wherever the last glyph left it; -1 if it is
+            // not on this row
+            int cursor = -1;
+            for (int column = 0; column < columns; column++) {
+                char c = this.line[column];
+                if (c != this.shown[base + column]) {
+                    if (cursor != column) {
+                        // rows and columns on the terminal start at 1 and
+                        // the border takes one of each
+                        this.moveCursor(row + 2, column + 2);
+                    }
+                    this.append(c);
+                    this.shown[base + column] = c;
+                    cursor = column + 1;
+                }
+            }
+        }
+        this.moveCursor(rows + 3, 1);
+    }
+
+    /**
+     * Returns the number of rows of characters the board takes.
+     *
+     * @param board
+     *            the board
+     * @return the height of the board in characters
+     */
+    private int characterRows(LifeEngine board) {
+        return (board.height() + this.cellRows - 1) / this.cellRows;
+    }
+
+    /**
+     * Returns the number of columns of characters the board takes.
+     *
+     * @param board
+     *            the board
+     * @return the width of the board in characters
+     */
+    private int characterColumns(LifeEngine board) {
+        return (board.width() + this.cellColumns - 1) / this.cellColumns;
+    }
+
+    /**
+     * Works out one row of characters into line, a word of cells at a time.
+     *
+     * @param board
+     *            the board
+     * @param row
+     *            the row of characters
+     */
+    private void fillLine(LifeEngine board, int row) {
+        int width = board.width();
+        int height = board.height();
+        int columns = this.characterColumns(board);
+        if (this.line.length < columns) {
+            this.line = new char[columns];
+        }
+        int words = (width + Long.SIZE - 1) / Long.SIZE;
+        int firstRow = row * this.cellRows;
+        for (int w = 0; w < words; w++) {
+            // rows past the bottom of the board are drawn as dead
+            for (int k = 0; k < this.cellRows; k++) {
+                int cellRow = firstRow + k;
+                if (cellRow < height) {
+                    this.stack[k] = board.word(cellRow, w);
+                } else {
+                    this.stack[k] = 0;
+                }
+            }
+            int first = w * Long.SIZE;
+            int count = Math.min(Long.SIZE, width - first);
+            switch (this.glyphs) {
+                case HALF_BLOCK:
+                    this.fillHalfBlocks(first, count);
+                    break;
+                case BRAILLE:
+                    this.fillBraille(first, count);
+                    break;
+                default:
+                    this.fillFull(first, count);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Works out the characters of one word with one cell per character.
+     *
+     * @param first
+     *            the first column of the word
+     * @param count
+     *            the number of columns of the word on the board
+     */
+    private void fillFull(int first, int count) {
+        long top = this.stack[0];
+        for (int b = 0; b < count; b++) {
+            this.line[first + b] = ((top >>> b) & 1L) != 0 ? ALIVE : DEAD;
+        }
+    }
+
+    /**
+     * Works out the characters of one word with two cells per character.
+     *
+     * @param first
+     *            the first column of the word
+     * @param count
+     *            the number of columns of the word on the board
+     */
+    private void fillHalfBlocks(int first, int count) {
+        long top = this.stack[0];
+        long bottom = this.stack[1];
+        for (int b = 0; b < count; b++) {
+            int index = (int) ((top >>> b) & 1L)
+                    | (int) ((bottom >>> b) & 1L) << 1;
+            this.line[first + b] = HALF_BLOCKS[index];
+        }
+    }
+
+    /**
+     * Works out the characters of one word with eight cells per character.
+     *
+     * @param first
+     *            the first column of the word
+     * @param count
+     *            the number of columns of the word on the board
+     */
+    private void fillBraille(int first, int count) {
+        final long pair = 3L;
+        for (int b = 0; b < count; b += 2) {
+            int dots = 0;
+            for (int k = 0; k < MAX_CELL_ROWS; k++) {
+                dots |= BRAILLE_DOTS[k][(int) ((this.stack[k] >>> b) & pair)];
+            }
+            this.line[(first + b) / 2] = (char) (BRAILLE_BLANK + dots);
+        }
+    }
+
+    /**
+     * Appends an ANSI sequence that moves the cursor.
+     *
+     * @param row
+     *            the terminal row, from 1
+     * @param column
+     *            the terminal column, from 1
+     */
+    private void moveCursor(int row, int column) {
+        this.append(ESC);
+        this.append('[');
+        this.appendInt(row);
+        this.append(';');
+        this.appendInt(column);
+        this.append('H');
+    }
+
+    /**
+     * Appends an ANSI sequence.
+     *
+     * @param sequence
+     *            the sequence after the escape character
+     */
+    private void appendEscape(String sequence) {
+        this.append(ESC);
+        for (int i = 0; i < sequence.length(); i++) {
+            this.append(sequence.charAt(i));
+        }
+    }
+
+    /**
+     * Appends the digits of a non-negative number.
+     *
+     * @param value
+     *            the number
+     */
+    private void appendInt(int value) {
+        final int radix = 10;
+        int digits = 1;
+        for (int rest = value / radix; rest > 0; rest /= radix) {
+            digits++;
+        }
+        this.ensureCapacity(digits);
+        int rest = value;
+        for (int i = this.length + digits - 1; i >= this.length; i--) {
+            this.chars[i] = (char) ('0' + rest % radix);
+            rest /= radix;
+        }
+        this.length += digits;
+    }
+
+    /**
+     * Appends one character count times.
+     *
+     * @param c
+     *            the character
+     * @param count
+     *            how many times
+     */
+    private void appendRepeated(char c, int count) {
+        this.ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            this.chars[this.length++] = c;
+        }
+    }
+
+    /**
+     * Appends the line separator.
+     */
+    private void appendNewline() {
+        for (char c : this.newline) {
+            this.append(c);
+        }
+    }
+
+    /**
+     * Appends one character.
+     *
+     * @param c
+     *            the character
+     */
+    private void append(char c) {
+        this.ensureCapacity(1);
+        this.chars[this.length++] = c;
+    }
+
+    /**
+     * Makes room for more characters, doubling the buffer if it is full.
+     *
+     * @param extra
+     *            the number of characters about to be appended
+     */
+    private void ensureCapacity(int extra) {
+        if (this.length + extra > this.chars.length) {
+            int capacity = this.chars.length;
+            while (this.length + extra > capacity) {
+                capacity <<= 1;
+            }
+            this.chars = Arrays.copyOf(this.chars, capacity);
+        }
+    }
+
+    /**
+     * Encodes the frame as UTF-8 and writes it in one call.
+     *
+     * @throws IOException
+     *             if writing fails
+     */
+    private void write() throws IOException {
+        // every character of a frame is in the Basic Multilingual Plane, so
+        // none takes more than 3 bytes
+        final int maxBytes = 3;
+        if (this.bytes.length < this.length * maxBytes) {
+            this.bytes = new byte[this.chars.length * maxBytes];
+        }
+        final int sixBits = 0x3F;
+        final int continuation = 0x80;
+        final int twoByteLead = 0xC0;
+        final int threeByteLead = 0xE0;
+        final int shift = 6;
+        int n = 0;
+        for (int i = 0; i < this.length; i++) {
+            char c = this.chars[i];
+            if (c <= MAX_ONE_BYTE) {
+                this.bytes[n++] = (byte) c;
+            } else if (c <= MAX_TWO_BYTES) {
+                this.bytes[n++] = (byte) (twoByteLead | (c >>> shift));
+                this.bytes[n++] = (byte) (continuation | (c & sixBits));
+            } else {
+                this.bytes[n++] = (byte) (threeByteLead | (c >>> (2 * shift)));
+                this.bytes[n++] = (byte) (continuation
+                        | ((c >>> shift) & sixBits));
+                this.bytes[n++] = (byte) (continuation | (c & sixBits));
+            }
+        }
+        this.out.write(this.bytes, 0, n);
+        this.out.flush();
+        this.lastFrameBytes = n;
+    }
+
+}
@@ -21,14 +21,6 @@ public final class GameOfLifeV1 {
      * Size of the board.
      */
     private static final int BOARD_SIZE = 6;
-    /**
-     * The threshold for neighbors below which a cell dies.
-     */
-    private static final int CELL_DEATH_LOW = 2;
-    /**
-     * The threshold for neighbors above which a cell dies.
-     */
-    private static final int CELL_DEATH_HIGH = 3;
     /**
      * The length between board updates.
      */
@@ -75,21 +67,24 @@ public final class GameOfLifeV1 {
      *            The game board
      */
     public static void tickGame(boolean[][] grid) {
+        tickGame(grid, Rule.CONWAY);
+    }
+
+    /**
+     * Applies a rule to every cell of the board.
+     *
+     * @param grid
+     *            The game board
+     * @param rule
+     *            The rule
+     */
+    public static void tickGame(boolean[][] grid, Rule rule) {
         boolean[][] newGrid = new boolean[grid.length][grid[0].length];
         for (int row = 0; row < BOARD_SIZE; row++) {
             for (int column = 0; column < BOARD_SIZE; column++) {
-
-                newGrid[row][column] = grid[row][column];
                 int neighbors = countNeighbors(grid, row, column);
-
-                if (grid[row][column]) { // live cell
-                    if (neighbors < CELL_DEATH_LOW
-                            || neighbors > CELL_DEATH_HIGH) {
-                        newGrid[row][column] = false;
-                    }
-                } else if (neighbors == CELL_DEATH_HIGH) { // dead cell
-                    newGrid[row][column] = true;
-                }
+                newGrid[row][column] = rule.next(grid[row][column],
+                        neighbors);
             }
         }
         updateBoard(grid, newGrid);
@@ -128,16 +123,9 @@ public final class GameOfLifeV1 {
      * @return The number of neighbors
      */
     public static int countNeighbors(boolean[][] grid, int row, int column) {
-        int[][] coordinates2Check = { { row - 1, column - 1 },
-                { row - 1, column }, { row - 1, column + 1 },
-                { row, column - 1 }, { row, column + 1 },
-                { row + 1, column - 1 }, { row + 1, column },
-                { row + 1, column + 1 } };
         int neighbors = 0;
-        int checkRow, checkColumn;
-        for (int i = 0; i < coordinates2Check.length; i++) {
-            checkRow = coordinates2Check[i][0];
-            checkColumn = coordinates2Check[i][1];
+        for (int rowOffset = -1; rowOffset <= 1; rowOffset++) {
+            int checkRow = row + rowOffset;
 
             // Wrap the row
             if (checkRow >= BOARD_SIZE) {
@@ -146,17 +134,22 @@ public final class GameOfLifeV1 {
                 checkRow = BOARD_SIZE - 1;
             }
 
-            // Wrap the column
-            if (checkColumn >= BOARD_SIZE) {
-                checkColumn = 0;
-            } else if (checkColumn < 0) {
-                checkColumn = BOARD_SIZE - 1;
-            }
+            for (int columnOffset = -1; columnOffset <= 1; columnOffset++) {
+                int checkColumn = column + columnOffset;
 
-            if (grid[checkRow][checkColumn]) {
-                neighbors++;
-            }
+                // Wrap the column
+                if (checkColumn >= BOARD_SIZE) {
+                    checkColumn = 0;
+                } else if (checkColumn < 0) {
+                    checkColumn = BOARD_SIZE - 1;
+                }
 
+                // The cell itself is not its own neighbor
+                if ((rowOffset != 0 || columnOffset != 0)
+                        && grid[checkRow][checkColumn]) {
+                    neighbors++;
+                }
+            }
         }
         return neighbors;
     }
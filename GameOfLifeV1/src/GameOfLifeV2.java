@@ -1,3 +1,5 @@
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Random;
 
 import components.simplereader.SimpleReader;
@@ -20,17 +22,21 @@ public final class GameOfLifeV2 {
     }
 
     /**
-     * Size of the board.
+     * Number of columns of the board.
      */
-    private static int boardSize;
+    private static int boardWidth;
+
     /**
-     * The threshold for neighbors below which a cell dies.
+     * Number of rows of the board.
      */
-    private static final int CELL_DEATH_LOW = 2;
+    private static int boardHeight;
+
     /**
-     * The threshold for neighbors above which a cell dies.
+     * The snapshot the game was loaded from, whose rule, boundary and
+     * generation it carries on with, or null if it starts afresh.
      */
-    private static final int CELL_DEATH_HIGH = 3;
+    private static PackedBoard snapshot;
+
     /**
      * The length between board updates.
      */
@@ -42,7 +48,14 @@ public final class GameOfLifeV2 {
     private static final long INIT_PAUSE = 1500;
 
     /**
-     * print the board using out and the grid.
+     * How many generations back to look for a repeat.
+     */
+    private static final int CYCLE_HISTORY = 256;
+
+    /**
+     * print the board using out and the grid. The frame is built first and
+     * printed with a single call; see {@link FrameRenderer} for drawing many
+     * frames without building a new one each time.
      *
      * @param out
      *            the stream
@@ -50,29 +63,33 @@ public final class GameOfLifeV2 {
      *            the array of booleans that hold the game.
      */
     public static void printBoard(SimpleWriter out, boolean[][] grid) {
-        out.print('\u2554');
-        for (int i = 0; i < grid.length; i++) {
-            out.print('\u2550');
+        String newline = System.lineSeparator();
+        int width = grid[0].length;
+        StringBuilder frame = new StringBuilder(
+                (width + 2 + newline.length()) * (grid.length + 2));
+        frame.append('\u2554');
+        for (int i = 0; i < width; i++) {
+            frame.append('\u2550');
         }
-        out.println('\u2557');
+        frame.append('\u2557').append(newline);
         for (int i = 0; i < grid.length; i++) {
             boolean[] line = grid[i];
-            out.print('\u2551');
+            frame.append('\u2551');
             for (int j = 0; j < line.length; j++) {
                 if (line[j]) {
-                    out.print('\u2588');
+                    frame.append('\u2588');
                 } else {
-                    out.print("\u2591");
+                    frame.append('\u2591');
                 }
             }
-            out.print('\u2551');
-            out.println();
+            frame.append('\u2551').append(newline);
         }
-        out.print('\u255A');
-        for (int i = 0; i < grid.length; i++) {
-            out.print('\u2550');
+        frame.append('\u255A');
+        for (int i = 0; i < width; i++) {
+            frame.append('\u2550');
         }
-        out.println('\u255D');
+        frame.append('\u255D').append(newline);
+        out.print(frame.toString());
     }
 
     /**
@@ -82,21 +99,56 @@ public final class GameOfLifeV2 {
      *            The game board
      */
     public static void tickGame(boolean[][] grid) {
-        boolean[][] newGrid = new boolean[grid.length][grid[0].length];
-        for (int row = 0; row < boardSize; row++) {
-            for (int column = 0; column < boardSize; column++) {
+        tickGame(grid, Rule.CONWAY);
+    }
 
-                newGrid[row][column] = grid[row][column];
-                int neighbors = countNeighbors(grid, row, column);
+    /**
+     * Applies a rule to every cell of the board, wrapping around the edges.
+     *
+     * @param grid
+     *            The game board
+     * @param rule
+     *            The rule
+     */
+    public static void tickGame(boolean[][] grid, Rule rule) {
+        tickGame(grid, rule, Boundary.TORUS);
+    }
 
-                if (grid[row][column]) { // live cell
-                    if (neighbors < CELL_DEATH_LOW
-                            || neighbors > CELL_DEATH_HIGH) {
-                        newGrid[row][column] = false;
+    /**
+     * Applies a rule to every cell of the board. The board is first copied
+     * into a grid with a halo around it, so that no neighbor needs an edge
+     * check.
+     *
+     * @param grid
+     *            The game board
+     * @param rule
+     *            The rule
+     * @param boundary
+     *            What lies past the edges
+     * @requires grid is rectangular and not empty
+     */
+    public static void tickGame(boolean[][] grid, Rule rule,
+            Boundary boundary) {
+        int height = grid.length;
+        int width = grid[0].length;
+        boolean[][] padded = new boolean[height + 2][width + 2];
+        for (int row = 0; row < height; row++) {
+            System.arraycopy(grid[row], 0, padded[row + 1], 1, width);
+        }
+        boundary.fillHalo(padded);
+
+        boolean[][] newGrid = new boolean[height][width];
+        for (int row = 0; row < height; row++) {
+            for (int column = 0; column < width; column++) {
+                int neighbors = 0;
+                for (int i = row; i <= row + 2; i++) {
+                    for (int j = column; j <= column + 2; j++) {
+                        neighbors += padded[i][j] ? 1 : 0;
                     }
-                } else if (neighbors == CELL_DEATH_HIGH) { // dead cell
-                    newGrid[row][column] = true;
                 }
+                boolean alive = grid[row][column];
+                neighbors -= alive ? 1 : 0;
+                newGrid[row][column] = rule.next(alive, neighbors);
             }
         }
         updateBoard(grid, newGrid);
@@ -135,39 +187,80 @@ public final class GameOfLifeV2 {
      * @return The number of neighbors
      */
     public static int countNeighbors(boolean[][] grid, int row, int column) {
-        int[][] coordinates2Check = { { row - 1, column - 1 },
-                { row - 1, column }, { row - 1, column + 1 },
-                { row, column - 1 }, { row, column + 1 },
-                { row + 1, column - 1 }, { row + 1, column },
-                { row + 1, column + 1 } };
         int neighbors = 0;
-        int checkRow, checkColumn;
-        for (int i = 0; i < coordinates2Check.length; i++) {
-            checkRow = coordinates2Check[i][0];
-            checkColumn = coordinates2Check[i][1];
+        for (int rowOffset = -1; rowOffset <= 1; rowOffset++) {
+            int checkRow = row + rowOffset;
 
             // Wrap the row
-            if (checkRow >= boardSize) {
+            if (checkRow >= grid.length) {
                 checkRow = 0;
             } else if (checkRow < 0) {
-                checkRow = boardSize - 1;
+                checkRow = grid.length - 1;
             }
 
-            // Wrap the column
-            if (checkColumn >= boardSize) {
-                checkColumn = 0;
-            } else if (checkColumn < 0) {
-                checkColumn = boardSize - 1;
-            }
+            for (int columnOffset = -1; columnOffset <= 1; columnOffset++) {
+                int checkColumn = column + columnOffset;
 
-            if (grid[checkRow][checkColumn]) {
-                neighbors++;
-            }
+                // Wrap the column
+                if (checkColumn >= grid[0].length) {
+                    checkColumn = 0;
+                } else if (checkColumn < 0) {
+                    checkColumn = grid[0].length - 1;
+                }
 
+                // The cell itself is not its own neighbor
+                if ((rowOffset != 0 || columnOffset != 0)
+                        && grid[checkRow][checkColumn]) {
+                    neighbors++;
+                }
+            }
         }
         return neighbors;
     }
 
+    /**
+     * Returns one of the 6 x 6 starting patterns.
+     *
+     * @param name
+     *            "beacon", "blinker", "toad" or "glider"
+     * @return a new grid holding the pattern, or null if there is no pattern
+     *         with that name
+     */
+    public static boolean[][] basicPattern(String name) {
+        final boolean f = false;
+        final boolean t = true;
+        boolean[][] pattern = null;
+        switch (name) {
+            case "beacon":
+                pattern = new boolean[][] { { f, f, f, f, f, f },
+                        { f, t, t, f, f, f }, { f, t, t, f, f, f },
+                        { f, f, f, t, t, f }, { f, f, f, t, t, f },
+                        { f, f, f, f, f, f } };
+                break;
+            case "blinker":
+                pattern = new boolean[][] { { f, f, f, f, f, f },
+                        { f, f, t, f, f, f }, { f, f, t, f, f, f },
+                        { f, f, t, f, f, f }, { f, f, f, f, f, f },
+                        { f, f, f, f, f, f } };
+                break;
+            case "toad":
+                pattern = new boolean[][] { { f, f, f, f, f, f },
+                        { f, f, t, t, t, f }, { f, t, t, t, f, f },
+                        { f, f, f, f, f, f }, { f, f, f, f, f, f },
+                        { f, f, f, f, f, f } };
+                break;
+            case "glider":
+                pattern = new boolean[][] { { f, f, t, f, f, f },
+                        { t, f, t, f, f, f }, { f, t, t, f, f, f },
+                        { f, f, f, f, f, f }, { f, f, f, f, f, f },
+                        { f, f, f, f, f, f } };
+                break;
+            default:
+                break;
+        }
+        return pattern;
+    }
+
     /**
      * Asks the user for starting condition among several provided options.
      *
@@ -180,43 +273,32 @@ public final class GameOfLifeV2 {
     public static boolean[][] askInput(SimpleWriter out, SimpleReader in) {
         final String[] optionNames = { "beacon", "blinker", "toad", "glider",
                 "random" };
-        final boolean f = false;
-        final boolean t = true;
 
         // 6 x 6 grids
         final int basicObjects = 6;
-        final boolean[][] beacon = { { f, f, f, f, f, f }, { f, t, t, f, f, f },
-                { f, t, t, f, f, f }, { f, f, f, t, t, f },
-                { f, f, f, t, t, f }, { f, f, f, f, f, f } };
-        final boolean[][] blinker = { { f, f, f, f, f, f },
-                { f, f, t, f, f, f }, { f, f, t, f, f, f },
-                { f, f, t, f, f, f }, { f, f, f, f, f, f },
-                { f, f, f, f, f, f } };
-        final boolean[][] toad = { { f, f, f, f, f, f }, { f, f, t, t, t, f },
-                { f, t, t, t, f, f }, { f, f, f, f, f, f },
-                { f, f, f, f, f, f }, { f, f, f, f, f, f } };
-        final boolean[][] glider = { { f, f, t, f, f, f }, { t, f, t, f, f, f },
-                { f, t, t, f, f, f }, { f, f, f, f, f, f },
-                { f, f, f, f, f, f }, { f, f, f, f, f, f } };
-        boolean[][] grid = { { f, f, f, f, f, f }, { f, f, f, f, f, f },
-                { f, f, f, f, f, f }, { f, f, f, f, f, f },
-                { f, f, f, f, f, f }, { f, f, f, f, f, f } }; // empty grid (for copying)
+        // empty grid (for copying)
+        boolean[][] grid = new boolean[basicObjects][basicObjects];
 
         boolean validOption = false;
 
         out.println("WELCOME TO THE GAME OF LIFE (V1)");
-        out.print("What size board would you like?: ");
-        boardSize = in.nextInteger();
+        out.print("How many columns would you like?: ");
+        boardWidth = in.nextInteger();
+        out.print("How many rows would you like?: ");
+        boardHeight = in.nextInteger();
 
         boolean[][] random = randomGrid();
-        final boolean[][][] options = { beacon, blinker, toad, glider, random };
+        final boolean[][][] options = { basicPattern("beacon"),
+                basicPattern("blinker"), basicPattern("toad"),
+                basicPattern("glider"), random };
 
         out.println("What starting condition would you like?");
-        if (boardSize == basicObjects) {
-            out.println("Options: beacon, blinker, toad, glider, random");
+        if (boardWidth == basicObjects && boardHeight == basicObjects) {
+            out.println(
+                    "Options: beacon, blinker, toad, glider, random, load");
 
         } else {
-            out.println("Options: random");
+            out.println("Options: random, load");
         }
 
         out.print("Input: ");
@@ -228,6 +310,13 @@ public final class GameOfLifeV2 {
                 validOption = true;
             }
         }
+        if (userOption.equals("load")) {
+            PackedBoard loaded = askFile(out, in);
+            validOption = loaded != null;
+            if (validOption) {
+                grid = loaded.toGrid();
+            }
+        }
 
         while (!validOption) {
             out.print("Not a valid option! Try again: ");
@@ -239,20 +328,158 @@ public final class GameOfLifeV2 {
                     validOption = true;
                 }
             }
+            if (userOption.equals("load")) {
+                PackedBoard loaded = askFile(out, in);
+                validOption = loaded != null;
+                if (validOption) {
+                    grid = loaded.toGrid();
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Asks the user for a snapshot or pattern file and loads it. A pattern
+     * goes at the top left of a board of the size chosen. A snapshot keeps
+     * the rule, boundary and generation it was saved with, and is
+     * remembered so that the game resumes it rather than asking for them.
+     *
+     * @param out
+     *            the output stream
+     * @param in
+     *            the input stream
+     * @return the board loaded, or null if it cannot be loaded
+     */
+    public static PackedBoard askFile(SimpleWriter out, SimpleReader in) {
+        out.print("Snapshot, .rle or .cells file: ");
+        String name = in.nextLine();
+        PackedBoard board = null;
+        snapshot = null;
+        try {
+            if (PatternFiles.isPatternFile(name)) {
+                board = new PackedBoard(boardWidth, boardHeight);
+                PatternFiles.read(Paths.get(name), board, 0, 0);
+            } else {
+                board = BoardSnapshot.load(Paths.get(name));
+                snapshot = board;
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            out.println("Could not load " + name + ": " + e.getMessage());
+            board = null;
+        }
+        return board;
+    }
+
+    /**
+     * Asks the user for the rule to play, until a valid one is given.
+     *
+     * @param out
+     *            the output stream
+     * @param in
+     *            the input stream
+     * @return the rule
+     */
+    public static Rule askRule(SimpleWriter out, SimpleReader in) {
+        Rule rule = null;
+        out.print("Rule, such as B36/S23 or highlife (blank for B3/S23): ");
+        while (rule == null) {
+            String text = in.nextLine();
+            if (text.isBlank()) {
+                rule = Rule.CONWAY;
+            } else {
+                try {
+                    rule = Rule.parse(text);
+                } catch (IllegalArgumentException e) {
+                    out.print(e.getMessage() + ". Try again: ");
+                }
+            }
+        }
+        return rule;
+    }
+
+    /**
+     * Asks the user what lies past the edges, until a valid answer is given.
+     *
+     * @param out
+     *            the output stream
+     * @param in
+     *            the input stream
+     * @return the boundary, or null if the board should grow instead of
+     *         having edges
+     */
+    public static Boundary askBoundary(SimpleWriter out, SimpleReader in) {
+        Boundary boundary = null;
+        boolean answered = false;
+        out.print("Edges: torus, dead, reflect or grow (blank for torus): ");
+        while (!answered) {
+            String text = in.nextLine().trim();
+            answered = true;
+            if (text.isEmpty()) {
+                boundary = Boundary.TORUS;
+            } else if (!text.equals("grow")) {
+                try {
+                    boundary = Boundary.parse(text);
+                } catch (IllegalArgumentException e) {
+                    out.print(e.getMessage() + ". Try again: ");
+                    answered = false;
+                }
+            }
+        }
+        return boundary;
+    }
+
+    /**
+     * Returns the cells of a game to print: the whole board, or the live
+     * cells of a growing board.
+     *
+     * @param game
+     *            the game
+     * @return a new grid holding the cells
+     */
+    private static boolean[][] view(LifeEngine game) {
+        boolean[][] grid;
+        if (game instanceof GrowingBoard) {
+            grid = ((GrowingBoard) game).liveGrid();
+        } else {
+            grid = HeadlessGame.toGrid(game);
         }
         return grid;
     }
 
     /**
-     * Generates a random grid using BOARD_SIZE class variable.
+     * Asks the user for a file to save the board to, and saves it there.
      *
-     * @return a boolean[BOARD_SIZE][BOARS_SIZE] random grid
+     * @param out
+     *            the output stream
+     * @param in
+     *            the input stream
+     * @param game
+     *            the board
+     */
+    public static void askSave(SimpleWriter out, SimpleReader in,
+            LifeEngine game) {
+        out.print("Save the board to (blank to skip): ");
+        String name = in.nextLine();
+        if (!name.isEmpty()) {
+            try {
+                BoardSnapshot.save(game, Paths.get(name), true);
+            } catch (IOException e) {
+                out.println("Could not save " + name + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Generates a random grid the size chosen by the user.
+     *
+     * @return a boolean[boardHeight][boardWidth] random grid
      */
     public static boolean[][] randomGrid() {
         Random randomNum = new Random();
-        boolean[][] grid = new boolean[boardSize][boardSize];
-        for (int i = 0; i < boardSize; i++) {
-            for (int j = 0; j < boardSize; j++) {
+        boolean[][] grid = new boolean[boardHeight][boardWidth];
+        for (int i = 0; i < boardHeight; i++) {
+            for (int j = 0; j < boardWidth; j++) {
                 grid[i][j] = randomNum.nextBoolean();
             }
         }
@@ -281,28 +508,71 @@ public final class GameOfLifeV2 {
      * Main method.
      *
      * @param args
-     *            the command line arguments; unused here
+     *            the command line arguments; when there are any, the game runs
+     *            headless as described in {@link HeadlessGame}
      * @throws InterruptedException
      *             uses this to "animate" in the output screen
      */
     public static void main(String[] args) throws InterruptedException {
+        if (args.length > 0) {
+            HeadlessGame.main(args);
+            return;
+        }
         SimpleWriter out = new SimpleWriter1L();
         SimpleReader in = new SimpleReader1L();
         final int gameLength = 50;
         //out.println('\u259B' + '\u2598');
-        boolean[][] grid = askInput(out, in);
+        boolean[][] start = askInput(out, in);
+        Rule rule;
+        Boundary boundary;
+        if (snapshot != null) {
+            rule = snapshot.rule();
+            boundary = snapshot.boundary();
+            out.println("Resuming generation " + snapshot.generation()
+                    + " with rule " + rule + " and "
+                    + boundary.name().toLowerCase() + " edges");
+        } else {
+            rule = askRule(out, in);
+            boundary = askBoundary(out, in);
+        }
+        LifeEngine game = null;
+        if (boundary == null) {
+            try {
+                game = GrowingBoard.from(new BufferedGrid(start, rule));
+            } catch (IllegalArgumentException e) {
+                out.println(e.getMessage() + "; the edges wrap instead.");
+                boundary = Boundary.TORUS;
+            }
+        }
+        if (game == null) {
+            BufferedGrid grid = new BufferedGrid(start, rule, boundary);
+            if (snapshot != null) {
+                grid.setGeneration(snapshot.generation());
+            }
+            game = grid;
+        }
+        CycleDetector cycles = new CycleDetector(CYCLE_HISTORY);
+        cycles.observe(game);
         boolean keepRunning = true;
-        printBoard(out, grid);
+        printBoard(out, view(game));
         Thread.sleep(INIT_PAUSE);
 
         while (keepRunning) {
-            for (int i = 0; i < gameLength; i++) {
-                tickGame(grid);
-                printBoard(out, grid);
+            for (int i = 0; i < gameLength
+                    && cycles.outcome() == CycleDetector.Outcome.RUNNING; i++) {
+                game.tick();
+                printBoard(out, view(game));
+                cycles.observe(game);
                 Thread.sleep(SLEEP);
             }
-            keepRunning = askContinue(gameLength, out, in);
+            if (cycles.outcome() == CycleDetector.Outcome.RUNNING) {
+                keepRunning = askContinue(gameLength, out, in);
+            } else {
+                out.println(cycles.report());
+                keepRunning = false;
+            }
         }
+        askSave(out, in, game);
 
         in.close();
         out.close();
@@ -0,0 +1,162 @@
+/**
+ * One game among many: its own engine, its own budget of generations and,
+ * optionally, its own {@link CycleDetector}, with no state shared with any
+ * other game, so any number of sessions can run side by side on a
+ * {@link SessionServer}. A session runs in slices of a few generations at a
+ * time and remembers where it stopped.
+ *
+ * <p>
+ * A session is not thread-safe; the server runs each one on a single thread
+ * at a time.
+ * </p>
+ */
+public final class GameSession {
+
+    /**
+     * Name of the session, such as the seed of its board.
+     */
+    private final long id;
+
+    /**
+     * The game.
+     */
+    private final LifeEngine engine;
+
+    /**
+     * Generations the session may still compute.
+     */
+    private long remaining;
+
+    /**
+     * Watches for the board settling, or null not to stop early.
+     */
+    private final CycleDetector cycles;
+
+    /**
+     * Generations computed by this session.
+     */
+    private long ran;
+
+    /**
+     * Nanoseconds spent ticking.
+     */
+    private long nanos;
+
+    /**
+     * Creates a session.
+     *
+     * @param id
+     *            name of the session, such as the seed of its board
+     * @param engine
+     *            the game, used by this session only
+     * @param budget
+     *            the most generations to compute
+     * @param cycleHistory
+     *            the longest period to look for to stop early once the
+     *            board settles, or 0 not to look
+     * @requires budget >= 0 and cycleHistory >= 0
+     */
+    public GameSession(long id, LifeEngine engine, long budget,
+            int cycleHistory) {
+        assert budget >= 0 : "Violation of: budget >= 0";
+        assert cycleHistory >= 0 : "Violation of: cycleHistory >= 0";
+        this.id = id;
+        this.engine = engine;
+        this.remaining = budget;
+        if (cycleHistory > 0) {
+            this.cycles = new CycleDetector(cycleHistory);
+            this.cycles.observe(engine);
+        } else {
+            this.cycles = null;
+        }
+    }
+
+    /**
+     * Computes up to the given number of generations.
+     *
+     * @param generations
+     *            the most generations to compute now
+     * @return true iff the session is finished
+     * @requires generations > 0
+     */
+    public boolean step(long generations) {
+        long start = System.nanoTime();
+        long slice = Math.min(generations, this.remaining);
+        for (long i = 0; i < slice && !this.isSettled(); i++) {
+            this.engine.tick();
+            this.ran++;
+            this.remaining--;
+            if (this.cycles != null) {
+                this.cycles.observe(this.engine);
+            }
+        }
+        this.nanos += System.nanoTime() - start;
+        return this.isFinished();
+    }
+
+    /**
+     * Reports whether the board has settled.
+     *
+     * @return true iff the cycle detector saw the board settle
+     */
+    private boolean isSettled() {
+        return this.cycles != null
+                && this.cycles.outcome() != CycleDetector.Outcome.RUNNING;
+    }
+
+    /**
+     * Reports whether the session is finished: its budget is spent or its
+     * board has settled.
+     *
+     * @return true iff there is nothing left to compute
+     */
+    public boolean isFinished() {
+        return this.remaining == 0 || this.isSettled();
+    }
+
+    /**
+     * Returns the name of the session.
+     *
+     * @return the id given when it was created
+     */
+    public long id() {
+        return this.id;
+    }
+
+    /**
+     * Returns the game.
+     *
+     * @return the engine
+     */
+    public LifeEngine engine() {
+        return this.engine;
+    }
+
+    /**
+     * Returns the number of generations computed by this session.
+     *
+     * @return the generations computed
+     */
+    public long generationsRun() {
+        return this.ran;
+    }
+
+    /**
+     * Returns the time spent ticking.
+     *
+     * @return the nanoseconds spent in {@link #step(long)}
+     */
+    public long nanos() {
+        return this.nanos;
+    }
+
+    /**
+     * Returns the cycle detector.
+     *
+     * @return the detector, or null if the session does not look for cycles
+     */
+    public CycleDetector cycles() {
+        return this.cycles;
+    }
+
+}
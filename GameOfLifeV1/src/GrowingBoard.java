@@ -0,0 +1,503 @@
+/**
+ * Game of Life on the unbounded plane, for patterns such as gliders and guns
+ * that would run into the edges of a fixed board. The cells are kept in a
+ * {@link PackedBoard} window over the plane, with dead cells past its edges.
+ * Before every tick the window is moved and grown if a live cell is next to
+ * its edge, and after it the window is shrunk if it has become much bigger
+ * than the live cells need, so memory follows the live cells rather than the
+ * most space they ever took.
+ *
+ * <p>
+ * The bounding box of the live cells is worked out as the words of each new
+ * generation are computed, so asking for it costs nothing. Plane positions
+ * are given as (row, column); as a {@link LifeEngine} the board is the
+ * window, whose top left cell is at ({@link #top()}, {@link #left()}) on the
+ * plane.
+ * </p>
+ *
+ * <p>
+ * The window is a single rectangle, not a set of tiles: one PackedBoard
+ * keeps the word-at-a-time tick, with its halo, and the word-by-word view of
+ * {@link LifeEngine}, with no neighbor tiles to stitch together. Moving the
+ * window copies only the rows of the live cells, and the margin means it
+ * moves about once every 64 generations for a pattern that grows at the
+ * speed of light, and about once every 256 for a glider. The cost is that
+ * memory follows the bounding box of the live cells, not the cells
+ * themselves: live cells far apart, such as two gliders flying away from
+ * each other, take the whole box between them. Such patterns are better
+ * played by the sparse engines of the GUI project.
+ * </p>
+ */
+public final class GrowingBoard implements LifeEngine {
+
+    /**
+     * Number of cells packed in one word.
+     */
+    private static final int WORD_BITS = PackedBoard.WORD_BITS;
+
+    /**
+     * Dead cells kept around the live cells when the window is moved.
+     */
+    private static final int MARGIN = 64;
+
+    /**
+     * How many times bigger than it needs to be the window may get before it
+     * is shrunk.
+     */
+    private static final int SHRINK_FACTOR = 4;
+
+    /**
+     * The window.
+     */
+    private PackedBoard window;
+
+    /**
+     * The plane row of the top row of the window.
+     */
+    private int top;
+
+    /**
+     * The plane column of the left column of the window, a multiple of 64 so
+     * that words keep their place when the window moves.
+     */
+    private int left;
+
+    /**
+     * The plane row of the top live cell.
+     */
+    private int minRow;
+
+    /**
+     * The plane row of the bottom live cell.
+     */
+    private int maxRow;
+
+    /**
+     * The plane column of the leftmost live cell.
+     */
+    private int minColumn;
+
+    /**
+     * The plane column of the rightmost live cell.
+     */
+    private int maxColumn;
+
+    /**
+     * Whether there are no live cells, in which case the bounds mean
+     * nothing.
+     */
+    private boolean empty = true;
+
+    /**
+     * Creates an empty plane.
+     *
+     * @param rule
+     *            the rule the board plays
+     * @throws IllegalArgumentException
+     *             if the rule brings cells with no neighbors to life, which
+     *             would fill the plane
+     */
+    public GrowingBoard(Rule rule) {
+        if ((rule.births() & 1) != 0) {
+            throw new IllegalArgumentException(
+                    "Rule " + rule + " would fill the plane");
+        }
+        this.window = new PackedBoard(WORD_BITS, 1);
+        this.window.setBoundary(Boundary.DEAD);
+        this.window.setRule(rule);
+    }
+
+    /**
+     * Creates a plane holding the cells of a board, each at the same row and
+     * column, at the same generation.
+     *
+     * @param start
+     *            the board
+     * @return the plane
+     * @throws IllegalArgumentException
+     *             if the board's rule would fill the plane
+     */
+    public static GrowingBoard from(LifeEngine start) {
+        GrowingBoard plane = new GrowingBoard(start.rule());
+        int words = (start.width() + WORD_BITS - 1) / WORD_BITS;
+        for (int row = 0; row < start.height(); row++) {
+            for (int w = 0; w < words; w++) {
+                long word = start.word(row, w);
+                if (word != 0) {
+                    plane.include(row, w * WORD_BITS
+                            + Long.numberOfTrailingZeros(word));
+                    plane.include(row, w * WORD_BITS + WORD_BITS - 1
+                            - Long.numberOfLeadingZeros(word));
+                }
+            }
+        }
+        if (!plane.empty) {
+            plane.moveWindow();
+            for (int row = plane.minRow; row <= plane.maxRow; row++) {
+                for (int w = 0; w < words; w++) {
+                    long word = start.word(row, w);
+                    if (word != 0) {
+                        plane.window.setWord(row - plane.top,
+                                w - plane.left / WORD_BITS, word);
+                    }
+                }
+            }
+        }
+        plane.window.setGeneration(start.generation());
+        return plane;
+    }
+
+    /**
+     * Grows the bounds of the live cells to take in a cell.
+     *
+     * @param row
+     *            the plane row of the cell
+     * @param column
+     *            the plane column of the cell
+     */
+    private void include(int row, int column) {
+        if (this.empty) {
+            this.minRow = row;
+            this.maxRow = row;
+            this.minColumn = column;
+            this.maxColumn = column;
+            this.empty = false;
+        } else {
+            this.minRow = Math.min(this.minRow, row);
+            this.maxRow = Math.max(this.maxRow, row);
+            this.minColumn = Math.min(this.minColumn, column);
+            this.maxColumn = Math.max(this.maxColumn, column);
+        }
+    }
+
+    /**
+     * Moves the window onto the live cells with a margin around them, and
+     * sizes it to fit.
+     *
+     * @requires the board is not empty
+     */
+    private void moveWindow() {
+        int newTop = this.minRow - MARGIN;
+        int newLeft = Math.floorDiv(this.minColumn - MARGIN, WORD_BITS)
+                * WORD_BITS;
+        int newHeight = this.maxRow + MARGIN - newTop + 1;
+        int newWords = (this.maxColumn + MARGIN - newLeft) / WORD_BITS + 1;
+        PackedBoard moved = new PackedBoard(newWords * WORD_BITS, newHeight);
+        moved.setBoundary(Boundary.DEAD);
+        moved.setRule(this.window.rule());
+        moved.setGeneration(this.window.generation());
+
+        int shift = (this.left - newLeft) / WORD_BITS;
+        int oldWords = this.window.wordsPerRow();
+        for (int row = this.minRow; row <= this.maxRow; row++) {
+            int oldRow = row - this.top;
+            if (oldRow >= 0 && oldRow < this.window.height()) {
+                for (int w = 0; w < oldWords; w++) {
+                    long word = this.window.word(oldRow, w);
+                    if (word != 0) {
+                        moved.setWord(row - newTop, w + shift, word);
+                    }
+                }
+            }
+        }
+        this.window = moved;
+        this.top = newTop;
+        this.left = newLeft;
+    }
+
+    /**
+     * Works out the bounds of the live cells from scratch.
+     */
+    private void findBounds() {
+        this.empty = true;
+        for (int row = 0; row < this.window.height(); row++) {
+            for (int w = 0; w < this.window.wordsPerRow(); w++) {
+                long word = this.window.word(row, w);
+                if (word != 0) {
+                    int first = this.left + w * WORD_BITS;
+                    this.include(this.top + row,
+                            first + Long.numberOfTrailingZeros(word));
+                    this.include(this.top + row, first + WORD_BITS - 1
+                            - Long.numberOfLeadingZeros(word));
+                }
+            }
+        }
+    }
+
+    /**
+     * Reports whether the cell at (row, column) of the plane is alive.
+     *
+     * @param row
+     *            the plane row
+     * @param column
+     *            the plane column
+     * @return true iff the cell is alive
+     */
+    public boolean isAliveAt(int row, int column) {
+        int windowRow = row - this.top;
+        int windowColumn = column - this.left;
+        return windowRow >= 0 && windowRow < this.window.height()
+                && windowColumn >= 0 && windowColumn < this.window.width()
+                && this.window.isAlive(windowRow, windowColumn);
+    }
+
+    /**
+     * Sets the cell at (row, column) of the plane alive or dead, moving the
+     * window if it is not on it.
+     *
+     * @param row
+     *            the plane row
+     * @param column
+     *            the plane column
+     * @param alive
+     *            the new state
+     */
+    public void setAliveAt(int row, int column, boolean alive) {
+        if (alive) {
+            this.include(row, column);
+            if (!this.inWindow(row, column)) {
+                this.moveWindow();
+            }
+            this.window.setAlive(row - this.top, column - this.left, true);
+        } else if (this.isAliveAt(row, column)) {
+            this.window.setAlive(row - this.top, column - this.left, false);
+            if (row == this.minRow || row == this.maxRow
+                    || column == this.minColumn || column == this.maxColumn) {
+                this.findBounds();
+            }
+        }
+    }
+
+    /**
+     * Reports whether a cell is inside the window, away from its edges.
+     *
+     * @param row
+     *            the plane row
+     * @param column
+     *            the plane column
+     * @return true iff every neighbor of the cell is in the window
+     */
+    private boolean inWindow(int row, int column) {
+        return row > this.top && row < this.top + this.window.height() - 1
+                && column > this.left
+                && column < this.left + this.window.width() - 1;
+    }
+
+    /**
+     * Returns the plane row of the top row of the window.
+     *
+     * @return the top of the window
+     */
+    public int top() {
+        return this.top;
+    }
+
+    /**
+     * Returns the plane column of the left column of the window.
+     *
+     * @return the left of the window
+     */
+    public int left() {
+        return this.left;
+    }
+
+    /**
+     * Returns the plane row of the top live cell.
+     *
+     * @return the top of the live cells
+     * @requires population > 0
+     */
+    public int minRow() {
+        return this.minRow;
+    }
+
+    /**
+     * Returns the plane row of the bottom live cell.
+     *
+     * @return the bottom of the live cells
+     * @requires population > 0
+     */
+    public int maxRow() {
+        return this.maxRow;
+    }
+
+    /**
+     * Returns the plane column of the leftmost live cell.
+     *
+     * @return the left of the live cells
+     * @requires population > 0
+     */
+    public int minColumn() {
+        return this.minColumn;
+    }
+
+    /**
+     * Returns the plane column of the rightmost live cell.
+     *
+     * @return the right of the live cells
+     * @requires population > 0
+     */
+    public int maxColumn() {
+        return this.maxColumn;
+    }
+
+    /**
+     * Returns the number of columns the live cells span.
+     *
+     * @return the width of the bounding box of the live cells, or 0 if there
+     *         are none
+     */
+    public int liveWidth() {
+        int width = 0;
+        if (!this.empty) {
+            width = this.maxColumn - this.minColumn + 1;
+        }
+        return width;
+    }
+
+    /**
+     * Returns the number of rows the live cells span.
+     *
+     * @return the height of the bounding box of the live cells, or 0 if
+     *         there are none
+     */
+    public int liveHeight() {
+        int height = 0;
+        if (!this.empty) {
+            height = this.maxRow - this.minRow + 1;
+        }
+        return height;
+    }
+
+    /**
+     * Copies the bounding box of the live cells into a grid.
+     *
+     * @return a new grid of liveHeight rows and liveWidth columns, or a
+     *         single dead cell if there are no live cells
+     */
+    public boolean[][] liveGrid() {
+        boolean[][] grid = new boolean[Math.max(1, this.liveHeight())][Math
+                .max(1, this.liveWidth())];
+        if (!this.empty) {
+            for (int row = this.minRow; row <= this.maxRow; row++) {
+                for (int column = this.minColumn; column <= this.maxColumn;
+                        column++) {
+                    grid[row - this.minRow][column - this.minColumn] = this
+                            .isAliveAt(row, column);
+                }
+            }
+        }
+        return grid;
+    }
+
+    @Override
+    public int width() {
+        return this.window.width();
+    }
+
+    @Override
+    public int height() {
+        return this.window.height();
+    }
+
+    @Override
+    public boolean isAlive(int row, int column) {
+        return this.window.isAlive(row, column);
+    }
+
+    @Override
+    public long word(int row, int wordIndex) {
+        return this.window.word(row, wordIndex);
+    }
+
+    @Override
+    public long population() {
+        return this.window.population();
+    }
+
+    @Override
+    public long generation() {
+        return this.window.generation();
+    }
+
+    /**
+     * Returns a hash of the window and of where it lies on the plane. It
+     * changes when the window moves, even if the cells do not, and a
+     * spaceship that the window has followed does not hash the same as it
+     * did before it flew, though the window holds the same words.
+     *
+     * @return the hash, 0 if there are no live cells
+     */
+    @Override
+    public long hash() {
+        long hash = this.window.hash();
+        if (!this.empty) {
+            // -1 is an index no word of the window has
+            hash ^= PackedBoard.mix(-1, ((long) this.top << Integer.SIZE)
+                    ^ Integer.toUnsignedLong(this.left));
+        }
+        return hash;
+    }
+
+    @Override
+    public Rule rule() {
+        return this.window.rule();
+    }
+
+    /**
+     * Returns what lies past the window: dead cells, since the window always
+     * leaves room around the live cells.
+     *
+     * @return {@link Boundary#DEAD}
+     */
+    @Override
+    public Boundary boundary() {
+        return Boundary.DEAD;
+    }
+
+    /**
+     * Computes the next generation, moving the window first if the live
+     * cells could grow past it, and shrinking it after if it has become much
+     * too big.
+     */
+    @Override
+    public void tick() {
+        if (!this.empty && !(this.inWindow(this.minRow, this.minColumn)
+                && this.inWindow(this.maxRow, this.maxColumn))) {
+            this.moveWindow();
+        }
+
+        PackedBoard board = this.window;
+        int words = board.wordsPerRow();
+        board.fillHalo();
+        long newHash = 0;
+        this.empty = true;
+        int index = 0;
+        for (int row = 0; row < board.height(); row++) {
+            for (int w = 0; w < words; w++) {
+                long word = board.evolveWord(row, w);
+                board.setBackWord(row, w, word);
+                if (word != 0) {
+                    newHash ^= PackedBoard.mix(index, word);
+                    int first = this.left + w * WORD_BITS;
+                    this.include(this.top + row,
+                            first + Long.numberOfTrailingZeros(word));
+                    this.include(this.top + row, first + WORD_BITS - 1
+                            - Long.numberOfLeadingZeros(word));
+                }
+                index++;
+            }
+        }
+        board.swapBuffers(newHash);
+
+        if (!this.empty) {
+            long needed = (long) (this.liveWidth() + 2 * MARGIN)
+                    * (this.liveHeight() + 2 * MARGIN);
+            if ((long) board.width() * board.height() > SHRINK_FACTOR
+                    * needed) {
+                this.moveWindow();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,967 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Runs games with no pauses, no console animation and no questions, for
+ * batches of unattended runs. Everything comes from the command line:
+ *
+ * <pre>
+ * --size N            rows and columns of the board (default 256)
+ * --width W           columns of the board (default: the size)
+ * --height H          rows of the board (default: the size)
+ * --boundary NAME     what lies past the edges: torus, dead or reflect
+ *                     (default: that of the snapshot loaded, else torus)
+ * --seed S            seed of the random board (default 1)
+ * --seeds A-B         run every seed from A to B, one after the other
+ * --density P         percent of live cells on a random board (default 50)
+ * --pattern NAME      random, beacon, blinker, toad, glider, or a pattern
+ *                     file ending in .rle or .cells (default random)
+ * --at ROW,COLUMN     where the top left of the pattern goes (default 0,0)
+ * --generations G     generations per run (default 1000)
+ * --rule RULE         the rule in B/S notation, such as B36/S23, or a name
+ *                     such as highlife (default: the rule of the snapshot
+ *                     or RLE file loaded, else B3/S23)
+ * --engine NAME       packed, striped, tiled, buffered, growing (an
+ *                     unbounded plane that starts with the board's cells;
+ *                     the board size only places them) or vector (packed,
+ *                     with the JDK Vector API when the JVM runs with
+ *                     --add-modules jdk.incubator.vector) (default packed)
+ * --threads T         threads of the striped engine (default: all cores)
+ * --output POLICY     summary, final (print the last board), every:K
+ *                     (print the population every K generations) or
+ *                     frames:MODE (draw every generation; MODE is scroll,
+ *                     home or diff, see FrameRenderer.Mode)
+ * --glyphs NAME       cells per character in frames: full (1), half (2)
+ *                     or braille (8) (default full)
+ * --storage WHERE     where the packed board keeps its cells: heap,
+ *                     direct (off the heap) or a scratch file to map into
+ *                     memory; with --sessions each seed maps its own
+ *                     file, FILE.S (default heap)
+ * --load FILE         start from a snapshot instead of a pattern, resuming
+ *                     at the generation it was saved at
+ * --save FILE         save the last board as a snapshot; in a batch of seeds
+ *                     the seed is added to the name
+ * --checkpoint DIR    save checkpoints of the run in DIR, in the background
+ * --checkpoint-every G
+ *                     generations between checkpoints (default: by time)
+ * --checkpoint-seconds T
+ *                     seconds between checkpoints (default 60 unless
+ *                     --checkpoint-every is given)
+ * --keep K            checkpoints kept (default 3)
+ * --resume DIR        start from the newest valid checkpoint in DIR, if
+ *                     any, and run until generation G in total
+ * --cycles H          stop early once the board dies out, stops changing
+ *                     or repeats with a period of at most H (default 0, off)
+ * --sessions T        run every seed of the batch at once, as independent
+ *                     sessions taking turns on T threads (see SessionServer),
+ *                     instead of one after the other; not with --checkpoint,
+ *                     --resume, frames or every:K output, or the striped
+ *                     engine (default 0, off)
+ * </pre>
+ *
+ * <p>
+ * In a batch of seeds, each seed checkpoints to and resumes from its own
+ * directory, seed-S, inside DIR. Snapshots are described in
+ * {@link BoardSnapshot}. Each run reports its
+ * final population, generations per second and cell updates per second, and
+ * a batch ends with the totals.
+ * </p>
+ */
+public final class HeadlessGame {
+
+    /**
+     * Nanoseconds per second.
+     */
+    private static final double NANOS = 1e9;
+
+    /**
+     * Percent, the scale of the density.
+     */
+    private static final int PERCENT = 100;
+
+    /**
+     * Seconds between checkpoints when neither their generations nor their
+     * seconds are given.
+     */
+    private static final long DEFAULT_CHECKPOINT_SECONDS = 60;
+
+    /**
+     * Default constructor--private to prevent instantiation.
+     */
+    private HeadlessGame() {
+        // no code needed here
+    }
+
+    /**
+     * The settings of a batch, read from the command line.
+     */
+    static final class Settings {
+
+        /**
+         * Number of columns.
+         */
+        private int width = 256;
+
+        /**
+         * Number of rows.
+         */
+        private int height = 256;
+
+        /**
+         * What lies past the edges, or null to keep that of the starting
+         * board.
+         */
+        private Boundary boundary;
+
+        /**
+         * First seed of the batch.
+         */
+        private long firstSeed = 1;
+
+        /**
+         * Last seed of the batch.
+         */
+        private long lastSeed = 1;
+
+        /**
+         * Percent of live cells on a random board.
+         */
+        private int density = 50;
+
+        /**
+         * Starting pattern.
+         */
+        private String pattern = "random";
+
+        /**
+         * Row the top of the pattern goes to.
+         */
+        private int top;
+
+        /**
+         * Column the left of the pattern goes to.
+         */
+        private int left;
+
+        /**
+         * Generations per run.
+         */
+        private long generations = 1000;
+
+        /**
+         * The rule, or null to play the rule of the starting board.
+         */
+        private Rule rule;
+
+        /**
+         * Name of the engine.
+         */
+        private String engine = "packed";
+
+        /**
+         * Threads of the striped engine.
+         */
+        private int threads = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Output policy: "summary", "final" or "every".
+         */
+        private String output = "summary";
+
+        /**
+         * With output "every", how often to print the population.
+         */
+        private long every;
+
+        /**
+         * With output "frames", how frames follow each other.
+         */
+        private FrameRenderer.Mode frames;
+
+        /**
+         * With output "frames", how cells become characters.
+         */
+        private FrameRenderer.Glyphs glyphs = FrameRenderer.Glyphs.FULL;
+
+        /**
+         * Where the packed board keeps its cells.
+         */
+        private PackedBoard.Storage storage = PackedBoard.Storage.HEAP;
+
+        /**
+         * The scratch file the packed board is mapped to, or null if its
+         * cells are not kept in a file.
+         */
+        private String scratch;
+
+        /**
+         * Snapshot to start from, or null to start from the pattern.
+         */
+        private String load;
+
+        /**
+         * Where to save the last board, or null not to save it.
+         */
+        private String save;
+
+        /**
+         * Directory of the checkpoints, or null not to take any.
+         */
+        private String checkpoint;
+
+        /**
+         * Generations between checkpoints, or 0 to go by time.
+         */
+        private long checkpointEvery;
+
+        /**
+         * Seconds between checkpoints, 0 to go by generations, or -1 if not
+         * given.
+         */
+        private long checkpointSeconds = -1;
+
+        /**
+         * Checkpoints kept.
+         */
+        private int keep = 3;
+
+        /**
+         * Directory of the checkpoints to resume from, or null to start
+         * afresh.
+         */
+        private String resume;
+
+        /**
+         * Generations to look back for a repeat, or 0 not to look.
+         */
+        private int cycles;
+
+        /**
+         * Threads running the seeds as concurrent sessions, or 0 to run them
+         * one after the other.
+         */
+        private int sessions;
+
+        /**
+         * Reads the settings from the command line.
+         *
+         * @param args
+         *            pairs of option and value
+         * @return the settings
+         * @throws IllegalArgumentException
+         *             if an option is unknown or a value is malformed
+         */
+        static Settings parse(String[] args) {
+            Settings settings = new Settings();
+            if (args.length % 2 != 0) {
+                throw new IllegalArgumentException(
+                        "Every option needs a value");
+            }
+            for (int i = 0; i < args.length; i += 2) {
+                settings.set(args[i], args[i + 1]);
+            }
+            return settings;
+        }
+
+        /**
+         * Sets one option.
+         *
+         * @param option
+         *            the option, starting with "--"
+         * @param value
+         *            its value
+         * @throws IllegalArgumentException
+         *             if the option is unknown or the value is malformed
+         */
+        void set(String option, String value) {
+            switch (option) {
+                case "--size":
+                    this.width = Integer.parseInt(value);
+                    this.height = this.width;
+                    break;
+                case "--width":
+                    this.width = Integer.parseInt(value);
+                    break;
+                case "--height":
+                    this.height = Integer.parseInt(value);
+                    break;
+                case "--boundary":
+                    this.boundary = Boundary.parse(value);
+                    break;
+                case "--seed":
+                    this.firstSeed = Long.parseLong(value);
+                    this.lastSeed = this.firstSeed;
+                    break;
+                case "--seeds":
+                    int dash = value.indexOf('-', 1);
+                    if (dash < 0) {
+                        throw new IllegalArgumentException(
+                                "Seeds must look like A-B: " + value);
+                    }
+                    this.firstSeed = Long.parseLong(value.substring(0, dash));
+                    this.lastSeed = Long.parseLong(value.substring(dash + 1));
+                    break;
+                case "--density":
+                    this.density = Integer.parseInt(value);
+                    break;
+                case "--pattern":
+                    this.pattern = value;
+                    break;
+                case "--at":
+                    int comma = value.indexOf(',');
+                    if (comma < 0) {
+                        throw new IllegalArgumentException(
+                                "Position must look like ROW,COLUMN: " + value);
+                    }
+                    this.top = Integer.parseInt(value.substring(0, comma));
+                    this.left = Integer.parseInt(value.substring(comma + 1));
+                    break;
+                case "--generations":
+                    this.generations = Long.parseLong(value);
+                    break;
+                case "--rule":
+                    this.rule = Rule.parse(value);
+                    break;
+                case "--engine":
+                    this.engine = value;
+                    break;
+                case "--threads":
+                    this.threads = Integer.parseInt(value);
+                    break;
+                case "--output":
+                    if (value.startsWith("every:")) {
+                        this.output = "every";
+                        this.every = Long.parseLong(
+                                value.substring("every:".length()));
+                    } else if (value.startsWith("frames:")) {
+                        this.output = "frames";
+                        this.frames = FrameRenderer.Mode.valueOf(value
+                                .substring("frames:".length())
+                                .toUpperCase());
+                    } else if (value.equals("summary")
+                            || value.equals("final")) {
+                        this.output = value;
+                    } else {
+                        throw new IllegalArgumentException(
+                                "Unknown output: " + value);
+                    }
+                    break;
+                case "--glyphs":
+                    this.glyphs = parseGlyphs(value);
+                    break;
+                case "--storage":
+                    this.storage = parseStorage(value);
+                    this.scratch = null;
+                    if (!value.equals("heap") && !value.equals("direct")) {
+                        this.scratch = value;
+                    }
+                    break;
+                case "--load":
+                    this.load = value;
+                    break;
+                case "--save":
+                    this.save = value;
+                    break;
+                case "--checkpoint":
+                    this.checkpoint = value;
+                    break;
+                case "--checkpoint-every":
+                    this.checkpointEvery = Long.parseLong(value);
+                    break;
+                case "--checkpoint-seconds":
+                    this.checkpointSeconds = Long.parseLong(value);
+                    break;
+                case "--keep":
+                    this.keep = Integer.parseInt(value);
+                    break;
+                case "--resume":
+                    this.resume = value;
+                    break;
+                case "--cycles":
+                    this.cycles = Integer.parseInt(value);
+                    break;
+                case "--sessions":
+                    this.sessions = Integer.parseInt(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException(
+                            "Unknown option: " + option);
+            }
+        }
+
+        /**
+         * Reads the value of --glyphs.
+         *
+         * @param value
+         *            full, half or braille
+         * @return the glyphs
+         * @throws IllegalArgumentException
+         *             if the value is unknown
+         */
+        private static FrameRenderer.Glyphs parseGlyphs(String value) {
+            FrameRenderer.Glyphs glyphs;
+            switch (value) {
+                case "full":
+                    glyphs = FrameRenderer.Glyphs.FULL;
+                    break;
+                case "half":
+                    glyphs = FrameRenderer.Glyphs.HALF_BLOCK;
+                    break;
+                case "braille":
+                    glyphs = FrameRenderer.Glyphs.BRAILLE;
+                    break;
+                default:
+                    throw new IllegalArgumentException(
+                            "Unknown glyphs: " + value);
+            }
+            return glyphs;
+        }
+
+        /**
+         * Reads the value of --storage.
+         *
+         * @param value
+         *            heap, direct or the name of a scratch file
+         * @return the storage
+         */
+        private static PackedBoard.Storage parseStorage(String value) {
+            PackedBoard.Storage storage;
+            switch (value) {
+                case "heap":
+                    storage = PackedBoard.Storage.HEAP;
+                    break;
+                case "direct":
+                    storage = PackedBoard.Storage.DIRECT;
+                    break;
+                default:
+                    storage = PackedBoard.Storage.mappedTo(Paths.get(value));
+                    break;
+            }
+            return storage;
+        }
+
+        /**
+         * Returns where the board of one run keeps its cells. Sessions run at
+         * the same time, so each maps its own scratch file, FILE.S, rather
+         * than all of them sharing the words of one.
+         *
+         * @param seed
+         *            the seed of the run
+         * @return the storage
+         */
+        PackedBoard.Storage storageFor(long seed) {
+            PackedBoard.Storage result = this.storage;
+            if (this.scratch != null && this.sessions > 0) {
+                result = PackedBoard.Storage
+                        .mappedTo(Paths.get(this.scratch + "." + seed));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * What the runs of a batch added up to.
+     */
+    static final class Totals {
+
+        /**
+         * Nanoseconds spent ticking.
+         */
+        private long nanos;
+
+        /**
+         * Generations computed.
+         */
+        private double generations;
+
+        /**
+         * Cells updated.
+         */
+        private double cellUpdates;
+    }
+
+    /**
+     * Builds the starting board of one run.
+     *
+     * @param settings
+     *            the settings of the batch
+     * @param seed
+     *            the seed of this run
+     * @return the board
+     * @throws IllegalArgumentException
+     *             if the pattern is unknown or does not fit
+     * @throws IOException
+     *             if the snapshot or pattern file cannot be loaded
+     */
+    static PackedBoard startBoard(Settings settings, long seed)
+            throws IOException {
+        PackedBoard board;
+        Rule rule = settings.rule;
+        if (settings.load != null) {
+            board = BoardSnapshot.load(Paths.get(settings.load),
+                    settings.storageFor(seed));
+            if (rule == null) {
+                rule = board.rule();
+            }
+        } else {
+            board = settings.storageFor(seed).create(settings.width,
+                    settings.height);
+            Rule patternRule = placePattern(settings, seed, board);
+            if (rule == null) {
+                rule = patternRule;
+            }
+        }
+        if (rule != null) {
+            board.setRule(rule);
+        }
+        if (settings.boundary != null) {
+            board.setBoundary(settings.boundary);
+        }
+        return board;
+    }
+
+    /**
+     * Places the starting pattern of one run on an empty board.
+     *
+     * @param settings
+     *            the settings of the batch
+     * @param seed
+     *            the seed of this run
+     * @param board
+     *            the board
+     * @return the rule named by an RLE pattern file, or null if there is none
+     * @throws IllegalArgumentException
+     *             if the pattern is unknown or does not fit
+     * @throws IOException
+     *             if the pattern file cannot be loaded
+     * @updates board
+     */
+    private static Rule placePattern(Settings settings, long seed,
+            PackedBoard board) throws IOException {
+        Rule rule = null;
+        if (settings.pattern.equals("random")) {
+            Random random = new Random(seed);
+            for (int row = 0; row < settings.height; row++) {
+                for (int column = 0; column < settings.width; column++) {
+                    if (random.nextInt(PERCENT) < settings.density) {
+                        board.setAlive(row, column, true);
+                    }
+                }
+            }
+        } else if (PatternFiles.isPatternFile(settings.pattern)) {
+            rule = PatternFiles.read(Paths.get(settings.pattern), board,
+                    settings.top, settings.left);
+        } else {
+            boolean[][] pattern = GameOfLifeV2.basicPattern(settings.pattern);
+            if (pattern == null) {
+                throw new IllegalArgumentException(
+                        "Unknown pattern: " + settings.pattern);
+            }
+            if (settings.top < 0 || settings.left < 0
+                    || settings.top + pattern.length > settings.height
+                    || settings.left + pattern[0].length > settings.width) {
+                throw new IllegalArgumentException(
+                        "Board too small for " + settings.pattern);
+            }
+            for (int row = 0; row < pattern.length; row++) {
+                for (int column = 0; column < pattern[row].length; column++) {
+                    board.setAlive(settings.top + row, settings.left + column,
+                            pattern[row][column]);
+                }
+            }
+        }
+        return rule;
+    }
+
+    /**
+     * Wraps a starting board in the named engine.
+     *
+     * @param name
+     *            packed, striped, tiled, buffered, growing or vector
+     * @param start
+     *            the starting board; packed, striped, tiled and vector
+     *            engines tick it in place
+     * @param threads
+     *            the number of threads of the striped engine
+     * @return the engine
+     * @throws IllegalArgumentException
+     *             if the engine is unknown
+     */
+    static LifeEngine createEngine(String name, PackedBoard start,
+            int threads) {
+        LifeEngine engine;
+        switch (name) {
+            case "packed":
+                engine = start;
+                break;
+            case "striped":
+                engine = new StripedTicker(start, threads, 0);
+                break;
+            case "tiled":
+                engine = new TiledTicker(start);
+                break;
+            case "buffered":
+                BufferedGrid grid = new BufferedGrid(start.toGrid(),
+                        start.rule(), start.boundary());
+                grid.setGeneration(start.generation());
+                engine = grid;
+                break;
+            case "growing":
+                engine = GrowingBoard.from(start);
+                break;
+            case "vector":
+                if (!VectorSupport.isAvailable()) {
+                    System.err.println("The vector engine needs"
+                            + " --add-modules jdk.incubator.vector;"
+                            + " using the packed engine");
+                }
+                engine = VectorSupport.wrap(start);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown engine: " + name);
+        }
+        return engine;
+    }
+
+    /**
+     * Copies an engine's board into a grid for printing.
+     *
+     * @param engine
+     *            the engine
+     * @return a new grid holding the current generation
+     */
+    static boolean[][] toGrid(LifeEngine engine) {
+        boolean[][] grid = new boolean[engine.height()][engine.width()];
+        for (int row = 0; row < grid.length; row++) {
+            for (int column = 0; column < grid[row].length; column++) {
+                grid[row][column] = engine.isAlive(row, column);
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Draws one frame, reporting a failed write on out.
+     *
+     * @param renderer
+     *            the renderer
+     * @param engine
+     *            the engine
+     * @param out
+     *            the output stream for errors
+     */
+    private static void render(FrameRenderer renderer, LifeEngine engine,
+            SimpleWriter out) {
+        try {
+            renderer.render(engine);
+        } catch (IOException e) {
+            out.println("Could not draw frame: " + e);
+        }
+    }
+
+    /**
+     * Returns the directory a run keeps its checkpoints in.
+     *
+     * @param directory
+     *            the directory given on the command line
+     * @param settings
+     *            the settings of the batch
+     * @param seed
+     *            the seed of the run
+     * @return the directory itself, or its seed-S subdirectory in a batch
+     */
+    private static Path runDirectory(String directory, Settings settings,
+            long seed) {
+        Path path = Paths.get(directory);
+        if (settings.firstSeed != settings.lastSeed) {
+            path = path.resolve("seed-" + seed);
+        }
+        return path;
+    }
+
+    /**
+     * Runs one game.
+     *
+     * @param settings
+     *            the settings of the batch
+     * @param seed
+     *            the seed of this run
+     * @param out
+     *            the output stream
+     * @param totals
+     *            what the batch adds up to so far
+     * @throws IOException
+     *             if a snapshot cannot be loaded or saved
+     * @updates totals
+     */
+    static void runOne(Settings settings, long seed, SimpleWriter out,
+            Totals totals) throws IOException {
+        long generations = settings.generations;
+        PackedBoard board = null;
+        if (settings.resume != null) {
+            board = Checkpointer.latest(
+                    runDirectory(settings.resume, settings, seed),
+                    settings.storageFor(seed));
+        }
+        if (board == null) {
+            board = startBoard(settings, seed);
+        } else {
+            out.println("seed " + seed + ": resuming at generation "
+                    + board.generation());
+            generations = Math.max(0, generations - board.generation());
+        }
+        LifeEngine engine = createEngine(settings.engine, board,
+                settings.threads);
+        FrameRenderer renderer = null;
+        if (settings.frames != null) {
+            renderer = new FrameRenderer(System.out, settings.frames,
+                    settings.glyphs);
+        }
+        CycleDetector cycles = null;
+        if (settings.cycles > 0) {
+            cycles = new CycleDetector(settings.cycles);
+            cycles.observe(engine);
+        }
+        Checkpointer checkpointer = null;
+        long elapsed = 0;
+        try {
+            if (settings.checkpoint != null) {
+                long seconds = settings.checkpointSeconds;
+                if (seconds < 0) {
+                    seconds = 0;
+                    if (settings.checkpointEvery == 0) {
+                        seconds = DEFAULT_CHECKPOINT_SECONDS;
+                    }
+                }
+                checkpointer = new Checkpointer(
+                        runDirectory(settings.checkpoint, settings, seed),
+                        settings.checkpointEvery, seconds, settings.keep);
+            }
+            long start = System.nanoTime();
+            long ran = 0;
+            boolean settled = false;
+            for (long i = 1; i <= generations && !settled; i++) {
+                engine.tick();
+                ran = i;
+                if (cycles != null) {
+                    settled = cycles.observe(
+                            engine) != CycleDetector.Outcome.RUNNING;
+                }
+                if (checkpointer != null) {
+                    checkpointer.afterTick(engine);
+                }
+                if (renderer != null) {
+                    elapsed += System.nanoTime() - start;
+                    render(renderer, engine, out);
+                    start = System.nanoTime();
+                }
+                if (settings.every > 0 && i % settings.every == 0) {
+                    elapsed += System.nanoTime() - start;
+                    out.println("seed " + seed + " generation " + i
+                            + " population " + engine.population());
+                    start = System.nanoTime();
+                }
+            }
+            elapsed += System.nanoTime() - start;
+            if (settled) {
+                out.println("seed " + seed + ": " + cycles.report());
+            }
+
+            if (settings.output.equals("final")) {
+                GameOfLifeV2.printBoard(out, toGrid(engine));
+            }
+            if (settings.save != null) {
+                String name = settings.save;
+                if (settings.firstSeed != settings.lastSeed) {
+                    name += "." + seed;
+                }
+                Path path = Paths.get(name);
+                BoardSnapshot.save(engine, path, true);
+                out.println("saved generation " + engine.generation() + " to "
+                        + path);
+            }
+            double cells = (double) engine.width() * engine.height();
+            double seconds = elapsed / NANOS;
+            out.println(String.format(
+                    "seed %d: %d generations, population %d, %.3f s, "
+                            + "%.1f generations/s, %.3g cell updates/s",
+                    seed, ran, engine.population(), seconds,
+                    rate(ran, seconds), rate(ran * cells, seconds)));
+            totals.nanos += elapsed;
+            totals.generations += ran;
+            totals.cellUpdates += ran * cells;
+        } finally {
+            if (checkpointer != null) {
+                checkpointer.close();
+                if (checkpointer.failure() != null) {
+                    out.println("Could not save a checkpoint: "
+                            + checkpointer.failure().getMessage());
+                }
+            }
+            if (engine instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) engine).close();
+                } catch (Exception e) {
+                    out.println("Could not close engine: " + e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Works out a rate for a report.
+     *
+     * @param amount
+     *            what was done
+     * @param seconds
+     *            how long it took
+     * @return amount per second, or 0 if no time was measured, as when no
+     *         generations ran
+     */
+    static double rate(double amount, double seconds) {
+        double rate = 0;
+        if (seconds > 0) {
+            rate = amount / seconds;
+        }
+        return rate;
+    }
+
+    /**
+     * Runs every seed of the batch at once, each as its own session on a
+     * {@link SessionServer}, and reports them in seed order as they finish.
+     *
+     * @param settings
+     *            the settings of the batch
+     * @param out
+     *            where the reports go
+     * @throws IllegalArgumentException
+     *             if the settings need one run at a time, or a pattern is
+     *             unknown or does not fit
+     * @throws IOException
+     *             if a snapshot or pattern cannot be loaded, or a board
+     *             cannot be saved
+     */
+    static void runSessions(Settings settings, SimpleWriter out)
+            throws IOException {
+        if (settings.checkpoint != null || settings.resume != null
+                || settings.frames != null || settings.every > 0
+                || settings.engine.equals("striped")) {
+            throw new IllegalArgumentException("--sessions cannot be used"
+                    + " with --checkpoint, --resume, frames or every:K"
+                    + " output, or the striped engine");
+        }
+        List<CompletableFuture<GameSession>> runs = new ArrayList<>();
+        long start = System.nanoTime();
+        double cellUpdates = 0;
+        double generations = 0;
+        try (SessionServer server = new SessionServer(settings.sessions)) {
+            for (long seed = settings.firstSeed; seed <= settings.lastSeed;
+                    seed++) {
+                LifeEngine engine = createEngine(settings.engine,
+                        startBoard(settings, seed), 1);
+                runs.add(server.submit(new GameSession(seed, engine,
+                        settings.generations, settings.cycles)));
+            }
+            for (CompletableFuture<GameSession> run : runs) {
+                GameSession session = run.join();
+                LifeEngine engine = session.engine();
+                String report = "";
+                CycleDetector cycles = session.cycles();
+                if (cycles != null && cycles
+                        .outcome() != CycleDetector.Outcome.RUNNING) {
+                    report = " " + cycles.report();
+                }
+                out.println("seed " + session.id() + ": "
+                        + session.generationsRun() + " generations,"
+                        + " population " + engine.population() + report);
+                if (settings.output.equals("final")) {
+                    GameOfLifeV2.printBoard(out, toGrid(engine));
+                }
+                if (settings.save != null) {
+                    Path path = Paths.get(settings.save + "." + session.id());
+                    BoardSnapshot.save(engine, path, true);
+                }
+                generations += session.generationsRun();
+                cellUpdates += session.generationsRun()
+                        * ((double) engine.width() * engine.height());
+            }
+        }
+        double seconds = (System.nanoTime() - start) / NANOS;
+        out.println(String.format(
+                "total: %d sessions on %d threads, %.3f s, "
+                        + "%.1f generations/s, %.3g cell updates/s",
+                runs.size(), settings.sessions, seconds,
+                rate(generations, seconds), rate(cellUpdates, seconds)));
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args
+     *            the options described above
+     */
+    public static void main(String[] args) {
+        SimpleWriter out = new SimpleWriter1L();
+        Settings settings;
+        try {
+            settings = Settings.parse(args);
+        } catch (IllegalArgumentException e) {
+            out.println(e.getMessage());
+            out.println("Usage: --size N --width W --height H"
+                    + " --boundary torus|dead|reflect"
+                    + " --seed S | --seeds A-B --density P"
+                    + " --pattern NAME|FILE --at ROW,COLUMN --generations G"
+                    + " --rule RULE"
+                    + " --engine packed|striped|tiled|buffered|growing|vector"
+                    + " --threads T"
+                    + " --output summary|final|every:K"
+                    + "|frames:scroll|home|diff --glyphs full|half|braille"
+                    + " --storage heap|direct|FILE --load FILE --save FILE"
+                    + " --checkpoint DIR"
+                    + " --checkpoint-every G --checkpoint-seconds T --keep K"
+                    + " --resume DIR --cycles H --sessions T");
+            out.close();
+            return;
+        }
+
+        if (settings.sessions > 0) {
+            try {
+                runSessions(settings, out);
+            } catch (IOException | IllegalArgumentException e) {
+                out.println(e.getMessage());
+            }
+            out.close();
+            return;
+        }
+        Totals totals = new Totals();
+        long runs = 0;
+        for (long seed = settings.firstSeed; seed <= settings.lastSeed;
+                seed++) {
+            try {
+                runOne(settings, seed, out, totals);
+            } catch (IOException | IllegalArgumentException e) {
+                out.println(e.getMessage());
+                break;
+            }
+            runs++;
+        }
+        if (runs > 1) {
+            double seconds = totals.nanos / NANOS;
+            out.println(String.format(
+                    "total: %d runs, %.3f s, %.1f generations/s, "
+                            + "%.3g cell updates/s",
+                    runs, seconds, rate(totals.generations, seconds),
+                    rate(totals.cellUpdates, seconds)));
+        }
+        out.close();
+    }
+
+}
@@ -0,0 +1,58 @@
+/**
+ * Words kept in a {@code long[]} on the heap.
+ */
+final class HeapWords implements WordStore {
+
+    /**
+     * The words.
+     */
+    private final long[] words;
+
+    /**
+     * Creates a store of zero words.
+     *
+     * @param size
+     *            the number of words
+     */
+    HeapWords(int size) {
+        this.words = new long[size];
+    }
+
+    /**
+     * Returns the array holding the words.
+     *
+     * @return the array, shared with this store
+     */
+    long[] array() {
+        return this.words;
+    }
+
+    @Override
+    public int size() {
+        return this.words.length;
+    }
+
+    @Override
+    public long get(int index) {
+        return this.words[index];
+    }
+
+    @Override
+    public void set(int index, long word) {
+        this.words[index] = word;
+    }
+
+    @Override
+    public void copyFrom(WordStore source) {
+        assert source.size() == this.size() : "Violation of: same size";
+        if (source instanceof HeapWords) {
+            System.arraycopy(((HeapWords) source).words, 0, this.words, 0,
+                    this.words.length);
+        } else {
+            for (int i = 0; i < this.words.length; i++) {
+                this.words[i] = source.get(i);
+            }
+        }
+    }
+
+}
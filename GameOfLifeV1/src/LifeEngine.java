@@ -0,0 +1,94 @@
+/**
+ * A board together with the way it computes generations. The engines differ
+ * in how they store the board and how fast they tick, but all of them give
+ * the same generations as
+ * {@link GameOfLifeV2#tickGame(boolean[][], Rule, Boundary)} under the same
+ * rule and boundary.
+ */
+public interface LifeEngine {
+
+    /**
+     * Returns the number of columns.
+     *
+     * @return the width of the board
+     */
+    int width();
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return the height of the board
+     */
+    int height();
+
+    /**
+     * Reports whether the cell at (row, column) is alive.
+     *
+     * @param row
+     *            the row of the cell
+     * @param column
+     *            the column of the cell
+     * @return true iff the cell is alive
+     * @requires 0 <= row < height and 0 <= column < width
+     */
+    boolean isAlive(int row, int column);
+
+    /**
+     * Returns 64 cells of a row packed in a word: bit i holds the cell at
+     * column 64 * wordIndex + i. Bits past the last column are 0.
+     *
+     * @param row
+     *            the row
+     * @param wordIndex
+     *            which word of the row
+     * @return the packed cells
+     * @requires 0 <= row < height and 0 <= wordIndex < (width + 63) / 64
+     */
+    long word(int row, int wordIndex);
+
+    /**
+     * Counts the live cells.
+     *
+     * @return the number of live cells
+     */
+    long population();
+
+    /**
+     * Returns the number of generations computed so far.
+     *
+     * @return the generation number
+     */
+    long generation();
+
+    /**
+     * Returns a hash of the current generation: the XOR over the words of
+     * the board, as returned by {@link #word(int, int)}, of a mix of the word
+     * and its index. Engines keep it up to date as they tick instead of
+     * working it out from scratch, so it is cheap to ask for every
+     * generation. Boards of the same size holding the same cells have the
+     * same hash, whatever the engine.
+     *
+     * @return the hash
+     */
+    long hash();
+
+    /**
+     * Returns the rule the board plays.
+     *
+     * @return the rule
+     */
+    Rule rule();
+
+    /**
+     * Returns what lies past the edges of the board.
+     *
+     * @return the boundary
+     */
+    Boundary boundary();
+
+    /**
+     * Computes the next generation.
+     */
+    void tick();
+
+}
@@ -0,0 +1,153 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+/**
+ * Words kept outside the Java heap, in direct buffers or in buffers mapped
+ * from a file, so a huge board neither needs a huge heap nor gives the
+ * garbage collector anything to scan or move. A buffer holds at most 2^31
+ * bytes, so the words are split into chunks of 2^27 words each.
+ *
+ * <p>
+ * Direct buffers count against the JVM's direct memory limit, which is set
+ * with -XX:MaxDirectMemorySize and defaults to the heap size. Mapped buffers
+ * do not; the operating system pages them in and out of the file as needed.
+ * </p>
+ */
+final class OffHeapWords implements WordStore {
+
+    /**
+     * log2 of the number of words per chunk.
+     */
+    private static final int CHUNK_SHIFT = 27;
+
+    /**
+     * Mask that turns an index into an index inside its chunk.
+     */
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+    /**
+     * The chunks, each but the last holding 2^27 words.
+     */
+    private final LongBuffer[] chunks;
+
+    /**
+     * Number of words.
+     */
+    private final int size;
+
+    /**
+     * Creates a store over the given chunks.
+     *
+     * @param chunks
+     *            the chunks
+     * @param size
+     *            the number of words
+     */
+    private OffHeapWords(LongBuffer[] chunks, int size) {
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    /**
+     * Returns the number of words in a chunk.
+     *
+     * @param chunk
+     *            the index of the chunk
+     * @param size
+     *            the number of words of the store
+     * @return the length of the chunk
+     */
+    private static int chunkWords(int chunk, int size) {
+        return Math.min(1 << CHUNK_SHIFT, size - (chunk << CHUNK_SHIFT));
+    }
+
+    /**
+     * Returns the number of chunks of a store.
+     *
+     * @param size
+     *            the number of words of the store
+     * @return the number of chunks
+     */
+    private static int chunkCount(int size) {
+        return Math.max(1, (int) (((long) size + CHUNK_MASK) >>> CHUNK_SHIFT));
+    }
+
+    /**
+     * Creates a store of zero words in direct buffers.
+     *
+     * @param size
+     *            the number of words
+     * @return the store
+     */
+    static OffHeapWords allocate(int size) {
+        LongBuffer[] chunks = new LongBuffer[chunkCount(size)];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = ByteBuffer.allocateDirect(chunkWords(i, size)
+                    * Long.BYTES).order(ByteOrder.nativeOrder())
+                    .asLongBuffer();
+        }
+        return new OffHeapWords(chunks, size);
+    }
+
+    /**
+     * Creates a store mapped from part of a file, growing the file if it is
+     * too short. The mapping stays valid after the channel is closed.
+     *
+     * @param channel
+     *            the file, open for reading and writing
+     * @param position
+     *            where in the file the words start, in bytes
+     * @param size
+     *            the number of words
+     * @return the store
+     * @throws IOException
+     *             if the file cannot be mapped
+     */
+    static OffHeapWords map(FileChannel channel, long position, int size)
+            throws IOException {
+        LongBuffer[] chunks = new LongBuffer[chunkCount(size)];
+        for (int i = 0; i < chunks.length; i++) {
+            long start = position + ((long) i << CHUNK_SHIFT) * Long.BYTES;
+            chunks[i] = channel
+                    .map(MapMode.READ_WRITE, start,
+                            (long) chunkWords(i, size) * Long.BYTES)
+                    .order(ByteOrder.nativeOrder()).asLongBuffer();
+        }
+        return new OffHeapWords(chunks, size);
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public long get(int index) {
+        return this.chunks[index >>> CHUNK_SHIFT].get(index & CHUNK_MASK);
+    }
+
+    @Override
+    public void set(int index, long word) {
+        this.chunks[index >>> CHUNK_SHIFT].put(index & CHUNK_MASK, word);
+    }
+
+    @Override
+    public void copyFrom(WordStore source) {
+        assert source.size() == this.size : "Violation of: same size";
+        if (source instanceof OffHeapWords) {
+            LongBuffer[] from = ((OffHeapWords) source).chunks;
+            for (int i = 0; i < this.chunks.length; i++) {
+                this.chunks[i].duplicate().put(from[i].duplicate());
+            }
+        } else {
+            for (int i = 0; i < this.size; i++) {
+                this.set(i, source.get(i));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,905 @@
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Game of Life board that packs 64 cells into each {@code long} and computes a
+ * whole word of cells at a time with bitwise adder logic instead of counting
+ * neighbors cell by cell. It gives the same generations as
+ * {@link GameOfLifeV2#tickGame(boolean[][], Rule, Boundary)}.
+ *
+ * <p>
+ * Cell {@code (row, column)} is bit {@code column % 64} of word
+ * {@code column / 64} of the row. Bits of the last word past the right edge of
+ * the board are always zero.
+ * </p>
+ *
+ * <p>
+ * Rows are stored with a spare word on each side, and the board with a spare
+ * row above and below. Before every generation these are filled with the
+ * halo the {@link Boundary} calls for: the top bit of the word left of a row
+ * and the bottom bit of the word right of it hold the cells past its ends.
+ * Every word then reads its neighbors the same way, without checking for an
+ * edge.
+ * </p>
+ *
+ * <p>
+ * The board keeps a hash of its cells, the XOR of {@link #mix(int, long)}
+ * over its words. Every change to a word updates it, and a tick works out
+ * the hash of the new generation as it computes the words, so asking for it
+ * costs nothing.
+ * </p>
+ *
+ * <p>
+ * Boards play Conway's Game of Life unless given another {@link Rule}.
+ * Conway's rule has its own short adder network; any other rule adds the
+ * neighbors up into the four bits of the count, bit-sliced across the word,
+ * and picks the cells whose state and count the rule keeps alive.
+ * </p>
+ *
+ * <p>
+ * The words are kept on the heap unless the board is made with
+ * {@link #offHeap(int, int)} or {@link #mapped(int, int, Path)}, which keep
+ * them in direct or memory-mapped buffers instead. The engines tick either
+ * kind the same way; off the heap, a board of any size leaves the heap and
+ * the garbage collector's work unchanged.
+ * </p>
+ */
+public final class PackedBoard implements LifeEngine {
+
+    /**
+     * Number of cells packed in one word.
+     */
+    public static final int WORD_BITS = Long.SIZE;
+
+    /**
+     * log2 of WORD_BITS, used to turn a column into a word index.
+     */
+    private static final int WORD_SHIFT = 6;
+
+    /**
+     * Mask that turns a column into a bit index inside its word.
+     */
+    private static final int BIT_MASK = WORD_BITS - 1;
+
+    /**
+     * 2^64 divided by the golden ratio, to spread word indexes.
+     */
+    static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    /**
+     * First multiplier of the SplitMix64 finalizer.
+     */
+    static final long MIX1 = 0xBF58476D1CE4E5B9L;
+
+    /**
+     * Second multiplier of the SplitMix64 finalizer.
+     */
+    static final long MIX2 = 0x94D049BB133111EBL;
+
+    /**
+     * First shift of the SplitMix64 finalizer.
+     */
+    static final int SHIFT1 = 30;
+
+    /**
+     * Second shift of the SplitMix64 finalizer.
+     */
+    static final int SHIFT2 = 27;
+
+    /**
+     * Third shift of the SplitMix64 finalizer.
+     */
+    static final int SHIFT3 = 31;
+
+    /**
+     * Number of columns.
+     */
+    private final int width;
+
+    /**
+     * Number of rows.
+     */
+    private final int height;
+
+    /**
+     * Number of words holding one row.
+     */
+    private final int wordsPerRow;
+
+    /**
+     * Bit index of the last column inside the last word of a row.
+     */
+    private final int lastBit;
+
+    /**
+     * Mask of the bits of the last word of a row that are on the board.
+     */
+    private final long lastMask;
+
+    /**
+     * Number of words a row takes in the arrays, with its halo words.
+     */
+    private final int stride;
+
+    /**
+     * The current generation, row after row, with the halo around it.
+     */
+    private WordStore cells;
+
+    /**
+     * Buffer the next generation is computed into.
+     */
+    private WordStore next;
+
+    /**
+     * Number of generations computed so far.
+     */
+    private long generation;
+
+    /**
+     * Hash of the current generation.
+     */
+    private long hash;
+
+    /**
+     * The rule the board plays.
+     */
+    private Rule rule = Rule.CONWAY;
+
+    /**
+     * Whether the rule is Conway's, which has a faster path.
+     */
+    private boolean conway = true;
+
+    /**
+     * What lies past the edges.
+     */
+    private Boundary boundary = Boundary.TORUS;
+
+    /**
+     * For each neighbor count, all ones if the rule brings a dead cell with
+     * that count to life, else 0.
+     */
+    private final long[] birthFill = new long[Rule.MAX_NEIGHBORS + 1];
+
+    /**
+     * For each neighbor count, all ones if the rule keeps a live cell with
+     * that count alive, else 0.
+     */
+    private final long[] survivalFill = new long[Rule.MAX_NEIGHBORS + 1];
+
+    /**
+     * Makes empty boards of a given size, keeping their words in one place.
+     */
+    @FunctionalInterface
+    public interface Storage {
+
+        /**
+         * Keeps the words on the heap.
+         */
+        Storage HEAP = PackedBoard::new;
+
+        /**
+         * Keeps the words in direct buffers, off the heap.
+         */
+        Storage DIRECT = PackedBoard::offHeap;
+
+        /**
+         * Returns the storage that keeps the words in a file mapped into
+         * memory.
+         *
+         * @param file
+         *            the scratch file
+         * @return the storage
+         */
+        static Storage mappedTo(Path file) {
+            return (width, height) -> mapped(width, height, file);
+        }
+
+        /**
+         * Creates an empty board.
+         *
+         * @param width
+         *            the number of columns
+         * @param height
+         *            the number of rows
+         * @return the board
+         * @throws IOException
+         *             if the storage cannot be set up
+         * @requires width > 0 and height > 0
+         */
+        PackedBoard create(int width, int height) throws IOException;
+    }
+
+    /**
+     * Creates an empty board on the heap.
+     *
+     * @param width
+     *            the number of columns
+     * @param height
+     *            the number of rows
+     * @throws IllegalArgumentException
+     *             if the board has more than 2^31 - 1 words
+     * @requires width > 0 and height > 0
+     */
+    public PackedBoard(int width, int height) {
+        this(width, height, new HeapWords(storeSize(width, height)),
+                new HeapWords(storeSize(width, height)));
+    }
+
+    /**
+     * Creates an empty board over the given stores.
+     *
+     * @param width
+     *            the number of columns
+     * @param height
+     *            the number of rows
+     * @param cells
+     *            the store of the current generation, all zero
+     * @param next
+     *            the store of the next generation
+     * @requires width > 0 and height > 0 and [both stores have
+     *           storeSize(width, height) words]
+     */
+    private PackedBoard(int width, int height, WordStore cells,
+            WordStore next) {
+        assert width > 0 : "Violation of: width > 0";
+        assert height > 0 : "Violation of: height > 0";
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + BIT_MASK) >>> WORD_SHIFT;
+        this.lastBit = (width - 1) & BIT_MASK;
+        this.lastMask = -1L >>> (BIT_MASK - this.lastBit);
+        this.stride = this.wordsPerRow + 2;
+        this.cells = cells;
+        this.next = next;
+        this.setRule(Rule.CONWAY);
+    }
+
+    /**
+     * Returns the number of words a store of a board needs, halo included.
+     *
+     * @param width
+     *            the number of columns
+     * @param height
+     *            the number of rows
+     * @return the number of words
+     * @throws IllegalArgumentException
+     *             if the board has more than 2^31 - 1 words
+     */
+    private static int storeSize(int width, int height) {
+        long words = ((long) width + BIT_MASK >>> WORD_SHIFT) + 2;
+        long size = words * (height + 2L);
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "A " + width + " x " + height + " board is too big");
+        }
+        return (int) size;
+    }
+
+    /**
+     * Creates an empty board whose words are kept in direct buffers, off
+     * the heap.
+     *
+     * @param width
+     *            the number of columns
+     * @param height
+     *            the number of rows
+     * @return the board
+     * @throws IllegalArgumentException
+     *             if the board has more than 2^31 - 1 words
+     * @requires width > 0 and height > 0
+     */
+    public static PackedBoard offHeap(int width, int height) {
+        int size = storeSize(width, height);
+        return new PackedBoard(width, height, OffHeapWords.allocate(size),
+                OffHeapWords.allocate(size));
+    }
+
+    /**
+     * Creates an empty board whose words are kept in a file mapped into
+     * memory, so the operating system pages them in and out as needed. The
+     * file is scratch space holding both generations, in no set format, and
+     * is cleared first; save the board with {@link BoardSnapshot} to keep
+     * it.
+     *
+     * @param width
+     *            the number of columns
+     * @param height
+     *            the number of rows
+     * @param file
+     *            the file, created if needed
+     * @return the board
+     * @throws IOException
+     *             if the file cannot be created or mapped
+     * @throws IllegalArgumentException
+     *             if the board has more than 2^31 - 1 words
+     * @requires width > 0 and height > 0
+     */
+    public static PackedBoard mapped(int width, int height, Path file)
+            throws IOException {
+        int size = storeSize(width, height);
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            channel.truncate(0);
+            return new PackedBoard(width, height,
+                    OffHeapWords.map(channel, 0, size), OffHeapWords
+                            .map(channel, (long) size * Long.BYTES, size));
+        }
+    }
+
+    /**
+     * Reports whether the words of the board are kept off the heap.
+     *
+     * @return true iff the board was made by offHeap or mapped
+     */
+    public boolean isOffHeap() {
+        return this.cells instanceof OffHeapWords;
+    }
+
+    /**
+     * Creates a board holding the same cells as grid.
+     *
+     * @param grid
+     *            the game board
+     * @return the packed board
+     * @requires grid is rectangular and not empty
+     */
+    public static PackedBoard fromGrid(boolean[][] grid) {
+        PackedBoard board = new PackedBoard(grid[0].length, grid.length);
+        for (int row = 0; row < grid.length; row++) {
+            for (int column = 0; column < grid[row].length; column++) {
+                if (grid[row][column]) {
+                    board.setAlive(row, column, true);
+                }
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Unpacks the board into a grid like the one used by
+     * {@link GameOfLifeV2}.
+     *
+     * @return a new grid holding the current generation
+     */
+    public boolean[][] toGrid() {
+        boolean[][] grid = new boolean[this.height][this.width];
+        for (int row = 0; row < this.height; row++) {
+            for (int column = 0; column < this.width; column++) {
+                grid[row][column] = this.isAlive(row, column);
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Returns the number of columns.
+     *
+     * @return the width of the board
+     */
+    @Override
+    public int width() {
+        return this.width;
+    }
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return the height of the board
+     */
+    @Override
+    public int height() {
+        return this.height;
+    }
+
+    /**
+     * Returns the number of words holding one row.
+     *
+     * @return the number of words per row
+     */
+    public int wordsPerRow() {
+        return this.wordsPerRow;
+    }
+
+    /**
+     * Returns the number of generations computed so far.
+     *
+     * @return the generation number
+     */
+    @Override
+    public long generation() {
+        return this.generation;
+    }
+
+    /**
+     * Sets the generation number, for a board that resumes an earlier run.
+     *
+     * @param generation
+     *            the number of generations already computed
+     * @replaces this.generation
+     */
+    public void setGeneration(long generation) {
+        this.generation = generation;
+    }
+
+    /**
+     * Returns the rule the board plays.
+     *
+     * @return the rule
+     */
+    @Override
+    public Rule rule() {
+        return this.rule;
+    }
+
+    /**
+     * Sets the rule the board plays from the next tick on.
+     *
+     * @param newRule
+     *            the rule
+     * @replaces this.rule
+     */
+    public void setRule(Rule newRule) {
+        this.rule = newRule;
+        this.conway = newRule.isConway();
+        for (int n = 0; n <= Rule.MAX_NEIGHBORS; n++) {
+            this.birthFill[n] = -((newRule.births() >>> n) & 1L);
+            this.survivalFill[n] = -((newRule.survivals() >>> n) & 1L);
+        }
+    }
+
+    /**
+     * Returns what lies past the edges.
+     *
+     * @return the boundary
+     */
+    @Override
+    public Boundary boundary() {
+        return this.boundary;
+    }
+
+    /**
+     * Sets what lies past the edges from the next tick on.
+     *
+     * @param newBoundary
+     *            the boundary
+     * @replaces this.boundary
+     */
+    public void setBoundary(Boundary newBoundary) {
+        this.boundary = newBoundary;
+    }
+
+    /**
+     * Returns the index in the arrays of a word of the board.
+     *
+     * @param row
+     *            the row
+     * @param wordIndex
+     *            which word of the row
+     * @return the index, past the halo
+     */
+    int index(int row, int wordIndex) {
+        return (row + 1) * this.stride + wordIndex + 1;
+    }
+
+    /**
+     * Returns the number of words from one row to the next in the arrays,
+     * halo included.
+     *
+     * @return the stride
+     */
+    int stride() {
+        return this.stride;
+    }
+
+    /**
+     * Returns the array holding the current generation, laid out as
+     * {@link #index(int, int)} says, for engines that work on many words at
+     * once.
+     *
+     * @return the array, or null if the board is kept off the heap
+     */
+    long[] frontArray() {
+        return array(this.cells);
+    }
+
+    /**
+     * Returns the array the next generation is computed into, laid out as
+     * {@link #index(int, int)} says.
+     *
+     * @return the array, or null if the board is kept off the heap
+     */
+    long[] backArray() {
+        return array(this.next);
+    }
+
+    /**
+     * Returns the array behind a store.
+     *
+     * @param store
+     *            the store
+     * @return its array, or null if it is not on the heap
+     */
+    private static long[] array(WordStore store) {
+        long[] words = null;
+        if (store instanceof HeapWords) {
+            words = ((HeapWords) store).array();
+        }
+        return words;
+    }
+
+    /**
+     * Reports whether the cell at (row, column) is alive.
+     *
+     * @param row
+     *            the row of the cell
+     * @param column
+     *            the column of the cell
+     * @return true iff the cell is alive
+     * @requires 0 <= row < height and 0 <= column < width
+     */
+    @Override
+    public boolean isAlive(int row, int column) {
+        long word = this.cells.get(this.index(row, column >>> WORD_SHIFT));
+        return ((word >>> (column & BIT_MASK)) & 1L) != 0;
+    }
+
+    /**
+     * Sets the cell at (row, column) alive or dead.
+     *
+     * @param row
+     *            the row of the cell
+     * @param column
+     *            the column of the cell
+     * @param alive
+     *            the new state of the cell
+     * @requires 0 <= row < height and 0 <= column < width
+     */
+    public void setAlive(int row, int column, boolean alive) {
+        int wordIndex = column >>> WORD_SHIFT;
+        int index = this.index(row, wordIndex);
+        int hashIndex = row * this.wordsPerRow + wordIndex;
+        long bit = 1L << (column & BIT_MASK);
+        long old = this.cells.get(index);
+        long word = old & ~bit;
+        if (alive) {
+            word |= bit;
+        }
+        this.cells.set(index, word);
+        this.hash ^= mix(hashIndex, old) ^ mix(hashIndex, word);
+    }
+
+    /**
+     * Returns 64 cells of a row packed in a word.
+     *
+     * @param row
+     *            the row
+     * @param wordIndex
+     *            which word of the row; it holds columns starting at
+     *            64 * wordIndex
+     * @return the packed cells
+     * @requires 0 <= row < height and 0 <= wordIndex < wordsPerRow
+     */
+    @Override
+    public long word(int row, int wordIndex) {
+        return this.cells.get(this.index(row, wordIndex));
+    }
+
+    /**
+     * Replaces 64 cells of a row. Bits of the last word past the right edge
+     * of the board are dropped.
+     *
+     * @param row
+     *            the row
+     * @param wordIndex
+     *            which word of the row; it holds columns starting at
+     *            64 * wordIndex
+     * @param word
+     *            the packed cells
+     * @requires 0 <= row < height and 0 <= wordIndex < wordsPerRow
+     */
+    public void setWord(int row, int wordIndex, long word) {
+        long cellsOnBoard = word;
+        if (wordIndex == this.wordsPerRow - 1) {
+            cellsOnBoard &= this.lastMask;
+        }
+        int index = this.index(row, wordIndex);
+        int hashIndex = row * this.wordsPerRow + wordIndex;
+        this.hash ^= mix(hashIndex, this.cells.get(index))
+                ^ mix(hashIndex, cellsOnBoard);
+        this.cells.set(index, cellsOnBoard);
+    }
+
+    /**
+     * Makes this board a copy of the current generation of another board of
+     * the same size, including its generation number, rule and boundary.
+     *
+     * @param source
+     *            the board to copy
+     * @replaces this
+     * @requires source.width = width and source.height = height
+     */
+    public void copyFrom(LifeEngine source) {
+        assert source.width() == this.width : "Violation of: same width";
+        assert source.height() == this.height : "Violation of: same height";
+        if (source instanceof PackedBoard) {
+            this.cells.copyFrom(((PackedBoard) source).cells);
+        } else {
+            for (int row = 0; row < this.height; row++) {
+                int base = this.index(row, 0);
+                for (int w = 0; w < this.wordsPerRow; w++) {
+                    this.cells.set(base + w, source.word(row, w));
+                }
+            }
+        }
+        this.generation = source.generation();
+        this.hash = source.hash();
+        this.setRule(source.rule());
+        this.boundary = source.boundary();
+    }
+
+    /**
+     * Mixes a word of a board with its index into a hash. The hash of a board
+     * is the XOR of this over all of its words, so it can be updated one word
+     * at a time. Empty words mix to 0, so empty space costs nothing.
+     *
+     * @param index
+     *            the index of the word, row * wordsPerRow + word index
+     * @param word
+     *            the packed cells
+     * @return the hash of the word at that index
+     */
+    static long mix(int index, long word) {
+        if (word == 0) {
+            return 0;
+        }
+        long z = word ^ (index * GOLDEN);
+        z = (z ^ (z >>> SHIFT1)) * MIX1;
+        z = (z ^ (z >>> SHIFT2)) * MIX2;
+        return z ^ (z >>> SHIFT3);
+    }
+
+    /**
+     * Returns a hash of the current generation.
+     *
+     * @return the hash
+     */
+    @Override
+    public long hash() {
+        return this.hash;
+    }
+
+    /**
+     * Counts the live cells.
+     *
+     * @return the number of live cells
+     */
+    @Override
+    public long population() {
+        long count = 0;
+        for (int row = 0; row < this.height; row++) {
+            int base = this.index(row, 0);
+            for (int w = 0; w < this.wordsPerRow; w++) {
+                count += Long.bitCount(this.cells.get(base + w));
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Computes the next generation.
+     */
+    @Override
+    public void tick() {
+        this.fillHalo();
+        this.swapBuffers(this.computeRows(0, this.height));
+    }
+
+    /**
+     * Fills the halo of the current generation as the boundary calls for.
+     * Call it before computing any rows of the next generation.
+     */
+    void fillHalo() {
+        WordStore c = this.cells;
+        for (int row = 0; row < this.height; row++) {
+            int base = this.index(row, 0);
+            long first = c.get(base) & 1L;
+            long last = (c.get(base + this.wordsPerRow - 1) >>> this.lastBit)
+                    & 1L;
+            long left;
+            long right;
+            switch (this.boundary) {
+                case TORUS:
+                    left = last;
+                    right = first;
+                    break;
+                case REFLECT:
+                    left = first;
+                    right = last;
+                    break;
+                default:
+                    left = 0;
+                    right = 0;
+                    break;
+            }
+            c.set(base - 1, left << BIT_MASK);
+            c.set(base + this.wordsPerRow, right);
+        }
+        // whole rows, so the corners come from the columns filled above
+        int first = this.stride;
+        int last = this.height * this.stride;
+        int bottom = (this.height + 1) * this.stride;
+        for (int k = 0; k < this.stride; k++) {
+            switch (this.boundary) {
+                case TORUS:
+                    c.set(k, c.get(last + k));
+                    c.set(bottom + k, c.get(first + k));
+                    break;
+                case REFLECT:
+                    c.set(k, c.get(first + k));
+                    c.set(bottom + k, c.get(last + k));
+                    break;
+                default:
+                    c.set(k, 0);
+                    c.set(bottom + k, 0);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Computes the next generation of rows [fromRow, toRow) into the back
+     * buffer. The current generation is only read, so disjoint row ranges can
+     * be computed at the same time once {@link #fillHalo()} has run.
+     *
+     * @param fromRow
+     *            the first row to compute
+     * @param toRow
+     *            one past the last row to compute
+     * @return the XOR of {@link #mix(int, long)} over the words computed
+     * @requires 0 <= fromRow <= toRow <= height
+     */
+    long computeRows(int fromRow, int toRow) {
+        long rowsHash = 0;
+        for (int row = fromRow; row < toRow; row++) {
+            int base = this.index(row, 0);
+            int hashBase = row * this.wordsPerRow;
+            for (int w = 0; w < this.wordsPerRow; w++) {
+                long word = this.evolveWord(row, w);
+                this.next.set(base + w, word);
+                rowsHash ^= mix(hashBase + w, word);
+            }
+        }
+        return rowsHash;
+    }
+
+    /**
+     * Returns a word of the back buffer. Between ticks the back buffer holds
+     * the previous generation.
+     *
+     * @param row
+     *            the row
+     * @param wordIndex
+     *            which word of the row
+     * @return the packed cells
+     * @requires 0 <= row < height and 0 <= wordIndex < wordsPerRow
+     */
+    long backWord(int row, int wordIndex) {
+        return this.next.get(this.index(row, wordIndex));
+    }
+
+    /**
+     * Writes a word of the back buffer.
+     *
+     * @param row
+     *            the row
+     * @param wordIndex
+     *            which word of the row
+     * @param word
+     *            the packed cells
+     * @requires 0 <= row < height and 0 <= wordIndex < wordsPerRow
+     */
+    void setBackWord(int row, int wordIndex, long word) {
+        this.next.set(this.index(row, wordIndex), word);
+    }
+
+    /**
+     * Makes the back buffer the current generation once every row of it has
+     * been computed.
+     *
+     * @param newHash
+     *            the hash of the back buffer
+     */
+    void swapBuffers(long newHash) {
+        WordStore tmp = this.cells;
+        this.cells = this.next;
+        this.next = tmp;
+        this.generation++;
+        this.hash = newHash;
+    }
+
+    /**
+     * Computes the next generation of one word of the board. The halo must
+     * have been filled.
+     *
+     * @param row
+     *            the row of the word
+     * @param w
+     *            the index of the word in the row
+     * @return the next generation of the 64 cells of the word
+     * @requires 0 <= row < height and 0 <= w < wordsPerRow
+     */
+    long evolveWord(int row, int w) {
+        WordStore cells = this.cells;
+        int i = this.index(row, w);
+        int up = i - this.stride;
+        int down = i + this.stride;
+        // the cell right of the last column lands past the last bit of the
+        // last word, and the bits past it must stay clear
+        int eastShift = BIT_MASK;
+        long onBoard = -1L;
+        if (w == this.wordsPerRow - 1) {
+            eastShift = this.lastBit;
+            onBoard = this.lastMask;
+        }
+
+        // each bit of west holds the cell left of the same bit of c, and so
+        // on; the halo supplies the cells past the edges
+        long n = cells.get(up);
+        long nw = (n << 1) | (cells.get(up - 1) >>> BIT_MASK);
+        long ne = (n >>> 1) | (cells.get(up + 1) << eastShift);
+        long c = cells.get(i);
+        long west = (c << 1) | (cells.get(i - 1) >>> BIT_MASK);
+        long east = (c >>> 1) | (cells.get(i + 1) << eastShift);
+        long s = cells.get(down);
+        long sw = (s << 1) | (cells.get(down - 1) >>> BIT_MASK);
+        long se = (s >>> 1) | (cells.get(down + 1) << eastShift);
+
+        // full adders over the row above and the row below, half adder over
+        // the two side neighbors
+        long upSum = nw ^ n ^ ne;
+        long upCarry = (nw & n) | (ne & (nw ^ n));
+        long downSum = sw ^ s ^ se;
+        long downCarry = (sw & s) | (se & (sw ^ s));
+        long midSum = west ^ east;
+        long midCarry = west & east;
+
+        // the ones bit of the neighbor count and its carry into the twos
+        long ones = upSum ^ downSum ^ midSum;
+        long onesCarry = (upSum & downSum) | (midSum & (upSum ^ downSum));
+
+        // the four twos add up to a ^ b plus twice the rest
+        long a = upCarry ^ downCarry;
+        long b = midCarry ^ onesCarry;
+        long bothUpDown = upCarry & downCarry;
+        long bothMid = midCarry & onesCarry;
+
+        long result;
+        if (this.conway) {
+            // the count is 2 or 3 iff exactly one of the four twos is set
+            long exactlyOneTwo = (a ^ b) & ~(bothUpDown | bothMid);
+            result = exactlyOneTwo & (ones | c);
+        } else {
+            // at most two of bothUpDown, bothMid and a & b are set, and
+            // only bothUpDown and bothMid together
+            long twos = a ^ b;
+            long fours = bothUpDown ^ bothMid ^ (a & b);
+            long eights = bothUpDown & bothMid;
+            result = 0;
+            for (int count = 0; count <= Rule.MAX_NEIGHBORS; count++) {
+                long match = ~(ones ^ -(count & 1L))
+                        & ~(twos ^ -((count >>> 1) & 1L))
+                        & ~(fours ^ -((count >>> 2) & 1L))
+                        & ~(eights ^ -((count >>> 3) & 1L));
+                result |= match & ((this.birthFill[count] & ~c)
+                        | (this.survivalFill[count] & c));
+            }
+        }
+        return result & onBoard;
+    }
+
+}
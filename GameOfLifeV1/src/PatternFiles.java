@@ -0,0 +1,447 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads and writes the two common Game of Life pattern formats: run length
+ * encoded (.rle) and plaintext (.cells). Patterns are streamed a character at
+ * a time straight into the board, or out of it a word at a time, so even very
+ * large pattern files need no more memory than the board itself.
+ */
+public final class PatternFiles {
+
+    /**
+     * Longest line of the RLE files written.
+     */
+    private static final int RLE_LINE = 70;
+
+    /**
+     * Radix of the run counts.
+     */
+    private static final int RADIX = 10;
+
+    /**
+     * Default constructor--private to prevent instantiation.
+     */
+    private PatternFiles() {
+        // no code needed here
+    }
+
+    /**
+     * Reports whether a file name is one of the pattern formats.
+     *
+     * @param name
+     *            the file name
+     * @return true iff it ends with .rle or .cells
+     */
+    public static boolean isPatternFile(String name) {
+        return name.endsWith(".rle") || name.endsWith(".cells");
+    }
+
+    /**
+     * Places a pattern file on a board, reading the format its name ends
+     * with.
+     *
+     * @param path
+     *            the .rle or .cells file
+     * @param board
+     *            the board
+     * @param top
+     *            the row the top of the pattern goes to
+     * @param left
+     *            the column the left of the pattern goes to
+     * @return the rule named in an RLE header, or null if there is none
+     * @throws IOException
+     *             if the file cannot be read or is malformed
+     * @throws IllegalArgumentException
+     *             if the pattern does not fit the board at (top, left)
+     * @updates board
+     */
+    public static Rule read(Path path, PackedBoard board, int top, int left)
+            throws IOException {
+        Rule rule = null;
+        try (BufferedReader in = Files.newBufferedReader(path,
+                StandardCharsets.UTF_8)) {
+            if (path.toString().endsWith(".cells")) {
+                readCells(in, board, top, left);
+            } else {
+                rule = readRle(in, board, top, left);
+            }
+        }
+        return rule;
+    }
+
+    /**
+     * Brings a live cell of a pattern to life.
+     *
+     * @param board
+     *            the board
+     * @param row
+     *            the row of the cell
+     * @param column
+     *            the column of the cell
+     * @throws IllegalArgumentException
+     *             if the cell is off the board
+     * @updates board
+     */
+    private static void place(PackedBoard board, int row, int column) {
+        if (row < 0 || row >= board.height() || column < 0
+                || column >= board.width()) {
+            throw new IllegalArgumentException("Pattern does not fit the "
+                    + board.width() + " x " + board.height() + " board");
+        }
+        board.setAlive(row, column, true);
+    }
+
+    /**
+     * Places a pattern in RLE format on a board. The rule in the header is
+     * returned rather than set on the board, so the caller decides which
+     * rule to play; a bounded-grid suffix such as ":T100,100" is ignored.
+     *
+     * @param in
+     *            the pattern, from the start
+     * @param board
+     *            the board
+     * @param top
+     *            the row the top of the pattern goes to
+     * @param left
+     *            the column the left of the pattern goes to
+     * @return the rule named in the header, or null if there is none
+     * @throws IOException
+     *             if reading fails or the pattern is malformed
+     * @throws IllegalArgumentException
+     *             if the pattern does not fit the board at (top, left)
+     * @updates board
+     */
+    public static Rule readRle(BufferedReader in, PackedBoard board, int top,
+            int left) throws IOException {
+        String header = in.readLine();
+        while (header != null
+                && (header.startsWith("#") || header.isBlank())) {
+            header = in.readLine();
+        }
+        if (header == null || !header.trim().startsWith("x")) {
+            throw new IOException("RLE pattern has no header line");
+        }
+        int width = 0;
+        int height = 0;
+        Rule rule = null;
+        try {
+            for (String item : header.split(",")) {
+                String[] pair = item.split("=");
+                String key = pair[0].trim();
+                if (key.equals("x")) {
+                    width = Integer.parseInt(pair[1].trim());
+                } else if (key.equals("y")) {
+                    height = Integer.parseInt(pair[1].trim());
+                } else if (key.equals("rule")) {
+                    rule = Rule.parse(pair[1].split(":")[0]);
+                }
+            }
+        } catch (IllegalArgumentException
+                | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Bad RLE header: " + header, e);
+        }
+        if (top < 0 || left < 0 || top + height > board.height()
+                || left + width > board.width()) {
+            throw new IllegalArgumentException("A " + width + " x " + height
+                    + " pattern does not fit the " + board.width() + " x "
+                    + board.height() + " board at " + top + ", " + left);
+        }
+
+        int row = top;
+        int column = left;
+        int count = 0;
+        int c = in.read();
+        while (c >= 0 && c != '!') {
+            if (c >= '0' && c <= '9') {
+                count = count * RADIX + (c - '0');
+            } else if (!Character.isWhitespace(c)) {
+                int run = Math.max(count, 1);
+                count = 0;
+                if (c == '$') {
+                    row += run;
+                    column = left;
+                } else if (c == 'b' || c == '.') {
+                    column += run;
+                } else if (Character.isLetter(c)) {
+                    // every state but b is alive in this two-state game
+                    for (int i = 0; i < run; i++) {
+                        place(board, row, column);
+                        column++;
+                    }
+                } else {
+                    throw new IOException(
+                            "Unexpected '" + (char) c + "' in RLE pattern");
+                }
+            }
+            c = in.read();
+        }
+        return rule;
+    }
+
+    /**
+     * Places a pattern in plaintext (.cells) format on a board: one line per
+     * row, 'O' or '*' for a live cell, '.' for a dead one, and comment lines
+     * starting with '!'.
+     *
+     * @param in
+     *            the pattern, from the start
+     * @param board
+     *            the board
+     * @param top
+     *            the row the top of the pattern goes to
+     * @param left
+     *            the column the left of the pattern goes to
+     * @throws IOException
+     *             if reading fails or the pattern is malformed
+     * @throws IllegalArgumentException
+     *             if the pattern does not fit the board at (top, left)
+     * @updates board
+     */
+    public static void readCells(BufferedReader in, PackedBoard board,
+            int top, int left) throws IOException {
+        int row = top;
+        int column = left;
+        boolean lineStart = true;
+        boolean comment = false;
+        int c = in.read();
+        while (c >= 0) {
+            if (c == '\n') {
+                if (!comment) {
+                    row++;
+                }
+                column = left;
+                lineStart = true;
+                comment = false;
+            } else if (lineStart && c == '!') {
+                comment = true;
+                lineStart = false;
+            } else if (!comment && c != '\r') {
+                lineStart = false;
+                if (c == 'O' || c == '*') {
+                    place(board, row, column);
+                } else if (c != '.') {
+                    throw new IOException("Unexpected '" + (char) c
+                            + "' in plaintext pattern");
+                }
+                column++;
+            }
+            c = in.read();
+        }
+    }
+
+    /**
+     * Writes a board in plaintext (.cells) format, one line per row with
+     * the trailing dead cells left out.
+     *
+     * @param board
+     *            the board
+     * @param out
+     *            where to write
+     * @throws IOException
+     *             if writing fails
+     */
+    public static void writeCells(LifeEngine board, Writer out)
+            throws IOException {
+        int words = (board.width() + Long.SIZE - 1) / Long.SIZE;
+        for (int row = 0; row < board.height(); row++) {
+            // columns of dead cells not yet written, kept back in case the
+            // row has no more live cells
+            int dead = 0;
+            for (int w = 0; w < words; w++) {
+                long word = board.word(row, w);
+                int count = Math.min(Long.SIZE, board.width() - w * Long.SIZE);
+                if (word == 0) {
+                    dead += count;
+                } else {
+                    for (int b = 0; b < count; b++) {
+                        if (((word >>> b) & 1L) == 0) {
+                            dead++;
+                        } else {
+                            for (; dead > 0; dead--) {
+                                out.write('.');
+                            }
+                            out.write('O');
+                        }
+                    }
+                }
+            }
+            out.write('\n');
+        }
+    }
+
+    /**
+     * Writes the runs of an RLE body, wrapping lines and holding back runs
+     * that may turn out to be unneeded.
+     */
+    private static final class RleOutput {
+
+        /**
+         * Where to write.
+         */
+        private final Writer out;
+
+        /**
+         * Length of the line being written.
+         */
+        private int lineLength;
+
+        /**
+         * Rows ended but not yet written, because no live cell followed yet.
+         */
+        private int endedRows;
+
+        /**
+         * Dead cells not yet written, because no live cell followed yet.
+         */
+        private int dead;
+
+        /**
+         * Live cells not yet written, because the run may go on.
+         */
+        private int alive;
+
+        /**
+         * Creates the output.
+         *
+         * @param out
+         *            where to write
+         */
+        RleOutput(Writer out) {
+            this.out = out;
+        }
+
+        /**
+         * Writes one run, starting a new line first if it does not fit.
+         *
+         * @param count
+         *            the length of the run
+         * @param tag
+         *            'b', 'o' or '$'
+         * @throws IOException
+         *             if writing fails
+         */
+        private void writeRun(int count, char tag) throws IOException {
+            String digits = "";
+            if (count > 1) {
+                digits = Integer.toString(count);
+            }
+            if (this.lineLength + digits.length() + 1 > RLE_LINE) {
+                this.out.write('\n');
+                this.lineLength = 0;
+            }
+            this.out.write(digits);
+            this.out.write(tag);
+            this.lineLength += digits.length() + 1;
+        }
+
+        /**
+         * Writes the pending live run, if any.
+         *
+         * @throws IOException
+         *             if writing fails
+         */
+        private void flushAlive() throws IOException {
+            if (this.alive > 0) {
+                this.writeRun(this.alive, 'o');
+                this.alive = 0;
+            }
+        }
+
+        /**
+         * Adds dead cells.
+         *
+         * @param count
+         *            the number of cells
+         * @throws IOException
+         *             if writing fails
+         */
+        void addDead(int count) throws IOException {
+            this.flushAlive();
+            this.dead += count;
+        }
+
+        /**
+         * Adds a live cell.
+         *
+         * @throws IOException
+         *             if writing fails
+         */
+        void addAlive() throws IOException {
+            if (this.endedRows > 0) {
+                this.writeRun(this.endedRows, '$');
+                this.endedRows = 0;
+            }
+            if (this.dead > 0) {
+                this.writeRun(this.dead, 'b');
+                this.dead = 0;
+            }
+            this.alive++;
+        }
+
+        /**
+         * Ends a row; its trailing dead cells are dropped.
+         *
+         * @throws IOException
+         *             if writing fails
+         */
+        void endRow() throws IOException {
+            this.flushAlive();
+            this.dead = 0;
+            this.endedRows++;
+        }
+
+        /**
+         * Ends the pattern.
+         *
+         * @throws IOException
+         *             if writing fails
+         */
+        void end() throws IOException {
+            this.flushAlive();
+            this.out.write("!\n");
+        }
+    }
+
+    /**
+     * Writes a board in RLE format, with the rule it plays.
+     *
+     * @param board
+     *            the board
+     * @param out
+     *            where to write
+     * @throws IOException
+     *             if writing fails
+     */
+    public static void writeRle(LifeEngine board, Writer out)
+            throws IOException {
+        out.write("x = " + board.width() + ", y = " + board.height()
+                + ", rule = " + board.rule() + "\n");
+        RleOutput body = new RleOutput(out);
+        int words = (board.width() + Long.SIZE - 1) / Long.SIZE;
+        for (int row = 0; row < board.height(); row++) {
+            for (int w = 0; w < words; w++) {
+                long word = board.word(row, w);
+                int count = Math.min(Long.SIZE, board.width() - w * Long.SIZE);
+                if (word == 0) {
+                    body.addDead(count);
+                } else {
+                    for (int b = 0; b < count; b++) {
+                        if (((word >>> b) & 1L) == 0) {
+                            body.addDead(1);
+                        } else {
+                            body.addAlive();
+                        }
+                    }
+                }
+            }
+            body.endRow();
+        }
+        body.end();
+    }
+
+}
@@ -0,0 +1,265 @@
+/**
+ * An outer-totalistic rule of a two-state life-like game: whether a cell is
+ * alive in the next generation depends only on whether it is alive now and
+ * on how many of its eight neighbors are. Rules are written in B/S notation,
+ * the counts that bring a dead cell to life after B and the counts that keep
+ * a live cell alive after S: Conway's Game of Life is B3/S23.
+ *
+ * <p>
+ * A rule is compiled once into a table indexed by state and neighbor count,
+ * so applying it to a cell is a single array lookup whatever the rule.
+ * Rules are immutable.
+ * </p>
+ */
+public final class Rule {
+
+    /**
+     * Most neighbors a cell can have.
+     */
+    public static final int MAX_NEIGHBORS = 8;
+
+    /**
+     * Number of possible neighbor counts, 0 to 8.
+     */
+    private static final int COUNTS = MAX_NEIGHBORS + 1;
+
+    /**
+     * Mask of the neighbor counts a rule can name.
+     */
+    private static final int ALL_COUNTS = (1 << COUNTS) - 1;
+
+    /**
+     * Conway's Game of Life, B3/S23.
+     */
+    public static final Rule CONWAY = new Rule(1 << 3, (1 << 2) | (1 << 3));
+
+    /**
+     * Births: bit n is set iff a dead cell with n live neighbors is born.
+     */
+    private final int births;
+
+    /**
+     * Survivals: bit n is set iff a live cell with n live neighbors stays
+     * alive.
+     */
+    private final int survivals;
+
+    /**
+     * The next state of a cell, at index state * 9 + neighbors where state is
+     * 1 for a live cell and 0 for a dead one.
+     */
+    private final boolean[] table = new boolean[2 * COUNTS];
+
+    /**
+     * Creates a rule.
+     *
+     * @param births
+     *            bit n is set iff a dead cell with n neighbors is born
+     * @param survivals
+     *            bit n is set iff a live cell with n neighbors survives
+     */
+    private Rule(int births, int survivals) {
+        this.births = births;
+        this.survivals = survivals;
+        for (int n = 0; n < COUNTS; n++) {
+            this.table[n] = ((births >>> n) & 1) != 0;
+            this.table[COUNTS + n] = ((survivals >>> n) & 1) != 0;
+        }
+    }
+
+    /**
+     * Returns the rule with the given births and survivals.
+     *
+     * @param births
+     *            bit n is set iff a dead cell with n neighbors is born
+     * @param survivals
+     *            bit n is set iff a live cell with n neighbors survives
+     * @return the rule
+     * @throws IllegalArgumentException
+     *             if a bit past 8 is set
+     */
+    public static Rule of(int births, int survivals) {
+        if ((births & ~ALL_COUNTS) != 0 || (survivals & ~ALL_COUNTS) != 0) {
+            throw new IllegalArgumentException(
+                    "Neighbor counts go from 0 to " + MAX_NEIGHBORS);
+        }
+        Rule rule;
+        if (births == CONWAY.births && survivals == CONWAY.survivals) {
+            rule = CONWAY;
+        } else {
+            rule = new Rule(births, survivals);
+        }
+        return rule;
+    }
+
+    /**
+     * Reads a rule. Besides B/S notation such as "B36/S23" (in either order,
+     * either case, with or without the slash), this takes the older S/B
+     * notation "23/36" and the names life (or conway), highlife, daynight,
+     * seeds and maze.
+     *
+     * @param text
+     *            the rule
+     * @return the rule
+     * @throws IllegalArgumentException
+     *             if the text is not a rule
+     */
+    public static Rule parse(String text) {
+        String rule = text.trim().toUpperCase();
+        switch (rule) {
+            case "LIFE":
+            case "CONWAY":
+                rule = "B3/S23";
+                break;
+            case "HIGHLIFE":
+                rule = "B36/S23";
+                break;
+            case "DAYNIGHT":
+                rule = "B3678/S34678";
+                break;
+            case "SEEDS":
+                rule = "B2/S";
+                break;
+            case "MAZE":
+                rule = "B3/S12345";
+                break;
+            default:
+                break;
+        }
+
+        int births = 0;
+        int survivals = 0;
+        if (rule.indexOf('B') < 0 && rule.indexOf('S') < 0) {
+            // S/B notation: survivals, then births
+            int slash = rule.indexOf('/');
+            if (slash < 0) {
+                throw new IllegalArgumentException("Not a rule: " + text);
+            }
+            survivals = counts(rule.substring(0, slash), text);
+            births = counts(rule.substring(slash + 1), text);
+        } else {
+            String compact = rule.replace("/", "");
+            int b = compact.indexOf('B');
+            int s = compact.indexOf('S');
+            if (b < 0 || s < 0 || (b != 0 && s != 0)) {
+                throw new IllegalArgumentException("Not a rule: " + text);
+            }
+            if (b < s) {
+                births = counts(compact.substring(b + 1, s), text);
+                survivals = counts(compact.substring(s + 1), text);
+            } else {
+                survivals = counts(compact.substring(s + 1, b), text);
+                births = counts(compact.substring(b + 1), text);
+            }
+        }
+        return of(births, survivals);
+    }
+
+    /**
+     * Reads a list of neighbor counts such as "23".
+     *
+     * @param digits
+     *            the counts, one digit each
+     * @param text
+     *            the whole rule, for the error message
+     * @return a mask with bit n set for each count n in digits
+     * @throws IllegalArgumentException
+     *             if a character is not a digit from 0 to 8
+     */
+    private static int counts(String digits, String text) {
+        int mask = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            int n = digits.charAt(i) - '0';
+            if (n < 0 || n > MAX_NEIGHBORS) {
+                throw new IllegalArgumentException("Not a rule: " + text);
+            }
+            mask |= 1 << n;
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the next state of a cell.
+     *
+     * @param alive
+     *            whether the cell is alive now
+     * @param neighbors
+     *            how many of its neighbors are alive
+     * @return true iff the cell is alive in the next generation
+     * @requires 0 <= neighbors <= 8
+     */
+    public boolean next(boolean alive, int neighbors) {
+        return this.table[(alive ? COUNTS : 0) + neighbors];
+    }
+
+    /**
+     * Returns the births of the rule.
+     *
+     * @return a mask with bit n set iff a dead cell with n neighbors is born
+     */
+    public int births() {
+        return this.births;
+    }
+
+    /**
+     * Returns the survivals of the rule.
+     *
+     * @return a mask with bit n set iff a live cell with n neighbors
+     *         survives
+     */
+    public int survivals() {
+        return this.survivals;
+    }
+
+    /**
+     * Reports whether this is Conway's Game of Life, for engines that have a
+     * faster path for it.
+     *
+     * @return true iff the rule is B3/S23
+     */
+    public boolean isConway() {
+        return this.births == CONWAY.births
+                && this.survivals == CONWAY.survivals;
+    }
+
+    /**
+     * Returns the rule in B/S notation.
+     *
+     * @return the rule, such as "B3/S23"
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("B");
+        for (int n = 0; n < COUNTS; n++) {
+            if (((this.births >>> n) & 1) != 0) {
+                text.append(n);
+            }
+        }
+        text.append("/S");
+        for (int n = 0; n < COUNTS; n++) {
+            if (((this.survivals >>> n) & 1) != 0) {
+                text.append(n);
+            }
+        }
+        return text.toString();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof Rule)) {
+            return false;
+        }
+        Rule other = (Rule) obj;
+        return this.births == other.births
+                && this.survivals == other.survivals;
+    }
+
+    @Override
+    public int hashCode() {
+        return (this.births << COUNTS) | this.survivals;
+    }
+
+}
@@ -0,0 +1,211 @@
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs many independent {@link GameSession}s at once on a work-stealing
+ * fork/join pool. Each session runs in slices of about the same number of
+ * cell updates, however big its board, and after each slice goes to the back
+ * of its thread's queue, so every session gets its turn: a session with a
+ * huge budget cannot hold up the others, and idle threads steal the
+ * sessions waiting on busy ones, so every core stays busy for as long as
+ * there are sessions.
+ */
+public final class SessionServer implements AutoCloseable {
+
+    /**
+     * Cell updates per slice: enough that a slice of a small board costs
+     * much more than scheduling it, small enough that a slice takes well
+     * under a millisecond.
+     */
+    public static final long SLICE_CELLS = 1L << 20;
+
+    /**
+     * The threads.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Cell updates per slice.
+     */
+    private final long sliceCells;
+
+    /**
+     * The futures of the sessions submitted and not yet finished.
+     */
+    private final Set<CompletableFuture<GameSession>> running =
+            ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a server with the given number of threads and the default
+     * slice.
+     *
+     * @param parallelism
+     *            the number of threads
+     * @requires parallelism > 0
+     */
+    public SessionServer(int parallelism) {
+        this(parallelism, SLICE_CELLS);
+    }
+
+    /**
+     * Creates a server.
+     *
+     * @param parallelism
+     *            the number of threads
+     * @param sliceCells
+     *            cell updates per slice
+     * @requires parallelism > 0 and sliceCells > 0
+     */
+    public SessionServer(int parallelism, long sliceCells) {
+        assert sliceCells > 0 : "Violation of: sliceCells > 0";
+        // async mode: each thread takes its own queue first in, first out,
+        // so the sessions on it take turns
+        this.pool = new ForkJoinPool(parallelism,
+                ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        this.sliceCells = sliceCells;
+    }
+
+    /**
+     * One turn of a session; it runs a slice and, unless the session is
+     * finished, queues the next turn.
+     */
+    private final class Turn extends RecursiveAction {
+
+        /**
+         * Version of the serialized form, which ForkJoinTask has; turns are
+         * never serialized.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The session.
+         */
+        private final GameSession session;
+
+        /**
+         * Generations per slice of this session.
+         */
+        private final long slice;
+
+        /**
+         * Completed with the session once it is finished.
+         */
+        private final CompletableFuture<GameSession> done;
+
+        /**
+         * Creates the first turn of a session.
+         *
+         * @param session
+         *            the session
+         * @param slice
+         *            generations per slice
+         * @param done
+         *            the future to complete
+         */
+        Turn(GameSession session, long slice,
+                CompletableFuture<GameSession> done) {
+            this.session = session;
+            this.slice = slice;
+            this.done = done;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.done.isDone()) {
+                // cancelled
+                return;
+            }
+            try {
+                if (this.session.step(this.slice)) {
+                    // no longer active by the time anyone waiting hears
+                    SessionServer.this.running.remove(this.done);
+                    this.done.complete(this.session);
+                } else {
+                    new Turn(this.session, this.slice, this.done).fork();
+                }
+                // a thread empties its own queue before it looks at new
+                // submissions, so bring one into the turns here, or a busy
+                // thread would never get to them
+                ForkJoinTask<?> submitted = pollSubmission();
+                if (submitted != null) {
+                    submitted.fork();
+                }
+            } catch (Throwable e) {
+                // an Error too, such as a failed assertion, or the future
+                // would never complete
+                SessionServer.this.running.remove(this.done);
+                this.done.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Starts running a session. Cancelling the future stops the session at
+     * the end of its current slice.
+     *
+     * @param session
+     *            the session, not used elsewhere until it is finished
+     * @return a future completed with the session once it is finished, or
+     *         failed with a RejectedExecutionException if the server is
+     *         closed
+     */
+    public CompletableFuture<GameSession> submit(GameSession session) {
+        LifeEngine engine = session.engine();
+        long cells = Math.max(1L, (long) engine.width() * engine.height());
+        long slice = Math.max(1L, this.sliceCells / cells);
+        CompletableFuture<GameSession> done = new CompletableFuture<>();
+        this.running.add(done);
+        // a cancelled session is dropped at once
+        done.whenComplete((finished, failure) -> this.running.remove(done));
+        try {
+            this.pool.execute(new Turn(session, slice, done));
+        } catch (RejectedExecutionException e) {
+            // closed: the session never runs
+            this.running.remove(done);
+            done.completeExceptionally(e);
+        }
+        return done;
+    }
+
+    /**
+     * Returns the number of sessions submitted and not yet finished.
+     *
+     * @return the number of active sessions
+     */
+    public int active() {
+        return this.running.size();
+    }
+
+    /**
+     * Returns the number of threads.
+     *
+     * @return the parallelism of the pool
+     */
+    public int parallelism() {
+        return this.pool.getParallelism();
+    }
+
+    /**
+     * Cancels the sessions still running, stops the threads and waits for
+     * them to finish their current slices.
+     */
+    @Override
+    public void close() {
+        for (CompletableFuture<GameSession> done : this.running) {
+            done.cancel(false);
+        }
+        this.pool.shutdownNow();
+        try {
+            this.pool.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
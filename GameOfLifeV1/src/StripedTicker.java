@@ -0,0 +1,226 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Ticks a {@link PackedBoard} on several cores by splitting it into horizontal
+ * stripes of rows. Every stripe of a generation is computed from the same
+ * current generation, and the buffers are swapped only after all stripes are
+ * done, so the result is bit-for-bit the same as ticking on one thread.
+ */
+public final class StripedTicker implements LifeEngine, AutoCloseable {
+
+    /**
+     * How many stripes to aim for per thread when the stripe size is not
+     * given, so that a slow stripe does not hold the whole generation up.
+     */
+    private static final int STRIPES_PER_THREAD = 4;
+
+    /**
+     * The board being ticked.
+     */
+    private final PackedBoard board;
+
+    /**
+     * The executor that computes the stripes.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Whether the executor was created here and must be shut down by
+     * {@link #close()}.
+     */
+    private final boolean ownsExecutor;
+
+    /**
+     * One task per stripe, built once and reused every generation.
+     */
+    private final List<Callable<Long>> stripes;
+
+    /**
+     * Creates a ticker with its own fork/join pool of the given parallelism.
+     *
+     * @param board
+     *            the board to tick
+     * @param parallelism
+     *            the number of threads
+     * @param stripeRows
+     *            the number of rows per stripe, or 0 to pick one from the
+     *            board height and the parallelism
+     * @requires parallelism > 0 and stripeRows >= 0
+     */
+    public StripedTicker(PackedBoard board, int parallelism, int stripeRows) {
+        this(board, new ForkJoinPool(parallelism), true,
+                stripeRows > 0 ? stripeRows
+                        : defaultStripeRows(board, parallelism));
+    }
+
+    /**
+     * Creates a ticker that runs its stripes on an executor owned by the
+     * caller. The executor is not shut down by {@link #close()}.
+     *
+     * @param board
+     *            the board to tick
+     * @param executor
+     *            the executor to run stripes on
+     * @param stripeRows
+     *            the number of rows per stripe
+     * @requires stripeRows > 0
+     */
+    public StripedTicker(PackedBoard board, ExecutorService executor,
+            int stripeRows) {
+        this(board, executor, false, stripeRows);
+    }
+
+    /**
+     * Creates a ticker.
+     *
+     * @param board
+     *            the board to tick
+     * @param executor
+     *            the executor to run stripes on
+     * @param ownsExecutor
+     *            whether close() shuts the executor down
+     * @param stripeRows
+     *            the number of rows per stripe
+     */
+    private StripedTicker(PackedBoard board, ExecutorService executor,
+            boolean ownsExecutor, int stripeRows) {
+        assert stripeRows > 0 : "Violation of: stripeRows > 0";
+        this.board = board;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.stripes = new ArrayList<>();
+        for (int from = 0; from < board.height(); from += stripeRows) {
+            final int fromRow = from;
+            final int toRow = Math.min(from + stripeRows, board.height());
+            this.stripes.add(() -> board.computeRows(fromRow, toRow));
+        }
+    }
+
+    /**
+     * Picks a stripe size that gives each thread a few stripes.
+     *
+     * @param board
+     *            the board to tick
+     * @param parallelism
+     *            the number of threads
+     * @return the number of rows per stripe
+     */
+    private static int defaultStripeRows(PackedBoard board, int parallelism) {
+        int stripeCount = parallelism * STRIPES_PER_THREAD;
+        return Math.max(1, (board.height() + stripeCount - 1) / stripeCount);
+    }
+
+    /**
+     * Returns the board being ticked.
+     *
+     * @return the board
+     */
+    public PackedBoard board() {
+        return this.board;
+    }
+
+    @Override
+    public int width() {
+        return this.board.width();
+    }
+
+    @Override
+    public int height() {
+        return this.board.height();
+    }
+
+    @Override
+    public boolean isAlive(int row, int column) {
+        return this.board.isAlive(row, column);
+    }
+
+    @Override
+    public long word(int row, int wordIndex) {
+        return this.board.word(row, wordIndex);
+    }
+
+    @Override
+    public long population() {
+        return this.board.population();
+    }
+
+    @Override
+    public long generation() {
+        return this.board.generation();
+    }
+
+    @Override
+    public long hash() {
+        return this.board.hash();
+    }
+
+    @Override
+    public Rule rule() {
+        return this.board.rule();
+    }
+
+    @Override
+    public Boundary boundary() {
+        return this.board.boundary();
+    }
+
+    /**
+     * Returns the number of stripes a generation is split into.
+     *
+     * @return the number of stripes
+     */
+    public int stripeCount() {
+        return this.stripes.size();
+    }
+
+    /**
+     * Computes the next generation. Returns once every stripe is done and
+     * the new generation is current. If the calling thread is interrupted
+     * while waiting, the board is left at the current generation, the
+     * interrupt is kept and a {@code CancellationException} is thrown.
+     */
+    @Override
+    public void tick() {
+        this.board.fillHalo();
+        long newHash = 0;
+        try {
+            for (Future<Long> stripe : this.executor.invokeAll(this.stripes)) {
+                newHash ^= stripe.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            CancellationException cancelled = new CancellationException(
+                    "Interrupted while computing a generation");
+            cancelled.initCause(e);
+            throw cancelled;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        this.board.swapBuffers(newHash);
+    }
+
+    /**
+     * Shuts down the fork/join pool if this ticker created it.
+     */
+    @Override
+    public void close() {
+        if (this.ownsExecutor) {
+            this.executor.shutdown();
+        }
+    }
+
+}
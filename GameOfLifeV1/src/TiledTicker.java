@@ -0,0 +1,389 @@
+import java.util.Arrays;
+
+/**
+ * Ticks a {@link PackedBoard} incrementally: the board is divided into tiles
+ * one word wide, and a tile is only recomputed if it or a tile next to it
+ * changed recently. Regions that have settled into still lifes or period-2
+ * oscillators are skipped, and the result is the same as a full tick.
+ *
+ * <p>
+ * Skipping costs nothing because of how the board is double-buffered: the
+ * back buffer still holds the previous generation. If a tile and its
+ * neighbors did not change in the last generation, the tile will not change
+ * in the next one, and its back-buffer copy already equals the current one.
+ * If they are the same as two generations ago, the tile will go back to the
+ * previous generation, which is exactly what the back buffer holds.
+ * </p>
+ *
+ * <p>
+ * The ticker must be the only thing that changes the board; call
+ * {@link #invalidate()} after changing it any other way.
+ * </p>
+ */
+public final class TiledTicker implements LifeEngine {
+
+    /**
+     * Default number of rows per tile.
+     */
+    public static final int DEFAULT_TILE_ROWS = 32;
+
+    /**
+     * The board being ticked.
+     */
+    private final PackedBoard board;
+
+    /**
+     * Number of rows per tile.
+     */
+    private final int tileRows;
+
+    /**
+     * Number of tiles across, one per word of a row.
+     */
+    private final int tilesAcross;
+
+    /**
+     * Number of tiles down.
+     */
+    private final int tilesDown;
+
+    /**
+     * Per tile: whether it changed in the last generation.
+     */
+    private boolean[] changed;
+
+    /**
+     * Per tile: whether it differs from two generations ago.
+     */
+    private boolean[] changedSince2;
+
+    /**
+     * Flags of the generation being computed.
+     */
+    private boolean[] nextChanged;
+
+    /**
+     * Flags of the generation being computed.
+     */
+    private boolean[] nextChangedSince2;
+
+    /**
+     * Whether the back buffer holds the previous generation. It does not
+     * until one full tick has run since {@link #invalidate()}.
+     */
+    private boolean backBufferValid;
+
+    /**
+     * Per tile: how the board hash changed when the tile last changed, or 0
+     * if it did not. A tile oscillating with period 2 changes the hash the
+     * same way every generation, since XOR undoes itself.
+     */
+    private final long[] hashDelta;
+
+    /**
+     * Tiles skipped because their neighborhood was still.
+     */
+    private int lastStill;
+
+    /**
+     * Tiles skipped because their neighborhood was oscillating with period 2.
+     */
+    private int lastOscillating;
+
+    /**
+     * Tiles computed in the last tick.
+     */
+    private int lastComputed;
+
+    /**
+     * Tiles skipped over all ticks.
+     */
+    private long totalSkipped;
+
+    /**
+     * Tiles computed over all ticks.
+     */
+    private long totalComputed;
+
+    /**
+     * Creates a ticker with the default tile height.
+     *
+     * @param board
+     *            the board to tick
+     */
+    public TiledTicker(PackedBoard board) {
+        this(board, DEFAULT_TILE_ROWS);
+    }
+
+    /**
+     * Creates a ticker.
+     *
+     * @param board
+     *            the board to tick
+     * @param tileRows
+     *            the number of rows per tile
+     * @requires tileRows > 0
+     */
+    public TiledTicker(PackedBoard board, int tileRows) {
+        assert tileRows > 0 : "Violation of: tileRows > 0";
+        this.board = board;
+        this.tileRows = tileRows;
+        this.tilesAcross = board.wordsPerRow();
+        this.tilesDown = (board.height() + tileRows - 1) / tileRows;
+        int tiles = this.tilesAcross * this.tilesDown;
+        this.changed = new boolean[tiles];
+        this.changedSince2 = new boolean[tiles];
+        this.nextChanged = new boolean[tiles];
+        this.nextChangedSince2 = new boolean[tiles];
+        this.hashDelta = new long[tiles];
+        this.invalidate();
+    }
+
+    /**
+     * Marks every tile as changed, so the next two ticks recompute the whole
+     * board.
+     */
+    public void invalidate() {
+        Arrays.fill(this.changed, true);
+        Arrays.fill(this.changedSince2, true);
+        this.backBufferValid = false;
+    }
+
+    /**
+     * Returns the board being ticked.
+     *
+     * @return the board
+     */
+    public PackedBoard board() {
+        return this.board;
+    }
+
+    @Override
+    public int width() {
+        return this.board.width();
+    }
+
+    @Override
+    public int height() {
+        return this.board.height();
+    }
+
+    @Override
+    public boolean isAlive(int row, int column) {
+        return this.board.isAlive(row, column);
+    }
+
+    @Override
+    public long word(int row, int wordIndex) {
+        return this.board.word(row, wordIndex);
+    }
+
+    @Override
+    public long population() {
+        return this.board.population();
+    }
+
+    @Override
+    public long generation() {
+        return this.board.generation();
+    }
+
+    @Override
+    public long hash() {
+        return this.board.hash();
+    }
+
+    @Override
+    public Rule rule() {
+        return this.board.rule();
+    }
+
+    @Override
+    public Boundary boundary() {
+        return this.board.boundary();
+    }
+
+    /**
+     * Returns the number of tiles the board is divided into.
+     *
+     * @return the number of tiles
+     */
+    public int tileCount() {
+        return this.changed.length;
+    }
+
+    /**
+     * Returns the number of tiles computed in the last tick.
+     *
+     * @return the number of computed tiles
+     */
+    public int lastComputed() {
+        return this.lastComputed;
+    }
+
+    /**
+     * Returns the number of tiles skipped in the last tick because nothing
+     * near them changed.
+     *
+     * @return the number of still tiles
+     */
+    public int lastStill() {
+        return this.lastStill;
+    }
+
+    /**
+     * Returns the number of tiles skipped in the last tick because everything
+     * near them repeats with period 2.
+     *
+     * @return the number of oscillating tiles
+     */
+    public int lastOscillating() {
+        return this.lastOscillating;
+    }
+
+    /**
+     * Returns the number of tiles skipped over all ticks.
+     *
+     * @return the total of skipped tiles
+     */
+    public long totalSkipped() {
+        return this.totalSkipped;
+    }
+
+    /**
+     * Returns the number of tiles computed over all ticks.
+     *
+     * @return the total of computed tiles
+     */
+    public long totalComputed() {
+        return this.totalComputed;
+    }
+
+    /**
+     * Computes the next generation, skipping tiles whose neighborhood is
+     * still or oscillating with period 2.
+     */
+    @Override
+    public void tick() {
+        this.lastStill = 0;
+        this.lastOscillating = 0;
+        this.lastComputed = 0;
+        this.board.fillHalo();
+        long newHash = this.board.hash();
+        for (int tileRow = 0; tileRow < this.tilesDown; tileRow++) {
+            for (int tileColumn = 0; tileColumn < this.tilesAcross;
+                    tileColumn++) {
+                int tile = tileRow * this.tilesAcross + tileColumn;
+                if (!this.nearChange(this.changed, tileRow, tileColumn)) {
+                    // still: the back buffer already equals this generation
+                    this.nextChanged[tile] = false;
+                    this.nextChangedSince2[tile] = false;
+                    this.hashDelta[tile] = 0;
+                    this.lastStill++;
+                } else if (!this.nearChange(this.changedSince2, tileRow,
+                        tileColumn)) {
+                    // period 2: the back buffer holds the next generation
+                    this.nextChanged[tile] = this.changed[tile];
+                    this.nextChangedSince2[tile] = false;
+                    newHash ^= this.hashDelta[tile];
+                    this.lastOscillating++;
+                } else {
+                    this.computeTile(tile, tileRow, tileColumn);
+                    newHash ^= this.hashDelta[tile];
+                    this.lastComputed++;
+                }
+            }
+        }
+        this.board.swapBuffers(newHash);
+        this.backBufferValid = true;
+
+        boolean[] tmp = this.changed;
+        this.changed = this.nextChanged;
+        this.nextChanged = tmp;
+        tmp = this.changedSince2;
+        this.changedSince2 = this.nextChangedSince2;
+        this.nextChangedSince2 = tmp;
+
+        this.totalSkipped += this.lastStill + this.lastOscillating;
+        this.totalComputed += this.lastComputed;
+    }
+
+    /**
+     * Reports whether a tile or any of its eight neighbors is flagged.
+     *
+     * @param flags
+     *            the per-tile flags
+     * @param tileRow
+     *            the row of the tile
+     * @param tileColumn
+     *            the column of the tile
+     * @return true iff a flag in the 3x3 block of tiles is set
+     */
+    private boolean nearChange(boolean[] flags, int tileRow, int tileColumn) {
+        int up = tileRow == 0 ? this.tilesDown - 1 : tileRow - 1;
+        int down = tileRow == this.tilesDown - 1 ? 0 : tileRow + 1;
+        int left = tileColumn == 0 ? this.tilesAcross - 1 : tileColumn - 1;
+        int right = tileColumn == this.tilesAcross - 1 ? 0 : tileColumn + 1;
+        return this.rowNearChange(flags, up, left, tileColumn, right)
+                || this.rowNearChange(flags, tileRow, left, tileColumn, right)
+                || this.rowNearChange(flags, down, left, tileColumn, right);
+    }
+
+    /**
+     * Reports whether one of three tiles of a row of tiles is flagged.
+     *
+     * @param flags
+     *            the per-tile flags
+     * @param tileRow
+     *            the row of tiles
+     * @param left
+     *            the first column
+     * @param middle
+     *            the second column
+     * @param right
+     *            the third column
+     * @return true iff one of the three flags is set
+     */
+    private boolean rowNearChange(boolean[] flags, int tileRow, int left,
+            int middle, int right) {
+        int base = tileRow * this.tilesAcross;
+        return flags[base + left] || flags[base + middle]
+                || flags[base + right];
+    }
+
+    /**
+     * Computes the next generation of one tile into the back buffer and
+     * records how it changed, and how that changes the board hash.
+     *
+     * @param tile
+     *            the index of the tile
+     * @param tileRow
+     *            the row of the tile
+     * @param w
+     *            the column of the tile, which is its word index
+     */
+    private void computeTile(int tile, int tileRow, int w) {
+        boolean changedNow = false;
+        boolean changedSince2Now = !this.backBufferValid;
+        long delta = 0;
+        int wordsPerRow = this.board.wordsPerRow();
+        int fromRow = tileRow * this.tileRows;
+        int toRow = Math.min(fromRow + this.tileRows, this.board.height());
+        for (int row = fromRow; row < toRow; row++) {
+            long word = this.board.evolveWord(row, w);
+            long current = this.board.word(row, w);
+            if (word != current) {
+                changedNow = true;
+                int index = row * wordsPerRow + w;
+                delta ^= PackedBoard.mix(index, current)
+                        ^ PackedBoard.mix(index, word);
+            }
+            changedSince2Now |= word != this.board.backWord(row, w);
+            this.board.setBackWord(row, w, word);
+        }
+        this.nextChanged[tile] = changedNow;
+        this.nextChangedSince2[tile] = changedSince2Now;
+        this.hashDelta[tile] = delta;
+    }
+
+}
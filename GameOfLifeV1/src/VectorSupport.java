@@ -0,0 +1,82 @@
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Finds the vector engine at run time. {@code VectorTicker}, in the
+ * GameOfLifeVector project, uses the JDK Vector API, which still incubates:
+ * it compiles and runs only with {@code --add-modules jdk.incubator.vector}.
+ * This class loads it by name, so nothing else depends on that module, and
+ * falls back to the scalar {@link PackedBoard} when the class or the module
+ * is missing.
+ */
+public final class VectorSupport {
+
+    /**
+     * Name of the vector engine class.
+     */
+    private static final String ENGINE = "VectorTicker";
+
+    /**
+     * The constructor of the vector engine, taking the board to tick, or
+     * null if the engine cannot be loaded.
+     */
+    private static final Constructor<? extends LifeEngine> CONSTRUCTOR =
+            findConstructor();
+
+    /**
+     * Default constructor--private to prevent instantiation.
+     */
+    private VectorSupport() {
+        // no code needed here
+    }
+
+    /**
+     * Loads the vector engine.
+     *
+     * @return its constructor, or null if it cannot be loaded
+     */
+    private static Constructor<? extends LifeEngine> findConstructor() {
+        Constructor<? extends LifeEngine> constructor;
+        try {
+            constructor = Class.forName(ENGINE)
+                    .asSubclass(LifeEngine.class)
+                    .getConstructor(PackedBoard.class);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // not on the class path, or jdk.incubator.vector not added
+            constructor = null;
+        }
+        return constructor;
+    }
+
+    /**
+     * Reports whether the vector engine can be used.
+     *
+     * @return true iff the vector engine was loaded
+     */
+    public static boolean isAvailable() {
+        return CONSTRUCTOR != null;
+    }
+
+    /**
+     * Wraps a board in the vector engine, which ticks it in place, or
+     * returns the board itself if the vector engine cannot be used.
+     *
+     * @param board
+     *            the board to tick
+     * @return the engine
+     */
+    public static LifeEngine wrap(PackedBoard board) {
+        LifeEngine engine = board;
+        if (CONSTRUCTOR != null) {
+            try {
+                engine = CONSTRUCTOR.newInstance(board);
+            } catch (InstantiationException | IllegalAccessException
+                    | InvocationTargetException e) {
+                throw new IllegalStateException(
+                        "Cannot create the vector engine", e);
+            }
+        }
+        return engine;
+    }
+
+}
@@ -0,0 +1,47 @@
+/**
+ * The words of a {@link PackedBoard}, wherever they are kept: in a
+ * {@code long[]} on the heap, or outside it in direct or memory-mapped
+ * buffers. Engines only ever read and write words by index, so they run the
+ * same against any store.
+ */
+interface WordStore {
+
+    /**
+     * Returns the number of words.
+     *
+     * @return the size of the store
+     */
+    int size();
+
+    /**
+     * Returns a word.
+     *
+     * @param index
+     *            the index of the word
+     * @return the word
+     * @requires 0 <= index < size
+     */
+    long get(int index);
+
+    /**
+     * Replaces a word.
+     *
+     * @param index
+     *            the index of the word
+     * @param word
+     *            the new word
+     * @requires 0 <= index < size
+     */
+    void set(int index, long word);
+
+    /**
+     * Copies every word of another store of the same size into this one.
+     *
+     * @param source
+     *            the store to copy
+     * @replaces this
+     * @requires source.size = size
+     */
+    void copyFrom(WordStore source);
+
+}
@@ -0,0 +1,119 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Test;
+
+/**
+ * Testing saving and loading board snapshots.
+ *
+ */
+public class BoardSnapshotTest {
+
+    /**
+     * Seed for the random boards, so failures can be reproduced.
+     */
+    private static final long SEED = 11;
+
+    /**
+     * Saves a board and loads it back.
+     *
+     * @param board
+     *            the board
+     * @param compress
+     *            whether to run-length encode the body
+     * @return the size of the file and the board loaded
+     * @throws IOException
+     *             if the file cannot be used
+     */
+    private static Object[] roundTrip(PackedBoard board, boolean compress)
+            throws IOException {
+        Path file = Files.createTempFile("snapshot", ".golb");
+        try {
+            BoardSnapshot.save(board, file, compress);
+            return new Object[] { Files.size(file),
+                BoardSnapshot.load(file) };
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Tests that a dense board with a partial last word comes back the same,
+     * at the same generation.
+     *
+     * @throws IOException
+     *             if the file cannot be used
+     */
+    @Test
+    public final void testLoad_plainRoundTrip() throws IOException {
+        final int height = 37;
+        final int width = 150;
+        final int density = 50;
+        final int generations = 9;
+        PackedBoard board = RandomBoards.board(height, width, SEED, density);
+        for (int i = 0; i < generations; i++) {
+            board.tick();
+        }
+        PackedBoard loaded = (PackedBoard) roundTrip(board, true)[1];
+        assertEquals(board.toGrid(), loaded.toGrid());
+        assertEquals(generations, loaded.generation());
+    }
+
+    /**
+     * Tests that a sparse board is run-length encoded into a much smaller
+     * file and still comes back the same.
+     *
+     * @throws IOException
+     *             if the file cannot be used
+     */
+    @Test
+    public final void testLoad_runsRoundTrip() throws IOException {
+        final int size = 512;
+        PackedBoard board = new PackedBoard(size, size);
+        board.setAlive(0, 0, true);
+        board.setAlive(size - 1, size - 1, true);
+        board.setAlive(size / 2, size / 3, true);
+        Object[] plain = roundTrip(board, false);
+        Object[] runs = roundTrip(board, true);
+        assertEquals(board.toGrid(), ((PackedBoard) plain[1]).toGrid());
+        assertEquals(board.toGrid(), ((PackedBoard) runs[1]).toGrid());
+        final long factor = 100;
+        assertTrue((Long) runs[0] * factor < (Long) plain[0]);
+    }
+
+    /**
+     * Tests that a changed byte in the body is caught by the CRC.
+     *
+     * @throws IOException
+     *             expected, the snapshot is corrupt
+     */
+    @Test(expected = IOException.class)
+    public final void testLoad_corrupt() throws IOException {
+        final int size = 64;
+        final int density = 30;
+        final int offset = 100;
+        Path file = Files.createTempFile("snapshot", ".golb");
+        try {
+            BoardSnapshot.save(RandomBoards.board(size, size, SEED, density),
+                    file, false);
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                ByteBuffer b = ByteBuffer.allocate(1);
+                channel.read(b, offset);
+                b.put(0, (byte) ~b.get(0));
+                b.rewind();
+                channel.write(b, offset);
+            }
+            BoardSnapshot.load(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
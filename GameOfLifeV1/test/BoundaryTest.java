@@ -0,0 +1,143 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Testing boundaries and rectangular boards.
+ *
+ */
+public class BoundaryTest {
+
+    /**
+     * Pads a 2 x 3 grid with an empty halo: cells a b c over d e f, with
+     * a, c and e alive.
+     *
+     * @return the padded grid
+     */
+    private static boolean[][] padded() {
+        final boolean f = false;
+        final boolean t = true;
+        return new boolean[][] { { f, f, f, f, f }, { f, t, f, t, f },
+                { f, f, t, f, f }, { f, f, f, f, f } };
+    }
+
+    /**
+     * Tests the halo of a torus, corners included.
+     */
+    @Test
+    public final void testFillHalo_torus() {
+        final boolean f = false;
+        final boolean t = true;
+        boolean[][] grid = padded();
+        Boundary.TORUS.fillHalo(grid);
+        assertArrayEquals(new boolean[][] { { f, f, t, f, f },
+                { t, t, f, t, t }, { f, f, t, f, f }, { t, t, f, t, t } },
+                grid);
+    }
+
+    /**
+     * Tests the halo of mirrored edges, corners included.
+     */
+    @Test
+    public final void testFillHalo_reflect() {
+        final boolean f = false;
+        final boolean t = true;
+        boolean[][] grid = padded();
+        Boundary.REFLECT.fillHalo(grid);
+        assertArrayEquals(new boolean[][] { { t, t, f, t, t },
+                { t, t, f, t, t }, { f, f, t, f, f }, { f, f, t, f, f } },
+                grid);
+    }
+
+    /**
+     * Tests that a live halo is cleared at dead edges.
+     */
+    @Test
+    public final void testFillHalo_dead() {
+        boolean[][] grid = padded();
+        Boundary.TORUS.fillHalo(grid);
+        Boundary.DEAD.fillHalo(grid);
+        assertArrayEquals(padded(), grid);
+    }
+
+    /**
+     * Tests that every engine gives the same generations as tickGame on
+     * wide boards, with a partial and a full last word, for every boundary.
+     */
+    @Test
+    public final void testTick_enginesAgree() {
+        final int[] widths = { 70, 128 };
+        final int height = 11;
+        final int generations = 12;
+        final int threads = 2;
+        final int stripeRows = 3;
+        final int tileRows = 4;
+        Random random = new Random(2);
+        for (Boundary boundary : Boundary.values()) {
+            for (int width : widths) {
+                boolean[][] grid = RandomBoards.grid(height, width,
+                        random.nextLong());
+                PackedBoard packed = PackedBoard.fromGrid(grid);
+                packed.setBoundary(boundary);
+                PackedBoard forTiles = new PackedBoard(width, height);
+                forTiles.copyFrom(packed);
+                PackedBoard forStripes = new PackedBoard(width, height);
+                forStripes.copyFrom(packed);
+                TiledTicker tiled = new TiledTicker(forTiles, tileRows);
+                BufferedGrid buffered = new BufferedGrid(grid, Rule.CONWAY,
+                        boundary);
+                try (StripedTicker striped = new StripedTicker(forStripes,
+                        threads, stripeRows)) {
+                    for (int g = 0; g < generations; g++) {
+                        GameOfLifeV2.tickGame(grid, Rule.CONWAY, boundary);
+                        packed.tick();
+                        tiled.tick();
+                        striped.tick();
+                        buffered.tick();
+                        String message = boundary + " " + width;
+                        assertArrayEquals(message, grid, packed.toGrid());
+                        assertArrayEquals(message, grid, forTiles.toGrid());
+                        assertArrayEquals(message, grid,
+                                forStripes.toGrid());
+                        assertArrayEquals(message, grid, buffered.grid());
+                        assertEquals(message, packed.hash(), tiled.hash());
+                        assertEquals(message, packed.population(),
+                                buffered.population());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that a snapshot keeps the boundary of the board.
+     *
+     * @throws IOException
+     *             if the snapshot cannot be written
+     */
+    @Test
+    public final void testSnapshot_keepsBoundary() throws IOException {
+        final int width = 90;
+        final int height = 4;
+        Path file = Files.createTempFile("boundary", ".golb");
+        try {
+            PackedBoard board = new PackedBoard(width, height);
+            board.setBoundary(Boundary.REFLECT);
+            board.setAlive(height - 1, width - 1, true);
+            BoardSnapshot.save(board, file, false);
+            PackedBoard loaded = BoardSnapshot.load(file);
+            assertEquals(Boundary.REFLECT, loaded.boundary());
+            assertEquals(width, loaded.width());
+            assertEquals(1, loaded.population());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+}
@@ -0,0 +1,88 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Testing the double-buffered grid.
+ *
+ */
+public class BufferedGridTest {
+
+    /**
+     * Seed for the random boards, so failures can be reproduced.
+     */
+    private static final long SEED = 7;
+
+    /**
+     * Testing [2, 2] of initial beacon.
+     */
+    @Test
+    public final void testCountNeighbors_2_2() {
+        boolean[][] grid = { { false, false, false, false, false, false },
+                { false, true, true, false, false, false },
+                { false, true, true, false, false, false },
+                { false, false, false, true, true, false },
+                { false, false, false, true, true, false },
+                { false, false, false, false, false, false } };
+        BufferedGrid game = new BufferedGrid(grid);
+        assertEquals(4, game.countNeighbors(2, 2));
+        assertEquals(1, game.countNeighbors(0, 0));
+    }
+
+    /**
+     * Tests a random board generation by generation against tickGame.
+     */
+    @Test
+    public final void testTick_matchesTickGame() {
+        final int size = 40;
+        final int generations = 25;
+        boolean[][] grid = RandomBoards.grid(size, size, SEED);
+        BufferedGrid game = new BufferedGrid(grid);
+        for (int i = 0; i < generations; i++) {
+            GameOfLifeV2.tickGame(grid);
+            game.tick();
+            assertEquals(grid, game.grid());
+        }
+        assertEquals(generations, game.generation());
+    }
+
+    /**
+     * Tests that words hold the same cells as a packed board, including a
+     * partial last word.
+     */
+    @Test
+    public final void testWord_matchesPackedBoard() {
+        final int size = 70;
+        boolean[][] grid = RandomBoards.grid(size, size, SEED);
+        BufferedGrid game = new BufferedGrid(grid);
+        PackedBoard packed = PackedBoard.fromGrid(grid);
+        for (int row = 0; row < size; row++) {
+            for (int w = 0; w < packed.wordsPerRow(); w++) {
+                assertEquals(packed.word(row, w), game.word(row, w));
+            }
+        }
+    }
+
+    /**
+     * Tests that a warmed-up tick allocates nothing.
+     */
+    @Test
+    public final void testTick_allocatesNothing() {
+        assertTrue(AllocationCounter.isSupported());
+        final int size = 64;
+        final int warmUp = 5000;
+        final int measured = 100;
+        BufferedGrid game = new BufferedGrid(
+                RandomBoards.grid(size, size, SEED));
+        for (int i = 0; i < warmUp; i++) {
+            game.tick();
+        }
+        long before = AllocationCounter.allocatedBytes();
+        for (int i = 0; i < measured; i++) {
+            game.tick();
+        }
+        long after = AllocationCounter.allocatedBytes();
+        assertEquals(0, after - before);
+    }
+}
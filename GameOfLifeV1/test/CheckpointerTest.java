@@ -0,0 +1,122 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Testing background checkpoints and resuming from them.
+ *
+ */
+public class CheckpointerTest {
+
+    /**
+     * Lists a directory, sorted, and optionally deletes what is in it.
+     *
+     * @param directory
+     *            the directory
+     * @param delete
+     *            whether to delete the files and the directory
+     * @return the files, sorted
+     * @throws IOException
+     *             if the directory cannot be read
+     */
+    private static List<Path> list(Path directory, boolean delete)
+            throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files
+                .newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Collections.sort(files);
+        if (delete) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+            Files.delete(directory);
+        }
+        return files;
+    }
+
+    /**
+     * Tests that the newest checkpoints are kept, and that the newest valid
+     * one is resumed from.
+     *
+     * @throws IOException
+     *             if the files cannot be used
+     */
+    @Test
+    public final void testLatest_newestValid() throws IOException {
+        final int size = 50;
+        final int every = 5;
+        final int generations = 23;
+        final int keep = 2;
+        Path directory = Files.createTempDirectory("checkpoints");
+        try {
+            PackedBoard board = new PackedBoard(size, size);
+            boolean[][] glider = GameOfLifeV2.basicPattern("glider");
+            for (int row = 0; row < glider.length; row++) {
+                for (int column = 0; column < glider.length; column++) {
+                    board.setAlive(row, column, glider[row][column]);
+                }
+            }
+            PackedBoard at15 = new PackedBoard(size, size);
+            try (Checkpointer checkpointer = new Checkpointer(directory,
+                    every, 0, keep)) {
+                for (int i = 0; i < generations; i++) {
+                    board.tick();
+                    checkpointer.afterTick(board);
+                    // so that no checkpoint is skipped
+                    checkpointer.await();
+                    if (board.generation() == every * 3) {
+                        at15.copyFrom(board);
+                    }
+                }
+            }
+            assertEquals(keep, list(directory, false).size());
+            PackedBoard latest = Checkpointer.latest(directory);
+            assertEquals(every * 4, latest.generation());
+
+            // damage the newest; the one before is used
+            Files.write(list(directory, false).get(1), new byte[1]);
+            latest = Checkpointer.latest(directory);
+            assertEquals(at15.generation(), latest.generation());
+            assertEquals(at15.toGrid(), latest.toGrid());
+
+            // off the heap, as a run too big for it resumes
+            latest = Checkpointer.latest(directory,
+                    PackedBoard.Storage.DIRECT);
+            assertTrue(latest.isOffHeap());
+            assertEquals(at15.generation(), latest.generation());
+            assertEquals(at15.toGrid(), latest.toGrid());
+        } finally {
+            list(directory, true);
+        }
+    }
+
+    /**
+     * Tests that a directory with no checkpoints resumes nothing.
+     *
+     * @throws IOException
+     *             if the files cannot be used
+     */
+    @Test
+    public final void testLatest_none() throws IOException {
+        Path directory = Files.createTempDirectory("checkpoints");
+        try {
+            assertNull(Checkpointer.latest(directory));
+        } finally {
+            list(directory, true);
+        }
+    }
+}
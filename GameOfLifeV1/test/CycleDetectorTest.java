@@ -0,0 +1,149 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Testing cycle detection and the board hashes it relies on.
+ *
+ */
+public class CycleDetectorTest {
+
+    /**
+     * Runs a board until it settles or the generations run out.
+     *
+     * @param board
+     *            the board
+     * @param generations
+     *            most generations to run
+     * @return the detector
+     */
+    private static CycleDetector run(LifeEngine board, int generations) {
+        final int history = 64;
+        CycleDetector cycles = new CycleDetector(history);
+        cycles.observe(board);
+        for (int i = 0; i < generations
+                && cycles.outcome() == CycleDetector.Outcome.RUNNING; i++) {
+            board.tick();
+            cycles.observe(board);
+        }
+        return cycles;
+    }
+
+    /**
+     * Works out the hash of a board from scratch.
+     *
+     * @param board
+     *            the board
+     * @return the XOR of the mixed words
+     */
+    private static long hashFromScratch(LifeEngine board) {
+        int words = (board.width() + Long.SIZE - 1) / Long.SIZE;
+        long hash = 0;
+        for (int row = 0; row < board.height(); row++) {
+            for (int w = 0; w < words; w++) {
+                hash ^= PackedBoard.mix(row * words + w, board.word(row, w));
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Tests the blinker: period 2 from the start.
+     */
+    @Test
+    public final void testObserve_blinker() {
+        final int generations = 10;
+        CycleDetector cycles = run(
+                PackedBoard.fromGrid(GameOfLifeV2.basicPattern("blinker")),
+                generations);
+        assertEquals(CycleDetector.Outcome.OSCILLATING, cycles.outcome());
+        assertEquals(2, cycles.period());
+        assertEquals(0, cycles.cycleStart());
+    }
+
+    /**
+     * Tests the beacon on the buffered grid: period 2 from the start.
+     */
+    @Test
+    public final void testObserve_beaconBuffered() {
+        final int generations = 10;
+        CycleDetector cycles = run(
+                new BufferedGrid(GameOfLifeV2.basicPattern("beacon")),
+                generations);
+        assertEquals(CycleDetector.Outcome.OSCILLATING, cycles.outcome());
+        assertEquals(2, cycles.period());
+    }
+
+    /**
+     * Tests a block: still from the start.
+     */
+    @Test
+    public final void testObserve_block() {
+        final int size = 8;
+        PackedBoard board = new PackedBoard(size, size);
+        board.setAlive(2, 2, true);
+        board.setAlive(2, 3, true);
+        board.setAlive(3, 2, true);
+        board.setAlive(3, 3, true);
+        CycleDetector cycles = run(board, size);
+        assertEquals(CycleDetector.Outcome.STILL, cycles.outcome());
+        assertEquals(0, cycles.cycleStart());
+    }
+
+    /**
+     * Tests a lone cell: dead after one generation.
+     */
+    @Test
+    public final void testObserve_extinct() {
+        final int size = 8;
+        PackedBoard board = new PackedBoard(size, size);
+        board.setAlive(2, 2, true);
+        CycleDetector cycles = run(board, size);
+        assertEquals(CycleDetector.Outcome.EXTINCT, cycles.outcome());
+        assertEquals(1, cycles.cycleStart());
+    }
+
+    /**
+     * Tests that every engine keeps the same hash as working it out from
+     * scratch, generation after generation.
+     */
+    @Test
+    public final void testHash_enginesAgree() {
+        final int height = 70;
+        final int width = 150;
+        final int generations = 40;
+        final int tileRows = 8;
+        final int threads = 3;
+        final int stripeRows = 7;
+        final long seed = 3;
+        Random random = new Random(seed);
+        PackedBoard packed = new PackedBoard(width, height);
+        for (int row = 0; row < height; row++) {
+            for (int column = 0; column < width / 2; column++) {
+                packed.setAlive(row, column, random.nextBoolean());
+            }
+        }
+        PackedBoard forTiles = new PackedBoard(width, height);
+        forTiles.copyFrom(packed);
+        PackedBoard forStripes = new PackedBoard(width, height);
+        forStripes.copyFrom(packed);
+        BufferedGrid buffered = new BufferedGrid(packed.toGrid());
+        TiledTicker tiled = new TiledTicker(forTiles, tileRows);
+        try (StripedTicker striped = new StripedTicker(forStripes, threads,
+                stripeRows)) {
+            for (int i = 0; i < generations; i++) {
+                long expected = hashFromScratch(packed);
+                assertEquals(expected, packed.hash());
+                assertEquals(expected, buffered.hash());
+                assertEquals(expected, tiled.hash());
+                assertEquals(expected, striped.hash());
+                packed.tick();
+                buffered.tick();
+                tiled.tick();
+                striped.tick();
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * Testing the batched terminal renderer.
+ *
+ */
+public class FrameRendererTest {
+
+    /**
+     * Builds the text of a frame from its lines of characters.
+     *
+     * @param lines
+     *            the characters inside the border
+     * @return the frame
+     */
+    private static String bordered(String... lines) {
+        String newline = System.lineSeparator();
+        String border = "\u2550".repeat(lines[0].length());
+        StringBuilder frame = new StringBuilder();
+        frame.append('\u2554').append(border).append('\u2557')
+                .append(newline);
+        for (String line : lines) {
+            frame.append('\u2551').append(line).append('\u2551')
+                    .append(newline);
+        }
+        frame.append('\u255A').append(border).append('\u255D')
+                .append(newline);
+        return frame.toString();
+    }
+
+    /**
+     * Builds the text of a full frame, the way printBoard draws it.
+     *
+     * @param rows
+     *            the rows of the board, '#' for a live cell
+     * @return the frame
+     */
+    private static String frame(String... rows) {
+        String[] lines = new String[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            lines[i] = rows[i].replace('#', '\u2588').replace('.', '\u2591');
+        }
+        return bordered(lines);
+    }
+
+    /**
+     * Draws the blinker once.
+     *
+     * @param glyphs
+     *            how cells become characters
+     * @return the frame
+     * @throws IOException
+     *             never, the stream is in memory
+     */
+    private static String blinker(FrameRenderer.Glyphs glyphs)
+            throws IOException {
+        PackedBoard board = PackedBoard
+                .fromGrid(GameOfLifeV2.basicPattern("blinker"));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new FrameRenderer(bytes, FrameRenderer.Mode.SCROLL, glyphs)
+                .render(board);
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Tests that a full frame is the text printBoard prints.
+     *
+     * @throws IOException
+     *             never, the stream is in memory
+     */
+    @Test
+    public final void testRender_scrollBlinker() throws IOException {
+        PackedBoard board = PackedBoard
+                .fromGrid(GameOfLifeV2.basicPattern("blinker"));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        FrameRenderer renderer = new FrameRenderer(bytes,
+                FrameRenderer.Mode.SCROLL);
+        renderer.render(board);
+
+        String expected = frame("......", "..#...", "..#...", "..#...",
+                "......", "......");
+        assertEquals(expected,
+                new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(bytes.size(), renderer.lastFrameBytes());
+    }
+
+    /**
+     * Tests the blinker with two cells per character.
+     *
+     * @throws IOException
+     *             never, the stream is in memory
+     */
+    @Test
+    public final void testRender_halfBlocks() throws IOException {
+        String expected = bordered("  \u2584   ", "  \u2588   ", "      ");
+        assertEquals(expected, blinker(FrameRenderer.Glyphs.HALF_BLOCK));
+    }
+
+    /**
+     * Tests the blinker with eight cells per character.
+     *
+     * @throws IOException
+     *             never, the stream is in memory
+     */
+    @Test
+    public final void testRender_braille() throws IOException {
+        String expected = bordered("\u2800\u2846\u2800",
+                "\u2800\u2800\u2800");
+        assertEquals(expected, blinker(FrameRenderer.Glyphs.BRAILLE));
+    }
+
+    /**
+     * Tests that a diff frame rewrites only the cells that changed.
+     *
+     * @throws IOException
+     *             never, the stream is in memory
+     */
+    @Test
+    public final void testRender_diffBlinker() throws IOException {
+        PackedBoard board = PackedBoard
+                .fromGrid(GameOfLifeV2.basicPattern("blinker"));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        FrameRenderer renderer = new FrameRenderer(bytes,
+                FrameRenderer.Mode.DIFF);
+        renderer.render(board);
+
+        bytes.reset();
+        renderer.render(board);
+        assertEquals("\u001B[9;1H",
+                new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+
+        bytes.reset();
+        board.tick();
+        renderer.render(board);
+        assertEquals(
+                "\u001B[3;4H\u2591\u001B[4;3H\u2588\u001B[4;5H\u2588"
+                        + "\u001B[5;4H\u2591\u001B[9;1H",
+                new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Tests that a warmed-up renderer allocates nothing.
+     *
+     * @throws IOException
+     *             never, the stream drops everything
+     */
+    @Test
+    public final void testRender_allocatesNothing() throws IOException {
+        assertTrue(AllocationCounter.isSupported());
+        final int size = 64;
+        final int warmUp = 2000;
+        final int measured = 100;
+        boolean[][] grid = new boolean[size][size];
+        for (int i = 0; i < size; i++) {
+            grid[i][size / 2] = true;
+        }
+        PackedBoard board = PackedBoard.fromGrid(grid);
+        FrameRenderer scroll = new FrameRenderer(
+                OutputStream.nullOutputStream(), FrameRenderer.Mode.SCROLL);
+        FrameRenderer diff = new FrameRenderer(
+                OutputStream.nullOutputStream(), FrameRenderer.Mode.DIFF);
+        for (int i = 0; i < warmUp; i++) {
+            board.tick();
+            scroll.render(board);
+            diff.render(board);
+        }
+        long before = AllocationCounter.allocatedBytes();
+        for (int i = 0; i < measured; i++) {
+            board.tick();
+            scroll.render(board);
+            diff.render(board);
+        }
+        long after = AllocationCounter.allocatedBytes();
+        assertEquals(0, after - before);
+    }
+}
@@ -0,0 +1,115 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Testing the board that grows with its live cells.
+ *
+ */
+public class GrowingBoardTest {
+
+    /**
+     * Tests a random soup against a board big enough that it never reaches
+     * the edges.
+     */
+    @Test
+    public final void testTick_matchesBigBoard() {
+        final int size = 400;
+        final int soup = 40;
+        final int offset = (size - soup) / 2;
+        final int generations = 100;
+        Random random = new Random(4);
+        PackedBoard big = new PackedBoard(size, size);
+        big.setBoundary(Boundary.DEAD);
+        GrowingBoard plane = new GrowingBoard(Rule.CONWAY);
+        for (int row = 0; row < soup; row++) {
+            for (int column = 0; column < soup; column++) {
+                if (random.nextBoolean()) {
+                    big.setAlive(offset + row, offset + column, true);
+                    plane.setAliveAt(row, column, true);
+                }
+            }
+        }
+        for (int g = 0; g < generations; g++) {
+            big.tick();
+            plane.tick();
+        }
+        assertEquals(big.population(), plane.population());
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                assertEquals(big.isAlive(row, column),
+                        plane.isAliveAt(row - offset, column - offset));
+            }
+        }
+    }
+
+    /**
+     * Tests a glider flying far: it keeps its shape and the window keeps
+     * following it without growing.
+     */
+    @Test
+    public final void testTick_gliderFliesFar() {
+        final int generations = 4000;
+        final int glider = 3;
+        final int windowCells = 256 * 256;
+        GrowingBoard plane = GrowingBoard.from(
+                PackedBoard.fromGrid(GameOfLifeV2.basicPattern("glider")));
+        for (int g = 0; g < generations; g++) {
+            plane.tick();
+            assertTrue((long) plane.width() * plane.height() <= windowCells);
+        }
+        assertEquals(generations, plane.generation());
+        assertEquals(5, plane.population());
+        assertEquals(glider, plane.liveWidth());
+        assertEquals(glider, plane.liveHeight());
+        // one cell down and right every four generations
+        assertEquals(generations / 4, plane.minRow());
+        assertEquals(generations / 4, plane.minColumn());
+    }
+
+    /**
+     * Tests that a lightweight spaceship is not taken for a cycle once the
+     * window has followed it, though the window then holds the same words.
+     */
+    @Test
+    public final void testHash_spaceshipDoesNotCycle() {
+        final int generations = 2000;
+        final int history = 256;
+        final int[][] spaceship = { { 0, 1 }, { 0, 4 }, { 1, 0 }, { 2, 0 },
+                { 2, 4 }, { 3, 0 }, { 3, 1 }, { 3, 2 }, { 3, 3 } };
+        GrowingBoard plane = new GrowingBoard(Rule.CONWAY);
+        for (int[] cell : spaceship) {
+            plane.setAliveAt(cell[0], cell[1], true);
+        }
+        CycleDetector cycles = new CycleDetector(history);
+        cycles.observe(plane);
+        for (int g = 0; g < generations; g++) {
+            plane.tick();
+            assertEquals(CycleDetector.Outcome.RUNNING,
+                    cycles.observe(plane));
+        }
+        assertEquals(spaceship.length, plane.population());
+    }
+
+    /**
+     * Tests that killing an edge cell brings the bounds in.
+     */
+    @Test
+    public final void testSetAliveAt_boundsFollow() {
+        final int far = -1000;
+        GrowingBoard plane = new GrowingBoard(Rule.CONWAY);
+        plane.setAliveAt(0, 0, true);
+        plane.setAliveAt(far, 2, true);
+        assertEquals(far, plane.minRow());
+        assertEquals(1 - far, plane.liveHeight());
+        assertEquals(3, plane.liveWidth());
+        plane.setAliveAt(far, 2, false);
+        assertEquals(0, plane.minRow());
+        assertEquals(1, plane.liveHeight());
+        assertEquals(1, plane.liveWidth());
+    }
+
+}
@@ -0,0 +1,306 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.Test;
+
+import components.simplewriter.SimpleWriter;
+import components.simplewriter.SimpleWriter1L;
+
+/**
+ * Testing the options and runs of the headless game.
+ *
+ */
+public class HeadlessGameTest {
+
+    /**
+     * Something that reports on an output stream.
+     */
+    private interface Report {
+
+        /**
+         * Writes the report.
+         *
+         * @param out
+         *            the output stream
+         * @throws IOException
+         *             if a board cannot be loaded or saved
+         */
+        void write(SimpleWriter out) throws IOException;
+    }
+
+    /**
+     * Returns the lines a report writes.
+     *
+     * @param report
+     *            the report
+     * @return the lines written
+     * @throws IOException
+     *             if the report fails or its output cannot be read back
+     */
+    private static List<String> capture(Report report) throws IOException {
+        Path file = Files.createTempFile("headless", ".txt");
+        try {
+            SimpleWriter out = new SimpleWriter1L(file.toString());
+            try {
+                report.write(out);
+            } finally {
+                out.close();
+            }
+            return Files.readAllLines(file);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Runs one seed and returns what it printed.
+     *
+     * @param args
+     *            the command line
+     * @return the lines printed
+     * @throws IOException
+     *             if the run fails or its output cannot be read back
+     */
+    private static List<String> runOne(String... args) throws IOException {
+        HeadlessGame.Settings settings = HeadlessGame.Settings.parse(args);
+        return capture(out -> HeadlessGame.runOne(settings, 1, out,
+                new HeadlessGame.Totals()));
+    }
+
+    /**
+     * Runs a batch as concurrent sessions and returns what it printed.
+     *
+     * @param args
+     *            the command line
+     * @return the lines printed
+     * @throws IOException
+     *             if the run fails or its output cannot be read back
+     */
+    private static List<String> runSessions(String... args)
+            throws IOException {
+        HeadlessGame.Settings settings = HeadlessGame.Settings.parse(args);
+        return capture(out -> HeadlessGame.runSessions(settings, out));
+    }
+
+    /**
+     * Returns the population a run of one seed ends with, ticking its
+     * starting board on the heap.
+     *
+     * @param seed
+     *            the seed
+     * @param generations
+     *            the generations to run
+     * @param args
+     *            the command line, without a storage
+     * @return the final population
+     * @throws IOException
+     *             if the board cannot be built
+     */
+    private static long population(long seed, int generations,
+            String... args) throws IOException {
+        PackedBoard board = HeadlessGame
+                .startBoard(HeadlessGame.Settings.parse(args), seed);
+        for (int i = 0; i < generations; i++) {
+            board.tick();
+        }
+        return board.population();
+    }
+
+    /**
+     * Tests that an option without a value is refused.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testParse_missingValue() {
+        HeadlessGame.Settings.parse(new String[] { "--size", "8", "--seed" });
+    }
+
+    /**
+     * Tests that an unknown option is refused.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testParse_unknownOption() {
+        HeadlessGame.Settings.parse(new String[] { "--colour", "red" });
+    }
+
+    /**
+     * Tests that an unknown output policy is refused rather than taken for
+     * the summary.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testParse_unknownOutput() {
+        HeadlessGame.Settings.parse(new String[] { "--output", "sometimes" });
+    }
+
+    /**
+     * Tests that a range of seeds without a dash is refused.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testParse_malformedSeeds() {
+        HeadlessGame.Settings.parse(new String[] { "--seeds", "7" });
+    }
+
+    /**
+     * Tests that a position without a comma is refused.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testParse_malformedPosition() {
+        HeadlessGame.Settings.parse(new String[] { "--at", "3" });
+    }
+
+    /**
+     * Tests that a rate over no time is 0, not NaN or infinity.
+     */
+    @Test
+    public final void testRate_noTime() {
+        final double seconds = 2;
+        assertEquals(0, HeadlessGame.rate(0, 0), 0);
+        assertEquals(0, HeadlessGame.rate(seconds, 0), 0);
+        assertEquals(seconds, HeadlessGame.rate(seconds * seconds, seconds),
+                0);
+    }
+
+    /**
+     * Tests that a named pattern goes where --at puts it, with the rule and
+     * boundary given.
+     *
+     * @throws IOException
+     *             never
+     */
+    @Test
+    public final void testStartBoard_placesPattern() throws IOException {
+        final int size = 10;
+        final int top = 3;
+        final int left = 2;
+        PackedBoard board = HeadlessGame.startBoard(
+                HeadlessGame.Settings.parse(new String[] { "--size",
+                        "" + size, "--pattern", "glider", "--at",
+                        top + "," + left, "--rule", "highlife",
+                        "--boundary", "dead" }),
+                1);
+        boolean[][] glider = GameOfLifeV2.basicPattern("glider");
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                boolean inside = row >= top && row < top + glider.length
+                        && column >= left
+                        && column < left + glider[0].length;
+                assertEquals(inside && glider[row - top][column - left],
+                        board.isAlive(row, column));
+            }
+        }
+        assertEquals(Rule.parse("highlife"), board.rule());
+        assertEquals(Boundary.DEAD, board.boundary());
+    }
+
+    /**
+     * Tests that a pattern reaching past the board is refused.
+     *
+     * @throws IOException
+     *             never
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testStartBoard_patternDoesNotFit() throws IOException {
+        HeadlessGame.startBoard(HeadlessGame.Settings.parse(new String[] {
+            "--size", "8", "--pattern", "glider", "--at", "0,3" }), 1);
+    }
+
+    /**
+     * Tests that a random board depends on the seed and the density only.
+     *
+     * @throws IOException
+     *             never
+     */
+    @Test
+    public final void testStartBoard_randomBySeed() throws IOException {
+        String[] args = { "--size", "40", "--density", "30" };
+        PackedBoard first = HeadlessGame
+                .startBoard(HeadlessGame.Settings.parse(args), 2);
+        PackedBoard again = HeadlessGame
+                .startBoard(HeadlessGame.Settings.parse(args), 2);
+        PackedBoard other = HeadlessGame
+                .startBoard(HeadlessGame.Settings.parse(args), 3);
+        assertEquals(first.hash(), again.hash());
+        assertTrue(first.hash() != other.hash());
+        assertEquals(0, HeadlessGame.startBoard(HeadlessGame.Settings
+                .parse(new String[] { "--density", "0" }), 1).population());
+    }
+
+    /**
+     * Tests the report of a small run that prints its population as it goes.
+     *
+     * @throws IOException
+     *             never
+     */
+    @Test
+    public final void testRunOne_every() throws IOException {
+        List<String> lines = runOne("--size", "8", "--pattern", "blinker",
+                "--generations", "4", "--output", "every:2");
+        assertEquals(3, lines.size());
+        assertEquals("seed 1 generation 2 population 3", lines.get(0));
+        assertEquals("seed 1 generation 4 population 3", lines.get(1));
+        assertTrue(lines.get(2), lines.get(2)
+                .startsWith("seed 1: 4 generations, population 3, "));
+    }
+
+    /**
+     * Tests that a run of no generations reports rates of 0.
+     *
+     * @throws IOException
+     *             never
+     */
+    @Test
+    public final void testRunOne_noGenerations() throws IOException {
+        List<String> lines = runOne("--size", "8", "--pattern", "blinker",
+                "--generations", "0");
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0), lines.get(0).startsWith(
+                "seed 1: 0 generations, population 3, 0.000 s, "
+                        + "0.0 generations/s"));
+    }
+
+    /**
+     * Tests that sessions refuse the options that need one run at a time.
+     *
+     * @throws IOException
+     *             never
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testRunSessions_refusesEvery() throws IOException {
+        runSessions("--seeds", "1-2", "--sessions", "2", "--output",
+                "every:5");
+    }
+
+    /**
+     * Tests that concurrent sessions on a mapped store each get their own
+     * scratch file, and so end the same as on the heap.
+     *
+     * @throws IOException
+     *             if the scratch files cannot be used
+     */
+    @Test
+    public final void testRunSessions_mappedStorage() throws IOException {
+        final int generations = 30;
+        Path scratch = Files.createTempFile("sessions", ".words");
+        try {
+            List<String> lines = runSessions("--size", "64", "--seeds", "1-2",
+                    "--generations", "" + generations, "--storage",
+                    scratch.toString(), "--sessions", "2");
+            for (long seed = 1; seed <= 2; seed++) {
+                assertEquals("seed " + seed + ": " + generations
+                        + " generations, population "
+                        + population(seed, generations, "--size", "64"),
+                        lines.get((int) seed - 1));
+            }
+        } finally {
+            Files.delete(scratch);
+            for (long seed = 1; seed <= 2; seed++) {
+                Files.deleteIfExists(Paths.get(scratch + "." + seed));
+            }
+        }
+    }
+}
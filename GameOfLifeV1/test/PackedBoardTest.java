@@ -0,0 +1,193 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+/**
+ * Testing the bit-packed board against GameOfLifeV2.tickGame.
+ *
+ */
+public class PackedBoardTest {
+
+    /**
+     * Seed for the random boards, so failures can be reproduced.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * Runs both engines for a number of generations and compares every cell
+     * after each one.
+     *
+     * @param grid
+     *            the starting board
+     * @param generations
+     *            how many generations to compare
+     */
+    private static void assertSameAsTickGame(boolean[][] grid,
+            int generations) {
+        PackedBoard board = PackedBoard.fromGrid(grid);
+        for (int i = 0; i < generations; i++) {
+            GameOfLifeV2.tickGame(grid);
+            board.tick();
+            assertEquals(grid, board.toGrid());
+        }
+    }
+
+    /**
+     * Tests a blinker (period 2) update.
+     */
+    @Test
+    public final void testTick_blinker() {
+        boolean[][] grid = { { false, false, false, false, false, false },
+                { false, false, true, false, false, false },
+                { false, false, true, false, false, false },
+                { false, false, true, false, false, false },
+                { false, false, false, false, false, false },
+                { false, false, false, false, false, false } };
+        final boolean[][] result = {
+                { false, false, false, false, false, false },
+                { false, false, false, false, false, false },
+                { false, true, true, true, false, false },
+                { false, false, false, false, false, false },
+                { false, false, false, false, false, false },
+                { false, false, false, false, false, false } };
+        PackedBoard board = PackedBoard.fromGrid(grid);
+        board.tick();
+        assertEquals(result, board.toGrid());
+        assertEquals(1, board.generation());
+    }
+
+    /**
+     * Tests a glider crossing the wrapped edges of a small board.
+     */
+    @Test
+    public final void testTick_gliderWraps() {
+        boolean[][] grid = new boolean[6][6];
+        grid[0][2] = true;
+        grid[1][0] = true;
+        grid[1][2] = true;
+        grid[2][1] = true;
+        grid[2][2] = true;
+        final int generations = 30;
+        assertSameAsTickGame(grid, generations);
+    }
+
+    /**
+     * Tests a random board one word wide.
+     */
+    @Test
+    public final void testTick_random64() {
+        final int size = 64;
+        final int generations = 20;
+        assertSameAsTickGame(RandomBoards.grid(size, size, SEED),
+                generations);
+    }
+
+    /**
+     * Tests a random board whose rows end in a partial word.
+     */
+    @Test
+    public final void testTick_random100x70() {
+        final int height = 100;
+        final int width = 70;
+        final int generations = 20;
+        assertSameAsTickGame(RandomBoards.grid(height, width, SEED),
+                generations);
+    }
+
+    /**
+     * Tests a random board several words wide.
+     */
+    @Test
+    public final void testTick_random200() {
+        final int size = 200;
+        final int generations = 10;
+        assertSameAsTickGame(RandomBoards.grid(size, size, SEED),
+                generations);
+    }
+
+    /**
+     * Tests boards narrower than three cells, where a cell's east and west
+     * neighbors are the same cell.
+     */
+    @Test
+    public final void testTick_narrowBoards() {
+        final int height = 5;
+        final int generations = 5;
+        for (int width = 1; width <= 3; width++) {
+            assertSameAsTickGame(RandomBoards.grid(height, width, SEED),
+                    generations);
+        }
+    }
+
+    /**
+     * Tests the population count of a beacon.
+     */
+    @Test
+    public final void testPopulation_beacon() {
+        PackedBoard board = new PackedBoard(6, 6);
+        board.setAlive(1, 1, true);
+        board.setAlive(1, 2, true);
+        board.setAlive(2, 1, true);
+        board.setAlive(2, 2, true);
+        board.setAlive(3, 3, true);
+        board.setAlive(3, 4, true);
+        board.setAlive(4, 3, true);
+        board.setAlive(4, 4, true);
+        assertEquals(8, board.population());
+        board.tick();
+        assertEquals(6, board.population());
+    }
+
+    /**
+     * Tests that boards kept off the heap, in direct buffers and in a mapped
+     * file, tick the same as a board on the heap, and copy to and from it.
+     *
+     * @throws IOException
+     *             if the scratch file cannot be mapped
+     */
+    @Test
+    public final void testTick_offHeap() throws IOException {
+        final int width = 130;
+        final int height = 40;
+        final int generations = 20;
+        PackedBoard heap = RandomBoards.board(height, width, SEED);
+        Path file = Files.createTempFile("board", ".words");
+        try {
+            PackedBoard direct = PackedBoard.offHeap(width, height);
+            PackedBoard mapped = PackedBoard.mapped(width, height, file);
+            assertTrue(direct.isOffHeap());
+            assertTrue(mapped.isOffHeap());
+            assertFalse(heap.isOffHeap());
+            direct.copyFrom(heap);
+            mapped.copyFrom(direct);
+            for (int g = 0; g < generations; g++) {
+                heap.tick();
+                direct.tick();
+                mapped.tick();
+                assertEquals(heap.hash(), direct.hash());
+                assertEquals(heap.hash(), mapped.hash());
+            }
+            PackedBoard back = new PackedBoard(width, height);
+            back.copyFrom(mapped);
+            assertArrayEquals(heap.toGrid(), back.toGrid());
+            assertEquals(heap.population(), mapped.population());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Tests that a board too big to index is refused.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testOffHeap_tooBig() {
+        PackedBoard.offHeap(Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,123 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+/**
+ * Testing reading and writing RLE and plaintext patterns.
+ *
+ */
+public class PatternFilesTest {
+
+    /**
+     * Seed for the random boards, so failures can be reproduced.
+     */
+    private static final long SEED = 5;
+
+    /**
+     * The glider of GameOfLifeV2, in RLE.
+     */
+    private static final String GLIDER_RLE = "#N Glider\n"
+            + "x = 3, y = 3, rule = B3/S23\n" + "2bo$obo$b2o!\n";
+
+    /**
+     * Tests the glider in RLE placed at an offset.
+     *
+     * @throws IOException
+     *             never, the pattern is in memory
+     */
+    @Test
+    public final void testReadRle_gliderAtOffset() throws IOException {
+        final int size = 20;
+        final int top = 4;
+        final int left = 9;
+        PackedBoard board = new PackedBoard(size, size);
+        Rule rule = PatternFiles.readRle(
+                new BufferedReader(new StringReader(GLIDER_RLE)), board, top,
+                left);
+        assertEquals(Rule.CONWAY, rule);
+        boolean[][] glider = GameOfLifeV2.basicPattern("glider");
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                boolean expected = row >= top && column >= left
+                        && row - top < glider.length
+                        && column - left < glider.length
+                        && glider[row - top][column - left];
+                assertEquals(expected, board.isAlive(row, column));
+            }
+        }
+    }
+
+    /**
+     * Tests the glider in plaintext, with a comment line.
+     *
+     * @throws IOException
+     *             never, the pattern is in memory
+     */
+    @Test
+    public final void testReadCells_glider() throws IOException {
+        final int size = 6;
+        String cells = "!Name: Glider\r\n..O\r\nO.O\r\n.OO\r\n";
+        PackedBoard board = new PackedBoard(size, size);
+        PatternFiles.readCells(new BufferedReader(new StringReader(cells)),
+                board, 0, 0);
+        assertEquals(GameOfLifeV2.basicPattern("glider"), board.toGrid());
+    }
+
+    /**
+     * Tests that a board written in RLE reads back the same.
+     *
+     * @throws IOException
+     *             never, the pattern is in memory
+     */
+    @Test
+    public final void testWriteRle_roundTrip() throws IOException {
+        final int height = 30;
+        final int width = 130;
+        PackedBoard board = RandomBoards.board(height, width, SEED);
+        StringWriter text = new StringWriter();
+        PatternFiles.writeRle(board, text);
+        PackedBoard read = new PackedBoard(width, height);
+        PatternFiles.readRle(
+                new BufferedReader(new StringReader(text.toString())), read,
+                0, 0);
+        assertEquals(board.toGrid(), read.toGrid());
+    }
+
+    /**
+     * Tests that a board written in plaintext reads back the same.
+     *
+     * @throws IOException
+     *             never, the pattern is in memory
+     */
+    @Test
+    public final void testWriteCells_roundTrip() throws IOException {
+        final int height = 30;
+        final int width = 130;
+        PackedBoard board = RandomBoards.board(height, width, SEED);
+        StringWriter text = new StringWriter();
+        PatternFiles.writeCells(board, text);
+        PackedBoard read = new PackedBoard(width, height);
+        PatternFiles.readCells(
+                new BufferedReader(new StringReader(text.toString())), read,
+                0, 0);
+        assertEquals(board.toGrid(), read.toGrid());
+    }
+
+    /**
+     * Tests that a pattern hanging off the board is refused.
+     *
+     * @throws IOException
+     *             never, the pattern is in memory
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testReadRle_doesNotFit() throws IOException {
+        final int size = 6;
+        PatternFiles.readRle(new BufferedReader(new StringReader(GLIDER_RLE)),
+                new PackedBoard(size, size), 0, size - 2);
+    }
+}
@@ -0,0 +1,99 @@
+import java.util.Random;
+
+/**
+ * Random boards for the tests, made from a seed so that a failure can be
+ * reproduced.
+ */
+public final class RandomBoards {
+
+    /**
+     * Percent of live cells when none is given: each cell is a coin toss.
+     */
+    private static final int HALF = 50;
+
+    /**
+     * One hundred percent.
+     */
+    private static final int PERCENT = 100;
+
+    /**
+     * Default constructor--private to prevent instantiation.
+     */
+    private RandomBoards() {
+        // no code needed here
+    }
+
+    /**
+     * Makes a random grid with about half of its cells alive.
+     *
+     * @param height
+     *            the number of rows
+     * @param width
+     *            the number of columns
+     * @param seed
+     *            the seed
+     * @return the grid
+     */
+    public static boolean[][] grid(int height, int width, long seed) {
+        return grid(height, width, seed, HALF);
+    }
+
+    /**
+     * Makes a random grid.
+     *
+     * @param height
+     *            the number of rows
+     * @param width
+     *            the number of columns
+     * @param seed
+     *            the seed
+     * @param density
+     *            percent of live cells
+     * @return the grid
+     */
+    public static boolean[][] grid(int height, int width, long seed,
+            int density) {
+        Random random = new Random(seed);
+        boolean[][] grid = new boolean[height][width];
+        for (int row = 0; row < height; row++) {
+            for (int column = 0; column < width; column++) {
+                grid[row][column] = random.nextInt(PERCENT) < density;
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Makes a random bit-packed board with about half of its cells alive.
+     *
+     * @param height
+     *            the number of rows
+     * @param width
+     *            the number of columns
+     * @param seed
+     *            the seed
+     * @return the board
+     */
+    public static PackedBoard board(int height, int width, long seed) {
+        return PackedBoard.fromGrid(grid(height, width, seed));
+    }
+
+    /**
+     * Makes a random bit-packed board.
+     *
+     * @param height
+     *            the number of rows
+     * @param width
+     *            the number of columns
+     * @param seed
+     *            the seed
+     * @param density
+     *            percent of live cells
+     * @return the board
+     */
+    public static PackedBoard board(int height, int width, long seed,
+            int density) {
+        return PackedBoard.fromGrid(grid(height, width, seed, density));
+    }
+
+}
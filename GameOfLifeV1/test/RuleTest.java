@@ -0,0 +1,122 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Testing rules and the engines playing them.
+ *
+ */
+public class RuleTest {
+
+    /**
+     * Tests B/S notation.
+     */
+    @Test
+    public final void testParse_bs() {
+        Rule rule = Rule.parse("B36/S23");
+        assertEquals((1 << 3) | (1 << 6), rule.births());
+        assertEquals((1 << 2) | (1 << 3), rule.survivals());
+        assertEquals("B36/S23", rule.toString());
+    }
+
+    /**
+     * Tests the other ways of writing a rule.
+     */
+    @Test
+    public final void testParse_otherForms() {
+        Rule highLife = Rule.parse("B36/S23");
+        assertEquals(highLife, Rule.parse("b36s23"));
+        assertEquals(highLife, Rule.parse("S23/B36"));
+        assertEquals(highLife, Rule.parse("23/36"));
+        assertEquals(highLife, Rule.parse("highlife"));
+        assertEquals(Rule.CONWAY, Rule.parse("life"));
+        assertEquals("B2/S", Rule.parse("seeds").toString());
+    }
+
+    /**
+     * Tests that a count past 8 is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testParse_badCount() {
+        Rule.parse("B39/S23");
+    }
+
+    /**
+     * Tests the table against the masks.
+     */
+    @Test
+    public final void testNext_dayAndNight() {
+        Rule rule = Rule.parse("daynight");
+        assertTrue(rule.next(false, 6));
+        assertFalse(rule.next(false, 4));
+        assertTrue(rule.next(true, 4));
+        assertFalse(rule.next(true, 5));
+        assertFalse(Rule.CONWAY.next(true, 1));
+        assertTrue(Rule.CONWAY.next(false, 3));
+    }
+
+    /**
+     * Tests that every engine gives the same generations as tickGame under
+     * random rules, including ones that bring empty space to life.
+     */
+    @Test
+    public final void testTick_enginesAgree() {
+        final int width = 70;
+        final int height = 13;
+        final int rules = 20;
+        final int generations = 6;
+        final int allCounts = (1 << (Rule.MAX_NEIGHBORS + 1)) - 1;
+        Random random = new Random(1);
+        for (int r = 0; r < rules; r++) {
+            Rule rule = Rule.of(random.nextInt() & allCounts,
+                    random.nextInt() & allCounts);
+            boolean[][] grid = RandomBoards.grid(height, width,
+                    random.nextLong());
+            PackedBoard packed = PackedBoard.fromGrid(grid);
+            packed.setRule(rule);
+            PackedBoard forTiles = PackedBoard.fromGrid(grid);
+            forTiles.setRule(rule);
+            TiledTicker tiled = new TiledTicker(forTiles);
+            BufferedGrid buffered = new BufferedGrid(grid, rule);
+            for (int g = 0; g < generations; g++) {
+                GameOfLifeV2.tickGame(grid, rule);
+                packed.tick();
+                tiled.tick();
+                buffered.tick();
+                assertArrayEquals(rule.toString(), grid, packed.toGrid());
+                assertArrayEquals(rule.toString(), grid, forTiles.toGrid());
+                assertArrayEquals(rule.toString(), grid, buffered.grid());
+                assertEquals(packed.hash(), buffered.hash());
+            }
+        }
+    }
+
+    /**
+     * Tests that a snapshot keeps the rule of the board.
+     *
+     * @throws IOException
+     *             if the snapshot cannot be written
+     */
+    @Test
+    public final void testSnapshot_keepsRule() throws IOException {
+        final int size = 10;
+        Path file = Files.createTempFile("rule", ".golb");
+        try {
+            PackedBoard board = new PackedBoard(size, size);
+            board.setRule(Rule.parse("B36/S23"));
+            BoardSnapshot.save(board, file, true);
+            assertEquals(board.rule(), BoardSnapshot.load(file).rule());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+}
@@ -0,0 +1,194 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+
+/**
+ * Testing many sessions sharing a server.
+ *
+ */
+public class SessionServerTest {
+
+    /**
+     * An engine that fails the way a broken engine does under -ea: its tick
+     * throws an AssertionError.
+     */
+    private static final class FailingEngine implements LifeEngine {
+
+        /**
+         * The board it reports.
+         */
+        private final PackedBoard board = new PackedBoard(2, 2);
+
+        @Override
+        public int width() {
+            return this.board.width();
+        }
+
+        @Override
+        public int height() {
+            return this.board.height();
+        }
+
+        @Override
+        public boolean isAlive(int row, int column) {
+            return this.board.isAlive(row, column);
+        }
+
+        @Override
+        public long word(int row, int wordIndex) {
+            return this.board.word(row, wordIndex);
+        }
+
+        @Override
+        public long population() {
+            return this.board.population();
+        }
+
+        @Override
+        public long generation() {
+            return this.board.generation();
+        }
+
+        @Override
+        public long hash() {
+            return this.board.hash();
+        }
+
+        @Override
+        public Rule rule() {
+            return this.board.rule();
+        }
+
+        @Override
+        public Boundary boundary() {
+            return this.board.boundary();
+        }
+
+        @Override
+        public void tick() {
+            throw new AssertionError("expected by the test");
+        }
+    }
+
+    /**
+     * Tests that a session whose engine throws an Error fails its future
+     * and is no longer counted as active.
+     *
+     * @throws Exception
+     *             if interrupted or the future is never completed
+     */
+    @Test
+    public final void testSubmit_errorFailsFuture() throws Exception {
+        final long budget = 10;
+        final long seconds = 30;
+        try (SessionServer server = new SessionServer(1)) {
+            CompletableFuture<GameSession> run = server.submit(
+                    new GameSession(0, new FailingEngine(), budget, 0));
+            try {
+                run.get(seconds, TimeUnit.SECONDS);
+                throw new AssertionError("the session did not fail");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof AssertionError);
+            }
+            assertEquals(0, server.active());
+        }
+    }
+
+    /**
+     * Tests that a session submitted after the server is closed fails at
+     * once and is not counted as active.
+     */
+    @Test
+    public final void testSubmit_afterClose() {
+        final int size = 8;
+        SessionServer server = new SessionServer(1);
+        server.close();
+        CompletableFuture<GameSession> run = server.submit(
+                new GameSession(0, RandomBoards.board(size, size, 0), 1, 0));
+        assertTrue(run.isCompletedExceptionally());
+        assertEquals(0, server.active());
+    }
+
+    /**
+     * Tests that sessions run side by side end up where running each alone
+     * would, within their budgets.
+     *
+     * @throws InterruptedException
+     *             if interrupted
+     * @throws ExecutionException
+     *             if a session fails
+     */
+    @Test
+    public final void testSubmit_matchesRunningAlone()
+            throws InterruptedException, ExecutionException {
+        final int sessions = 300;
+        final int size = 40;
+        final int threads = 4;
+        final long slice = 5000;
+        List<CompletableFuture<GameSession>> runs = new ArrayList<>();
+        try (SessionServer server = new SessionServer(threads, slice)) {
+            for (int seed = 0; seed < sessions; seed++) {
+                runs.add(server.submit(new GameSession(seed,
+                        RandomBoards.board(size, size, seed), seed, 0)));
+            }
+            for (int seed = 0; seed < sessions; seed++) {
+                GameSession session = runs.get(seed).get();
+                PackedBoard alone = RandomBoards.board(size, size, seed);
+                for (int g = 0; g < seed; g++) {
+                    alone.tick();
+                }
+                assertEquals(seed, session.generationsRun());
+                assertEquals(alone.hash(), session.engine().hash());
+            }
+            assertEquals(0, server.active());
+        }
+    }
+
+    /**
+     * Tests that a session with a huge budget does not hold up the others,
+     * even on one thread, and stops when cancelled.
+     *
+     * @throws Exception
+     *             if a session fails or takes too long
+     */
+    @Test
+    public final void testSubmit_fairToShortSessions() throws Exception {
+        final int size = 64;
+        final int shortSessions = 20;
+        final long shortBudget = 50;
+        final int cycleHistory = 4;
+        final long seconds = 30;
+        try (SessionServer server = new SessionServer(1)) {
+            CompletableFuture<GameSession> endless = server.submit(
+                    new GameSession(-1, RandomBoards.board(size, size, -1),
+                            Long.MAX_VALUE, 0));
+            List<CompletableFuture<GameSession>> runs = new ArrayList<>();
+            for (int seed = 0; seed < shortSessions; seed++) {
+                runs.add(server.submit(new GameSession(seed,
+                        RandomBoards.board(size, size, seed), shortBudget,
+                        cycleHistory)));
+            }
+            CompletableFuture.allOf(runs.toArray(new CompletableFuture<?>[0]))
+                    .get(seconds, TimeUnit.SECONDS);
+            assertFalse(endless.isDone());
+            assertEquals(1, server.active());
+            endless.cancel(false);
+            assertEquals(0, server.active());
+            for (CompletableFuture<GameSession> run : runs) {
+                assertTrue(run.get().isFinished());
+            }
+        } catch (TimeoutException e) {
+            throw new AssertionError("short sessions were starved", e);
+        }
+    }
+
+}
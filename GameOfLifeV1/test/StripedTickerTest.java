@@ -0,0 +1,88 @@
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+/**
+ * Testing the striped multi-core ticker against GameOfLifeV2.tickGame.
+ *
+ */
+public class StripedTickerTest {
+
+    /**
+     * Seed for the random boards, so failures can be reproduced.
+     */
+    private static final long SEED = 3;
+
+    /**
+     * Tests stripes that do not divide the board evenly, on a fork/join
+     * pool.
+     */
+    @Test
+    public final void testTick_forkJoin() {
+        final int height = 101;
+        final int width = 130;
+        final int generations = 20;
+        final int threads = 4;
+        final int stripeRows = 7;
+        boolean[][] grid = RandomBoards.grid(height, width, SEED);
+        try (StripedTicker ticker = new StripedTicker(
+                PackedBoard.fromGrid(grid), threads, stripeRows)) {
+            assertEquals(15, ticker.stripeCount());
+            for (int i = 0; i < generations; i++) {
+                GameOfLifeV2.tickGame(grid);
+                ticker.tick();
+                assertEquals(grid, ticker.board().toGrid());
+            }
+        }
+    }
+
+    /**
+     * Tests the stripe size picked from the board height and the parallelism
+     * when 0 is given.
+     */
+    @Test
+    public final void testTick_defaultStripes() {
+        final int height = 100;
+        final int width = 70;
+        final int generations = 20;
+        final int threads = 2;
+        final int expectedStripes = 8;
+        boolean[][] grid = RandomBoards.grid(height, width, SEED);
+        try (StripedTicker ticker = new StripedTicker(
+                PackedBoard.fromGrid(grid), threads, 0)) {
+            assertEquals(expectedStripes, ticker.stripeCount());
+            for (int i = 0; i < generations; i++) {
+                GameOfLifeV2.tickGame(grid);
+                ticker.tick();
+                assertEquals(grid, ticker.board().toGrid());
+            }
+        }
+    }
+
+    /**
+     * Tests one-row stripes on a caller-supplied executor.
+     */
+    @Test
+    public final void testTick_executor() {
+        final int size = 64;
+        final int generations = 20;
+        final int threads = 3;
+        boolean[][] grid = RandomBoards.grid(size, size, SEED);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            StripedTicker ticker = new StripedTicker(
+                    PackedBoard.fromGrid(grid), executor, 1);
+            for (int i = 0; i < generations; i++) {
+                GameOfLifeV2.tickGame(grid);
+                ticker.tick();
+            }
+            assertEquals(grid, ticker.board().toGrid());
+            assertEquals(generations, ticker.board().generation());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Testing the incremental tiled ticker against GameOfLifeV2.tickGame.
+ *
+ */
+public class TiledTickerTest {
+
+    /**
+     * Makes a board with a random patch in one corner and empty space
+     * around it.
+     *
+     * @param size
+     *            the number of rows and columns
+     * @param patch
+     *            the side of the random patch
+     * @return the grid
+     */
+    private static boolean[][] patchGrid(int size, int patch) {
+        final long seed = 5;
+        Random random = new Random(seed);
+        boolean[][] grid = new boolean[size][size];
+        for (int i = 0; i < patch; i++) {
+            for (int j = 0; j < patch; j++) {
+                grid[i][j] = random.nextBoolean();
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Tests a long run generation by generation, and that tiles get skipped
+     * once the board settles.
+     */
+    @Test
+    public final void testTick_matchesTickGame() {
+        final int size = 200;
+        final int patch = 40;
+        final int tileRows = 8;
+        final int generations = 400;
+        boolean[][] grid = patchGrid(size, patch);
+        TiledTicker ticker = new TiledTicker(PackedBoard.fromGrid(grid),
+                tileRows);
+        for (int i = 0; i < generations; i++) {
+            GameOfLifeV2.tickGame(grid);
+            ticker.tick();
+            assertEquals(grid, ticker.board().toGrid());
+            assertEquals(ticker.tileCount(), ticker.lastComputed()
+                    + ticker.lastStill() + ticker.lastOscillating());
+        }
+        assertTrue(ticker.totalSkipped() > ticker.totalComputed());
+    }
+
+    /**
+     * Tests that a lone blinker is skipped as a period-2 oscillator.
+     */
+    @Test
+    public final void testTick_blinkerSkipped() {
+        final int size = 64;
+        final int tileRows = 16;
+        final int warmUp = 3;
+        PackedBoard board = new PackedBoard(size, size);
+        board.setAlive(10, 10, true);
+        board.setAlive(10, 11, true);
+        board.setAlive(10, 12, true);
+        TiledTicker ticker = new TiledTicker(board, tileRows);
+        for (int i = 0; i < warmUp; i++) {
+            ticker.tick();
+        }
+        assertEquals(0, ticker.lastComputed());
+        assertTrue(ticker.lastOscillating() > 0);
+        ticker.tick();
+        assertTrue(board.isAlive(10, 10));
+        assertTrue(board.isAlive(10, 12));
+        assertEquals(3, board.population());
+    }
+}
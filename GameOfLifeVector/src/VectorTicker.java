@@ -0,0 +1,339 @@
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Ticks a {@link PackedBoard} with the JDK Vector API, computing as many
+ * 64-bit words at once as the widest vector of the machine holds: 8 with
+ * AVX-512, 4 with AVX2. The neighbor sums and the rule are the same bit-sliced
+ * adders as {@link PackedBoard#evolveWord(int, int)}, applied lane by lane,
+ * so the generations and hashes are bit-for-bit the same as ticking the board
+ * itself.
+ *
+ * <p>
+ * The Vector API still incubates, so this class is compiled and run with
+ * {@code --add-modules jdk.incubator.vector}; {@link VectorSupport} loads it
+ * only when that module is there. Rules other than Conway's, boards kept off
+ * the heap, and the words at the right end of each row that do not fill a
+ * vector, fewer than one vector's worth, are ticked by the scalar code of the
+ * board.
+ * </p>
+ */
+public final class VectorTicker implements LifeEngine {
+
+    /**
+     * The widest vector of longs the machine computes with.
+     */
+    private static final VectorSpecies<Long> SPECIES = LongVector
+            .SPECIES_PREFERRED;
+
+    /**
+     * Number of words per vector.
+     */
+    private static final int LANES = SPECIES.length();
+
+    /**
+     * Shift that moves the top bit of a word to the bottom, or back.
+     */
+    private static final int BIT_MASK = Long.SIZE - 1;
+
+    /**
+     * The board being ticked.
+     */
+    private final PackedBoard board;
+
+    /**
+     * 0, 1, ..., LANES - 1, the offsets of the words of a vector.
+     */
+    private final long[] laneOffsets = new long[LANES];
+
+    /**
+     * Shifts of the last vector of a row, when it ends with the last word:
+     * how far to shift the word right of each lane to bring its first cell
+     * next to the last cell of the lane, 63 except for the last word, whose
+     * last cell may come earlier.
+     */
+    private final LongVector edgeShifts;
+
+    /**
+     * The bits of each lane that are on the board: all of them, except in
+     * the last word of a row.
+     */
+    private final LongVector edgeMask;
+
+    /**
+     * 63 in every lane, the shifts of a vector that does not hold the last
+     * word of a row.
+     */
+    private final LongVector fullShifts = LongVector.broadcast(SPECIES,
+            BIT_MASK);
+
+    /**
+     * Every bit set, the mask of a vector with no edge word.
+     */
+    private final LongVector fullMask = LongVector.broadcast(SPECIES, -1L);
+
+    /**
+     * Creates a ticker for a board.
+     *
+     * @param board
+     *            the board to tick
+     */
+    public VectorTicker(PackedBoard board) {
+        this.board = board;
+        for (int i = 0; i < LANES; i++) {
+            this.laneOffsets[i] = i;
+        }
+        int lastBit = (board.width() - 1) & BIT_MASK;
+        long[] shifts = new long[LANES];
+        long[] mask = new long[LANES];
+        for (int i = 0; i < LANES; i++) {
+            shifts[i] = BIT_MASK;
+            mask[i] = -1L;
+        }
+        shifts[LANES - 1] = lastBit;
+        mask[LANES - 1] = -1L >>> (BIT_MASK - lastBit);
+        this.edgeShifts = LongVector.fromArray(SPECIES, shifts, 0);
+        this.edgeMask = LongVector.fromArray(SPECIES, mask, 0);
+    }
+
+    /**
+     * Returns the number of words computed at once.
+     *
+     * @return the number of lanes of a vector
+     */
+    public static int lanes() {
+        return LANES;
+    }
+
+    /**
+     * Returns the board being ticked.
+     *
+     * @return the board
+     */
+    public PackedBoard board() {
+        return this.board;
+    }
+
+    @Override
+    public int width() {
+        return this.board.width();
+    }
+
+    @Override
+    public int height() {
+        return this.board.height();
+    }
+
+    @Override
+    public boolean isAlive(int row, int column) {
+        return this.board.isAlive(row, column);
+    }
+
+    @Override
+    public long word(int row, int wordIndex) {
+        return this.board.word(row, wordIndex);
+    }
+
+    @Override
+    public long population() {
+        return this.board.population();
+    }
+
+    @Override
+    public long generation() {
+        return this.board.generation();
+    }
+
+    @Override
+    public long hash() {
+        return this.board.hash();
+    }
+
+    @Override
+    public Rule rule() {
+        return this.board.rule();
+    }
+
+    @Override
+    public Boundary boundary() {
+        return this.board.boundary();
+    }
+
+    /**
+     * Computes the next generation.
+     */
+    @Override
+    public void tick() {
+        PackedBoard b = this.board;
+        long[] cells = b.frontArray();
+        if (cells == null || !b.rule().isConway()) {
+            b.tick();
+            return;
+        }
+        b.fillHalo();
+        long[] next = b.backArray();
+        int wordsPerRow = b.wordsPerRow();
+        int stride = b.stride();
+        // whole vectors up to the end of the row, the last one masked if it
+        // holds the last word; any words left over go to the scalar code
+        int vectorWords = wordsPerRow / LANES * LANES;
+        int lastVector = wordsPerRow - LANES;
+        LongVector lanes = LongVector.fromArray(SPECIES, this.laneOffsets, 0);
+        LongVector hashes = LongVector.zero(SPECIES);
+        long hash = 0;
+        for (int row = 0; row < b.height(); row++) {
+            int base = b.index(row, 0);
+            int hashBase = row * wordsPerRow;
+            for (int w = 0; w < vectorWords; w += LANES) {
+                LongVector word;
+                if (w == lastVector) {
+                    word = evolve(cells, base + w, stride, this.edgeShifts,
+                            this.edgeMask);
+                } else {
+                    word = evolve(cells, base + w, stride, this.fullShifts,
+                            this.fullMask);
+                }
+                word.intoArray(next, base + w);
+                hashes = hashes.lanewise(VectorOperators.XOR,
+                        mix(lanes.add(hashBase + w), word));
+            }
+            for (int w = vectorWords; w < wordsPerRow; w++) {
+                long word = b.evolveWord(row, w);
+                b.setBackWord(row, w, word);
+                hash ^= PackedBoard.mix(hashBase + w, word);
+            }
+        }
+        hash ^= hashes.reduceLanes(VectorOperators.XOR);
+        b.swapBuffers(hash);
+    }
+
+    /**
+     * Loads the words of a vector.
+     *
+     * @param cells
+     *            the array
+     * @param i
+     *            the index of the first word
+     * @return the words
+     */
+    private static LongVector load(long[] cells, int i) {
+        return LongVector.fromArray(SPECIES, cells, i);
+    }
+
+    /**
+     * Returns, in each bit, the cell left of the same bit of the words at i.
+     *
+     * @param cells
+     *            the array
+     * @param i
+     *            the index of the first word
+     * @param words
+     *            the words at i
+     * @return the cells to the west
+     */
+    private static LongVector west(long[] cells, int i, LongVector words) {
+        return words.lanewise(VectorOperators.LSHL, 1)
+                .or(load(cells, i - 1).lanewise(VectorOperators.LSHR,
+                        BIT_MASK));
+    }
+
+    /**
+     * Returns, in each bit, the cell right of the same bit of the words at
+     * i.
+     *
+     * @param cells
+     *            the array
+     * @param i
+     *            the index of the first word
+     * @param words
+     *            the words at i
+     * @param shifts
+     *            lane by lane, the bit of the word at i that the first cell
+     *            of the next word goes to
+     * @return the cells to the east
+     */
+    private static LongVector east(long[] cells, int i, LongVector words,
+            LongVector shifts) {
+        return words.lanewise(VectorOperators.LSHR, 1)
+                .or(load(cells, i + 1).lanewise(VectorOperators.LSHL,
+                        shifts));
+    }
+
+    /**
+     * Computes the next generation of the words at i under Conway's rule.
+     *
+     * @param cells
+     *            the current generation, with its halo filled
+     * @param i
+     *            the index of the first word
+     * @param stride
+     *            the words from one row to the next
+     * @param shifts
+     *            lane by lane, the bit the cell right of a word goes to:
+     *            63, or the last bit on the board for the last word of a row
+     * @param onBoard
+     *            lane by lane, the bits on the board
+     * @return the next generation of the words
+     */
+    private static LongVector evolve(long[] cells, int i, int stride,
+            LongVector shifts, LongVector onBoard) {
+        int up = i - stride;
+        int down = i + stride;
+        LongVector n = load(cells, up);
+        LongVector nw = west(cells, up, n);
+        LongVector ne = east(cells, up, n, shifts);
+        LongVector c = load(cells, i);
+        LongVector w = west(cells, i, c);
+        LongVector e = east(cells, i, c, shifts);
+        LongVector s = load(cells, down);
+        LongVector sw = west(cells, down, s);
+        LongVector se = east(cells, down, s, shifts);
+
+        // the same adders as PackedBoard.evolveWord
+        LongVector nwXorN = nw.lanewise(VectorOperators.XOR, n);
+        LongVector upSum = nwXorN.lanewise(VectorOperators.XOR, ne);
+        LongVector upCarry = nw.and(n).or(ne.and(nwXorN));
+        LongVector swXorS = sw.lanewise(VectorOperators.XOR, s);
+        LongVector downSum = swXorS.lanewise(VectorOperators.XOR, se);
+        LongVector downCarry = sw.and(s).or(se.and(swXorS));
+        LongVector midSum = w.lanewise(VectorOperators.XOR, e);
+        LongVector midCarry = w.and(e);
+
+        LongVector upXorDown = upSum.lanewise(VectorOperators.XOR, downSum);
+        LongVector ones = upXorDown.lanewise(VectorOperators.XOR, midSum);
+        LongVector onesCarry = upSum.and(downSum).or(midSum.and(upXorDown));
+
+        LongVector a = upCarry.lanewise(VectorOperators.XOR, downCarry);
+        LongVector b = midCarry.lanewise(VectorOperators.XOR, onesCarry);
+        LongVector both = upCarry.and(downCarry)
+                .or(midCarry.and(onesCarry));
+        LongVector exactlyOneTwo = a.lanewise(VectorOperators.XOR, b)
+                .lanewise(VectorOperators.AND_NOT, both);
+        return exactlyOneTwo.and(ones.or(c)).and(onBoard);
+    }
+
+    /**
+     * Lane by lane, the same as {@link PackedBoard#mix(int, long)}.
+     *
+     * @param index
+     *            the indexes of the words in the hash
+     * @param word
+     *            the words
+     * @return the mixed words, 0 where the word is 0
+     */
+    private static LongVector mix(LongVector index, LongVector word) {
+        LongVector z = word.lanewise(VectorOperators.XOR,
+                index.mul(PackedBoard.GOLDEN));
+        z = z.lanewise(VectorOperators.XOR,
+                z.lanewise(VectorOperators.LSHR, PackedBoard.SHIFT1))
+                .mul(PackedBoard.MIX1);
+        z = z.lanewise(VectorOperators.XOR,
+                z.lanewise(VectorOperators.LSHR, PackedBoard.SHIFT2))
+                .mul(PackedBoard.MIX2);
+        z = z.lanewise(VectorOperators.XOR,
+                z.lanewise(VectorOperators.LSHR, PackedBoard.SHIFT3));
+        return z.blend(0L, word.eq(0L));
+    }
+
+}
@@ -0,0 +1,79 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Testing the vector engine against the scalar packed board.
+ *
+ */
+public class VectorTickerTest {
+
+    /**
+     * Ticks a copy of a board with each engine and checks that the cells and
+     * hashes stay the same.
+     *
+     * @param start
+     *            the starting board
+     * @param generations
+     *            the number of generations
+     */
+    private static void assertSameAsPacked(PackedBoard start,
+            int generations) {
+        PackedBoard copy = new PackedBoard(start.width(), start.height());
+        copy.copyFrom(start);
+        VectorTicker vector = new VectorTicker(copy);
+        for (int g = 0; g < generations; g++) {
+            start.tick();
+            vector.tick();
+            assertEquals(start.hash(), vector.hash());
+        }
+        assertArrayEquals(start.toGrid(), copy.toGrid());
+        assertEquals(start.generation(), vector.generation());
+    }
+
+    /**
+     * Tests widths from one word to many vectors, with and without words
+     * left over at the right end of the rows, and with a partial last word
+     * inside the last vector, for every boundary.
+     */
+    @Test
+    public final void testTick_matchesPacked() {
+        final int[] widths = { 1, 64, 130, 507, 600, 1000, 1024, 1100 };
+        final int height = 17;
+        final int generations = 15;
+        long seed = 0;
+        for (Boundary boundary : Boundary.values()) {
+            for (int width : widths) {
+                PackedBoard board = RandomBoards.board(height, width, seed++);
+                board.setBoundary(boundary);
+                assertSameAsPacked(board, generations);
+            }
+        }
+    }
+
+    /**
+     * Tests that a rule other than Conway's goes through the scalar code
+     * and still gives the same generations.
+     */
+    @Test
+    public final void testTick_otherRule() {
+        final int size = 700;
+        final int generations = 10;
+        PackedBoard board = RandomBoards.board(size, size, 1);
+        board.setRule(Rule.parse("highlife"));
+        assertSameAsPacked(board, generations);
+    }
+
+    /**
+     * Tests that VectorSupport finds the engine when the module is there.
+     */
+    @Test
+    public final void testWrap_loadsVectorTicker() {
+        assertEquals(true, VectorSupport.isAvailable());
+        PackedBoard board = new PackedBoard(2, 2);
+        assertEquals(VectorTicker.class,
+                VectorSupport.wrap(board).getClass());
+    }
+
+}